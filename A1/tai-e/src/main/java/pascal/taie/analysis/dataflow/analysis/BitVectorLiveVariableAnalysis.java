@@ -0,0 +1,152 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Bit-vector implementation of live variable analysis.
+ * Variables are numbered densely by {@link Var#getIndex()}, and
+ * IN = use | (OUT & ~def) is computed on the words of {@link BitSetFact}
+ * with gen/kill masks precomputed for each statement.
+ * <p>
+ * An instance is created for each method being analyzed, and holds
+ * the gen/kill masks of the statements of the method in an array indexed
+ * by {@link Stmt#getIndex()}, so that the transfer function looks up
+ * the masks without hashing.
+ */
+class BitVectorLiveVariableAnalysis implements DataflowAnalysis<Stmt, BitSetFact> {
+
+    private static final GenKill EMPTY =
+            new GenKill(new BitSetFact(), new BitSetFact());
+
+    /**
+     * Gen/kill masks of the statements, indexed by {@link Stmt#getIndex()}.
+     */
+    private final GenKill[] masks;
+
+    private BitVectorLiveVariableAnalysis(IR ir) {
+        int nVars = ir.getVars().size();
+        int nStmts = ir.getStmts().size();
+        // entry and exit nodes of CFG do not belong to the IR,
+        // and are indexed by nStmts and nStmts + 1
+        masks = new GenKill[nStmts + 2];
+        Arrays.fill(masks, EMPTY);
+        ir.forEach(stmt -> masks[stmt.getIndex()] = computeGenKill(stmt, nVars));
+    }
+
+    /**
+     * Analyzes the given IR.
+     */
+    static DataflowResult<Stmt, BitSetFact> analyze(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        return Solver.makeSolver(new BitVectorLiveVariableAnalysis(ir)).solve(cfg);
+    }
+
+    /**
+     * Analyzes the given IR and converts the resulting bit vectors
+     * to facts of variables.
+     */
+    static DataflowResult<Stmt, SetFact<Var>> analyzeVars(IR ir) {
+        DataflowResult<Stmt, BitSetFact> bits = analyze(ir);
+        DataflowResult<Stmt, SetFact<Var>> result = new DataflowResult<>();
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        for (Stmt node : cfg) {
+            result.setInFact(node, toVarFact(ir, bits.getInFact(node)));
+            result.setOutFact(node, toVarFact(ir, bits.getOutFact(node)));
+        }
+        return result;
+    }
+
+    private static SetFact<Var> toVarFact(IR ir, BitSetFact fact) {
+        return new SetFact<>(fact.stream().mapToObj(ir::getVar).toList());
+    }
+
+    private static GenKill computeGenKill(Stmt stmt, int nVars) {
+        BitSetFact gen = new BitSetFact(nVars);
+        BitSetFact kill = new BitSetFact(nVars);
+        Optional<LValue> def = stmt.getDef();
+        if (def.isPresent() && def.get() instanceof Var var) {
+            kill.add(var.getIndex());
+        }
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var var) {
+                gen.add(var.getIndex());
+            }
+        }
+        return new GenKill(gen, kill);
+    }
+
+    @Override
+    public boolean isForward() {
+        return false;
+    }
+
+    @Override
+    public BitSetFact newBoundaryFact(CFG<Stmt> cfg) {
+        return new BitSetFact(cfg.getIR().getVars().size());
+    }
+
+    @Override
+    public BitSetFact newInitialFact() {
+        return new BitSetFact();
+    }
+
+    @Override
+    public void meetInto(BitSetFact fact, BitSetFact target) {
+        target.union(fact);
+    }
+
+    @Override
+    public boolean transferNode(Stmt stmt, BitSetFact in, BitSetFact out) {
+        GenKill genKill = masks[stmt.getIndex()];
+        return in.setGenKill(out, genKill.gen(), genKill.kill());
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Stmt> edge) {
+        return false;
+    }
+
+    @Override
+    public BitSetFact transferEdge(Edge<Stmt> edge, BitSetFact nodeFact) {
+        throw new UnsupportedOperationException();
+    }
+
+    private record GenKill(BitSetFact gen, BitSetFact kill) {
+    }
+}
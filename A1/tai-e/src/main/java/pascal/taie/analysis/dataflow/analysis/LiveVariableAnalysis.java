@@ -23,9 +23,11 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import fj.P;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.LValue;
 import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
@@ -45,8 +47,21 @@ public class LiveVariableAnalysis extends
     public static final String ID = "livevar";
     private List<RValue> uses;
 
+    /**
+     * Whether to use the bit-vector variant of this analysis,
+     * i.e., option "bit-vector".
+     */
+    private final boolean bitVector;
+
     public LiveVariableAnalysis(AnalysisConfig config) {
         super(config);
+        bitVector = getOptions().getBooleanOrDefault("bit-vector", false);
+    }
+
+    @Override
+    public DataflowResult<Stmt, SetFact<Var>> analyze(IR ir) {
+        return bitVector ?
+                BitVectorLiveVariableAnalysis.analyzeVars(ir) : super.analyze(ir);
     }
 
     @Override
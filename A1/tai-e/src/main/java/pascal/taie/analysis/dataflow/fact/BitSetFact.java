@@ -0,0 +1,256 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.stream.IntStream;
+
+/**
+ * Represents set-like data-flow facts over densely numbered elements,
+ * e.g., the variables of an IR numbered by {@code Var.getIndex()}.
+ * The content is stored as a bit vector in {@code long} words, which
+ * grows on demand, so facts of different lengths can be mixed freely.
+ */
+public class BitSetFact {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] words;
+
+    public BitSetFact() {
+        words = EMPTY;
+    }
+
+    /**
+     * Creates an empty fact with room for elements in [0, nbits).
+     */
+    public BitSetFact(int nbits) {
+        words = nbits > 0 ? new long[wordIndex(nbits - 1) + 1] : EMPTY;
+    }
+
+    private BitSetFact(long[] words) {
+        this.words = words;
+    }
+
+    private static int wordIndex(int bit) {
+        return bit >>> 6;
+    }
+
+    private void ensureCapacity(int nwords) {
+        if (words.length < nwords) {
+            words = Arrays.copyOf(words, nwords);
+        }
+    }
+
+    /**
+     * @return true if this fact contains the specified element, otherwise false.
+     */
+    public boolean contains(int bit) {
+        int i = wordIndex(bit);
+        return i < words.length && (words[i] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Adds an element to this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean add(int bit) {
+        int i = wordIndex(bit);
+        ensureCapacity(i + 1);
+        long old = words[i];
+        words[i] |= 1L << bit;
+        return words[i] != old;
+    }
+
+    /**
+     * Removes an element from this fact.
+     *
+     * @return true if an element was removed as a result of the call, otherwise false.
+     */
+    public boolean remove(int bit) {
+        int i = wordIndex(bit);
+        if (i >= words.length) {
+            return false;
+        }
+        long old = words[i];
+        words[i] &= ~(1L << bit);
+        return words[i] != old;
+    }
+
+    /**
+     * Unions other fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean union(BitSetFact other) {
+        long[] otherWords = other.words;
+        ensureCapacity(otherWords.length);
+        boolean changed = false;
+        for (int i = 0; i < otherWords.length; ++i) {
+            long old = words[i];
+            words[i] |= otherWords[i];
+            changed |= words[i] != old;
+        }
+        return changed;
+    }
+
+    /**
+     * Intersects this fact with other fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean intersect(BitSetFact other) {
+        long[] otherWords = other.words;
+        boolean changed = false;
+        for (int i = 0; i < words.length; ++i) {
+            long old = words[i];
+            words[i] &= i < otherWords.length ? otherWords[i] : 0L;
+            changed |= words[i] != old;
+        }
+        return changed;
+    }
+
+    /**
+     * Sets the content of this fact to {@code gen | (base & ~kill)},
+     * i.e., the result of a gen/kill transfer function applied to base.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean setGenKill(BitSetFact base, BitSetFact gen, BitSetFact kill) {
+        long[] baseWords = base.words, genWords = gen.words, killWords = kill.words;
+        ensureCapacity(Math.max(baseWords.length, genWords.length));
+        boolean changed = false;
+        for (int i = 0; i < words.length; ++i) {
+            long w = i < baseWords.length ? baseWords[i] : 0L;
+            if (i < killWords.length) {
+                w &= ~killWords[i];
+            }
+            if (i < genWords.length) {
+                w |= genWords[i];
+            }
+            if (words[i] != w) {
+                words[i] = w;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Sets the content of this fact to the same as other fact.
+     */
+    public void set(BitSetFact other) {
+        long[] otherWords = other.words;
+        ensureCapacity(otherWords.length);
+        System.arraycopy(otherWords, 0, words, 0, otherWords.length);
+        Arrays.fill(words, otherWords.length, words.length, 0L);
+    }
+
+    /**
+     * Creates and returns a copy of this fact.
+     */
+    public BitSetFact copy() {
+        return new BitSetFact(words.length > 0 ? words.clone() : EMPTY);
+    }
+
+    /**
+     * Clears all content in this fact.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    public boolean isEmpty() {
+        for (long w : words) {
+            if (w != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the elements of this fact in increasing order.
+     */
+    public IntStream stream() {
+        return IntStream.range(0, words.length)
+                .flatMap(i -> {
+                    long w = words[i];
+                    IntStream.Builder builder = IntStream.builder();
+                    while (w != 0) {
+                        builder.add((i << 6) + Long.numberOfTrailingZeros(w));
+                        w &= w - 1;
+                    }
+                    return builder.build();
+                });
+    }
+
+    public int size() {
+        int size = 0;
+        for (long w : words) {
+            size += Long.bitCount(w);
+        }
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BitSetFact that)) {
+            return false;
+        }
+        long[] longer = words, shorter = that.words;
+        if (longer.length < shorter.length) {
+            longer = that.words;
+            shorter = words;
+        }
+        for (int i = 0; i < longer.length; ++i) {
+            if (longer[i] != (i < shorter.length ? shorter[i] : 0L)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // trailing zero words must not affect the hash code,
+        // as equal facts may have different lengths
+        long h = 1234;
+        for (int i = words.length; --i >= 0; ) {
+            h ^= words[i] * (i + 1);
+        }
+        return (int) ((h >> 32) ^ h);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        stream().forEach(i -> joiner.add(Integer.toString(i)));
+        return joiner.toString();
+    }
+}
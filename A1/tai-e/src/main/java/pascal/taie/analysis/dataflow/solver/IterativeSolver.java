@@ -26,10 +26,7 @@ import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Set;
+import java.util.List;
 
 class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
 
@@ -45,9 +42,13 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
+        // sweep nodes in reverse postorder of the reversed CFG, so that
+        // a node is usually visited after its successors
+        List<Node> order = PriorityWorkList.reversePostorder(
+                cfg, List.of(cfg.getExit()), cfg::getPredsOf);
         while (true) {
             boolean flag = false;
-            for (Node node : cfg) {
+            for (Node node : order) {
             // 遍历CFG中的每个结点，对于node结点的每个后继
                 for (Node succ : cfg.getSuccsOf(node)) {
                     analysis.meetInto(result.getInFact(succ), result.getOutFact(node));
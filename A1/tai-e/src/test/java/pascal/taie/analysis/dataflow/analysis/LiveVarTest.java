@@ -32,6 +32,11 @@ public class LiveVarTest {
                 LiveVariableAnalysis.ID, "strongly:false");
     }
 
+    void testBitVectorLV(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/livevar",
+                LiveVariableAnalysis.ID, "strongly:false;bit-vector:true");
+    }
+
     @Test
     public void testAssign() {
         testLV("Assign");
@@ -61,4 +66,19 @@ public class LiveVarTest {
     public void Reference() {
         testLV("Reference");
     }
+
+    @Test
+    public void testBranchBitVector() {
+        testBitVectorLV("Branch");
+    }
+
+    @Test
+    public void testBranchLoopBitVector() {
+        testBitVectorLV("BranchLoop");
+    }
+
+    @Test
+    public void testFibonacciBitVector() {
+        testBitVectorLV("Fibonacci");
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BitSetFactTest {
+
+    private static BitSetFact of(int... bits) {
+        BitSetFact fact = new BitSetFact();
+        for (int bit : bits) {
+            fact.add(bit);
+        }
+        return fact;
+    }
+
+    @Test
+    public void testAddRemove() {
+        BitSetFact fact = new BitSetFact(10);
+        assertTrue(fact.add(3));
+        assertFalse(fact.add(3));
+        assertTrue(fact.add(130));
+        assertTrue(fact.contains(130));
+        assertFalse(fact.contains(4));
+        assertEquals(2, fact.size());
+        assertTrue(fact.remove(3));
+        assertFalse(fact.remove(3));
+        assertFalse(fact.remove(1000));
+        assertEquals("[130]", fact.toString());
+    }
+
+    @Test
+    public void testUnionIntersect() {
+        BitSetFact fact = of(1, 64);
+        assertTrue(fact.union(of(2, 200)));
+        assertFalse(fact.union(of(1)));
+        assertEquals(of(1, 2, 64, 200), fact);
+        assertTrue(fact.intersect(of(2, 64)));
+        assertEquals(of(2, 64), fact);
+    }
+
+    @Test
+    public void testSetGenKill() {
+        BitSetFact in = new BitSetFact();
+        BitSetFact out = of(0, 1, 70);
+        // in = {2} | ({0, 1, 70} & ~{1})
+        assertTrue(in.setGenKill(out, of(2), of(1)));
+        assertEquals(of(0, 2, 70), in);
+        assertFalse(in.setGenKill(out, of(2), of(1)));
+        assertTrue(in.setGenKill(new BitSetFact(), of(), of()));
+        assertTrue(in.isEmpty());
+    }
+
+    @Test
+    public void testEqualsIgnoresLength() {
+        BitSetFact small = of(5);
+        BitSetFact large = new BitSetFact(1000);
+        large.add(5);
+        assertEquals(small, large);
+        assertEquals(small.hashCode(), large.hashCode());
+        BitSetFact copy = large.copy();
+        copy.set(of(7));
+        assertEquals(of(7), copy);
+        assertEquals(of(5), large);
+    }
+}
@@ -27,8 +27,7 @@ import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.ir.stmt.DefinitionStmt;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
@@ -39,7 +38,8 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
-        Queue<Node> workList = new LinkedList<>();
+        PriorityWorkList<Node> workList =
+                PriorityWorkList.forward(cfg, List.of(cfg.getEntry()));
         // 出错的原因归根结底在于在构建workList时，没有将(p, NAC)加入进去，
         // 在initialize 的时候没有将In设置为NAC？
 //        for (var node:cfg) {
@@ -47,18 +47,15 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 //        }
 //        for (var node : cfg.getIR().getVars())
 //            System.out.println(node.toString());
-        for (var node : cfg) {
-            workList.offer(node);
-        }
+        workList.addAllNodes();
         while (!workList.isEmpty()) {
-            Node curNode = workList.remove();
+            Node curNode = workList.poll();
             for (Node node : cfg.getPredsOf(curNode)) {
                 analysis.meetInto(result.getOutFact(node), result.getInFact(curNode));
             }
 
             if (!analysis.transferNode(curNode, result.getInFact(curNode), result.getOutFact(curNode)))
-                for (var node : cfg.getSuccsOf(curNode))
-                    workList.offer(node);
+                workList.addAll(cfg.getSuccsOf(curNode));
         }
     }
 
@@ -0,0 +1,220 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Creates and executes analyses based on given analysis configurations.
+ * <p>
+ * Method analyses are executed in parallel on a work-stealing
+ * {@link ForkJoinPool}, whose parallelism is given by option "threads"
+ * of each method analysis (default: number of available processors,
+ * 1 means running sequentially on the calling thread). Each method in
+ * the scope is analyzed by exactly one task, which also stores the result
+ * in the IR of the method, so the (non-thread-safe) result map of an IR
+ * is never accessed concurrently. The pool is joined before the next
+ * analysis starts, so the results are visible to subsequent analyses.
+ * <p>
+ * This assignment has no call graph, so scope "reachable" is not supported.
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    /**
+     * Maximum number of methods analyzed by one fork-join task
+     * without further splitting.
+     */
+    private static final int METHODS_PER_TASK = 4;
+
+    private List<JClass> classScope;
+
+    private List<JMethod> methodScope;
+
+    /**
+     * Executes the analyses given by the configurations in order.
+     */
+    public void execute(List<AnalysisConfig> analyses) {
+        analyses.forEach(config -> Timer.runAndCount(
+                () -> runAnalysis(config), config.getId()));
+    }
+
+    private void runAnalysis(AnalysisConfig config) {
+        try {
+            Class<?> clazz = Class.forName(config.getAnalysisClass());
+            Constructor<?> ctor = clazz.getConstructor(AnalysisConfig.class);
+            Object analysis = ctor.newInstance(config);
+            if (analysis instanceof ProgramAnalysis pa) {
+                runProgramAnalysis(pa);
+            } else if (analysis instanceof ClassAnalysis ca) {
+                runClassAnalysis(ca);
+            } else if (analysis instanceof MethodAnalysis ma) {
+                runMethodAnalysis(ma);
+            } else {
+                logger.warn(clazz + " is not an analysis");
+            }
+        } catch (ClassNotFoundException | NoSuchMethodException |
+                 InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    private void runProgramAnalysis(ProgramAnalysis analysis) {
+        Object result = analysis.analyze();
+        if (result != null) {
+            World.get().storeResult(analysis.getId(), result);
+        }
+    }
+
+    private void runClassAnalysis(ClassAnalysis analysis) {
+        getClassScope().parallelStream().forEach(c -> {
+            Object result = analysis.analyze(c);
+            if (result != null) {
+                c.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            String scope = World.get().getOptions().getScope();
+            classScope = switch (scope) {
+                case "app" -> World.get().getClassHierarchy()
+                        .applicationClasses().toList();
+                case "all" -> World.get().getClassHierarchy()
+                        .allClasses().toList();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), scope);
+        }
+        return classScope;
+    }
+
+    private void runMethodAnalysis(MethodAnalysis analysis) {
+        List<JMethod> methods = getMethodScope();
+        int threads = getThreads(analysis);
+        if (threads == 1) {
+            methods.forEach(m -> analyzeMethod(analysis, m));
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new MethodAnalysisTask(
+                        analysis, methods, 0, methods.size()));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static int getThreads(MethodAnalysis analysis) {
+        Object threads = analysis.getOptions().get("threads");
+        int n = threads != null ?
+                analysis.getOptions().getInt("threads") :
+                Runtime.getRuntime().availableProcessors();
+        return Math.max(1, n);
+    }
+
+    private static void analyzeMethod(MethodAnalysis analysis, JMethod method) {
+        Object result = analysis.analyze(method.getIR());
+        if (result != null) {
+            method.getIR().storeResult(analysis.getId(), result);
+        }
+    }
+
+    /**
+     * Analyzes methods[from, to) by splitting the range in halves
+     * until it is small enough, so that idle workers can steal
+     * the pending halves of busy workers.
+     */
+    @SuppressWarnings("serial")
+    private static class MethodAnalysisTask extends RecursiveAction {
+
+        private final MethodAnalysis analysis;
+
+        private final List<JMethod> methods;
+
+        private final int from;
+
+        private final int to;
+
+        private MethodAnalysisTask(MethodAnalysis analysis,
+                                   List<JMethod> methods, int from, int to) {
+            this.analysis = analysis;
+            this.methods = methods;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= METHODS_PER_TASK) {
+                for (int i = from; i < to; ++i) {
+                    analyzeMethod(analysis, methods.get(i));
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MethodAnalysisTask(analysis, methods, from, mid),
+                        new MethodAnalysisTask(analysis, methods, mid, to));
+            }
+        }
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            String scope = World.get().getOptions().getScope();
+            methodScope = switch (scope) {
+                case "app", "all" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), scope);
+        }
+        return methodScope;
+    }
+}
@@ -23,8 +23,11 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
 import pascal.taie.ir.stmt.Stmt;
@@ -32,6 +35,7 @@ import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 
 import java.util.Optional;
+import java.util.function.Function;
 
 public class ConstantPropagation extends
         AbstractDataflowAnalysis<Stmt, CPFact> {
@@ -42,6 +46,17 @@ public class ConstantPropagation extends
         super(config);
     }
 
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        if (getOptions().getBooleanOrDefault("sparse", false)) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            return new SparseConstantPropagation(this, cfg,
+                    getOptions().getBooleanOrDefault("conditional", false))
+                    .solve();
+        }
+        return super.analyze(ir);
+    }
+
     @Override
     public boolean isForward() {
         return true;
@@ -167,20 +182,31 @@ public class ConstantPropagation extends
      *
      */
     public static Value evaluate(Exp exp, CPFact in) {
+        return evaluate(exp, in::get);
+    }
+
+    /**
+     * Evaluates the {@link Value} of given expression.
+     *
+     * @param exp     the expression to be evaluated
+     * @param valueOf returns the values of variables used by the expression
+     * @return the resulting {@link Value}
+     */
+    static Value evaluate(Exp exp, Function<Var, Value> valueOf) {
         // TODO - finish me
         /*
          * 只需要考虑Int类型
          * 只需要处理等号左侧为变量且右侧只能是常量、变量、二元运算表达式的语句, 其他的引用类型忽略其值
          */
         if (exp instanceof Var) {
-            return in.get((Var)exp);
+            return valueOf.apply((Var) exp);
         }
         else if (exp instanceof IntLiteral) {
             return Value.makeConstant(((IntLiteral) exp).getValue());
         }
         else if (exp instanceof BinaryExp) {
-            Value op1 = evaluate(((BinaryExp) exp).getOperand1(), in);
-            Value op2 = evaluate(((BinaryExp) exp).getOperand2(), in);
+            Value op1 = evaluate(((BinaryExp) exp).getOperand1(), valueOf);
+            Value op2 = evaluate(((BinaryExp) exp).getOperand2(), valueOf);
             //Value op1 = in.get(operand1);
             //Value op2 = in.get(operand2);
             String op = ((BinaryExp) exp).getOperator().toString();
@@ -0,0 +1,678 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.PriorityWorkList;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation.canHoldInt;
+import static pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation.evaluate;
+
+/**
+ * Sparse constant propagation over def-use chains.
+ * <p>
+ * The IR is not in SSA form, so the int variables of the method are first
+ * put into (minimal) SSA form: phi definitions are placed on the iterated
+ * dominance frontiers of the definition sites, and each use is linked to
+ * the definition that reaches it by renaming over the dominator tree.
+ * Values are then propagated along def-use chains, i.e., a definition
+ * whose value changes only re-evaluates its users instead of the facts
+ * of all following statements.
+ * <p>
+ * When conditional, only the CFG edges that may be taken under the
+ * current values are executable (as in sparse conditional constant
+ * propagation); otherwise all edges are executable and the result is
+ * the same as that of the dense analysis.
+ * <p>
+ * Nodes are numbered by reverse postorder from a virtual root (node 0),
+ * which defines all variables as UNDEF and has edges to the entry and
+ * to the nodes unreachable from the entry. Data-flow facts of the nodes
+ * are materialized on demand from the definitions along the dominator tree.
+ */
+class SparseConstantPropagation {
+
+    private static final int ROOT = 0;
+
+    private final ConstantPropagation analysis;
+
+    private final CFG<Stmt> cfg;
+
+    private final boolean conditional;
+
+    /**
+     * Value of variables that cannot hold int. They are absent
+     * (i.e., UNDEF) in the dense analysis, but must not make
+     * branches unexecutable.
+     */
+    private final Value nonIntValue;
+
+    /**
+     * Statement of each node, indexed by node id - 1.
+     */
+    private List<Stmt> stmts;
+
+    private Map<Stmt, Integer> ids;
+
+    private int entry;
+
+    /**
+     * Predecessors of each node, and the CFG edges from them
+     * ({@code null} for edges from the root).
+     */
+    private int[][] preds;
+
+    private List<List<Edge<Stmt>>> predEdges;
+
+    /**
+     * Successors of each node, and the position of the node
+     * among the predecessors of each successor.
+     */
+    private int[][] succs;
+
+    private int[][] succPos;
+
+    private int[] idom;
+
+    private int[][] domChildren;
+
+    /**
+     * Definitions of the root and the parameters, indexed by variable index.
+     */
+    private Def[] rootDefs;
+
+    private Def[] paramDefs;
+
+    /**
+     * Definition made by the statement of each node, if any.
+     */
+    private Def[] stmtDefs;
+
+    private List<List<Def>> phis;
+
+    /**
+     * Int variables used by the statement of each node,
+     * and the definitions reaching them.
+     */
+    private Var[][] useVars;
+
+    private Def[][] useDefs;
+
+    private boolean[] reachable;
+
+    private boolean[][] executable;
+
+    private final Deque<Long> flowWorkList = new ArrayDeque<>();
+
+    private final Deque<Def> defWorkList = new ArrayDeque<>();
+
+    SparseConstantPropagation(ConstantPropagation analysis,
+                              CFG<Stmt> cfg, boolean conditional) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+        this.conditional = conditional;
+        this.nonIntValue = conditional ? Value.getNAC() : Value.getUndef();
+    }
+
+    DataflowResult<Stmt, CPFact> solve() {
+        buildGraph();
+        computeDominators();
+        buildSSA();
+        propagate();
+        return new Result();
+    }
+
+    private void buildGraph() {
+        Stmt entryStmt = cfg.getEntry();
+        stmts = PriorityWorkList.reversePostorder(
+                cfg, List.of(entryStmt), cfg::getSuccsOf);
+        int n = stmts.size() + 1;
+        ids = Maps.newMap(n);
+        for (int i = 0; i < stmts.size(); ++i) {
+            ids.put(stmts.get(i), i + 1);
+        }
+        entry = ids.get(entryStmt);
+        List<List<Integer>> predList = newLists(n);
+        List<List<Edge<Stmt>>> predEdgeList = newLists(n);
+        List<List<Integer>> succList = newLists(n);
+        List<List<Integer>> succPosList = newLists(n);
+        // the root reaches the entry first, and then the nodes unreachable
+        // from the entry in the order of the graph, which is consistent
+        // with the traversal computing the reverse postorder
+        List<Integer> roots = new ArrayList<>();
+        roots.add(entry);
+        for (Stmt stmt : cfg) {
+            int id = ids.get(stmt);
+            // nodes before the entry are exactly the nodes unreachable from it
+            if (id < entry) {
+                roots.add(id);
+            }
+        }
+        for (int root : roots) {
+            addEdge(predList, predEdgeList, succList, succPosList,
+                    ROOT, root, null);
+        }
+        for (int i = 1; i < n; ++i) {
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmts.get(i - 1))) {
+                addEdge(predList, predEdgeList, succList, succPosList,
+                        i, ids.get(edge.getTarget()), edge);
+            }
+        }
+        preds = toArrays(predList);
+        succs = toArrays(succList);
+        succPos = toArrays(succPosList);
+        predEdges = predEdgeList;
+    }
+
+    private static void addEdge(
+            List<List<Integer>> predList, List<List<Edge<Stmt>>> predEdgeList,
+            List<List<Integer>> succList, List<List<Integer>> succPosList,
+            int source, int target, Edge<Stmt> edge) {
+        succList.get(source).add(target);
+        succPosList.get(source).add(predList.get(target).size());
+        predList.get(target).add(source);
+        predEdgeList.get(target).add(edge);
+    }
+
+    /**
+     * Computes immediate dominators by the algorithm of Cooper, Harvey
+     * and Kennedy, which relies on nodes being numbered in reverse postorder.
+     */
+    private void computeDominators() {
+        int n = preds.length;
+        idom = new int[n];
+        Arrays.fill(idom, -1);
+        idom[ROOT] = ROOT;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b = 1; b < n; ++b) {
+                int newIdom = -1;
+                for (int p : preds[b]) {
+                    if (idom[p] != -1) {
+                        newIdom = newIdom == -1 ? p : intersect(p, newIdom);
+                    }
+                }
+                if (idom[b] != newIdom) {
+                    idom[b] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+        int[] nChildren = new int[n];
+        for (int b = 1; b < n; ++b) {
+            ++nChildren[idom[b]];
+        }
+        domChildren = new int[n][];
+        for (int b = 0; b < n; ++b) {
+            domChildren[b] = new int[nChildren[b]];
+        }
+        Arrays.fill(nChildren, 0);
+        for (int b = 1; b < n; ++b) {
+            domChildren[idom[b]][nChildren[idom[b]]++] = b;
+        }
+    }
+
+    private int intersect(int a, int b) {
+        while (a != b) {
+            while (a > b) {
+                a = idom[a];
+            }
+            while (b > a) {
+                b = idom[b];
+            }
+        }
+        return a;
+    }
+
+    private int[][] computeDominanceFrontiers() {
+        int n = preds.length;
+        List<List<Integer>> df = newLists(n);
+        int[] lastAdded = new int[n];
+        Arrays.fill(lastAdded, -1);
+        for (int b = 1; b < n; ++b) {
+            if (preds[b].length >= 2) {
+                for (int p : preds[b]) {
+                    for (int runner = p; runner != idom[b]; runner = idom[runner]) {
+                        if (lastAdded[runner] != b) {
+                            lastAdded[runner] = b;
+                            df.get(runner).add(b);
+                        }
+                    }
+                }
+            }
+        }
+        return toArrays(df);
+    }
+
+    private void buildSSA() {
+        IR ir = cfg.getIR();
+        int n = preds.length;
+        int nVars = ir.getVars().size();
+        // collect definitions
+        rootDefs = new Def[nVars];
+        paramDefs = new Def[nVars];
+        stmtDefs = new Def[n];
+        List<List<Integer>> defSites = newLists(nVars);
+        for (Var var : ir.getVars()) {
+            if (canHoldInt(var)) {
+                rootDefs[var.getIndex()] = new Def(var, ROOT, 0);
+                defSites.get(var.getIndex()).add(ROOT);
+            }
+        }
+        for (Var param : ir.getParams()) {
+            if (canHoldInt(param)) {
+                Def def = new Def(param, entry, 0);
+                def.value = Value.getNAC();
+                paramDefs[param.getIndex()] = def;
+                defSites.get(param.getIndex()).add(entry);
+            }
+        }
+        for (int b = 1; b < n; ++b) {
+            Optional<LValue> lhs = stmts.get(b - 1).getDef();
+            if (lhs.isPresent() && lhs.get() instanceof Var var
+                    && canHoldInt(var)) {
+                stmtDefs[b] = new Def(var, b, 0);
+                defSites.get(var.getIndex()).add(b);
+            }
+        }
+        // place phis on iterated dominance frontiers
+        int[][] df = computeDominanceFrontiers();
+        phis = newLists(n);
+        int[] hasPhi = new int[n];
+        int[] visited = new int[n];
+        Deque<Integer> workList = new ArrayDeque<>();
+        for (Var var : ir.getVars()) {
+            if (!canHoldInt(var)) {
+                continue;
+            }
+            int mark = var.getIndex() + 1;
+            for (int site : defSites.get(var.getIndex())) {
+                visited[site] = mark;
+                workList.add(site);
+            }
+            while (!workList.isEmpty()) {
+                for (int f : df[workList.poll()]) {
+                    if (hasPhi[f] != mark) {
+                        hasPhi[f] = mark;
+                        phis.get(f).add(new Def(var, f, preds[f].length));
+                        if (visited[f] != mark) {
+                            visited[f] = mark;
+                            workList.add(f);
+                        }
+                    }
+                }
+            }
+        }
+        rename(nVars);
+    }
+
+    /**
+     * Links each use to its reaching definition by a depth-first
+     * traversal of the dominator tree.
+     */
+    private void rename(int nVars) {
+        int n = preds.length;
+        useVars = new Var[n][];
+        useDefs = new Def[n][];
+        Def[] current = Arrays.copyOf(rootDefs, nVars);
+        // previous definitions overwritten in current, to be restored
+        // when leaving the subtrees
+        List<Def> undoLog = new ArrayList<>();
+        int[] stackNode = new int[n];
+        int[] stackChild = new int[n];
+        int[] stackMark = new int[n];
+        int top = 0;
+        stackNode[0] = ROOT;
+        stackMark[0] = 0;
+        visitRename(ROOT, current, undoLog);
+        while (top >= 0) {
+            int b = stackNode[top];
+            if (stackChild[top] < domChildren[b].length) {
+                int child = domChildren[b][stackChild[top]++];
+                ++top;
+                stackNode[top] = child;
+                stackChild[top] = 0;
+                stackMark[top] = undoLog.size();
+                visitRename(child, current, undoLog);
+            } else {
+                for (int i = undoLog.size() - 1; i >= stackMark[top]; --i) {
+                    Def prev = undoLog.remove(i);
+                    current[prev.var.getIndex()] = prev;
+                }
+                --top;
+            }
+        }
+    }
+
+    private void visitRename(int b, Def[] current, List<Def> undoLog) {
+        for (Def phi : phis.get(b)) {
+            define(phi, current, undoLog);
+        }
+        if (b == entry) {
+            for (Def def : paramDefs) {
+                if (def != null) {
+                    define(def, current, undoLog);
+                }
+            }
+        }
+        if (b != ROOT) {
+            List<Var> vars = new ArrayList<>();
+            List<Def> defs = new ArrayList<>();
+            for (RValue use : stmts.get(b - 1).getUses()) {
+                if (use instanceof Var var && canHoldInt(var)
+                        && !vars.contains(var)) {
+                    Def def = current[var.getIndex()];
+                    vars.add(var);
+                    defs.add(def);
+                    def.addUser(b);
+                }
+            }
+            useVars[b] = vars.toArray(new Var[0]);
+            useDefs[b] = defs.toArray(new Def[0]);
+        }
+        if (stmtDefs[b] != null) {
+            define(stmtDefs[b], current, undoLog);
+        }
+        for (int i = 0; i < succs[b].length; ++i) {
+            int pos = succPos[b][i];
+            for (Def phi : phis.get(succs[b][i])) {
+                Def def = current[phi.var.getIndex()];
+                phi.operands[pos] = def;
+                def.addUser(phi);
+            }
+        }
+    }
+
+    private static void define(Def def, Def[] current, List<Def> undoLog) {
+        int index = def.var.getIndex();
+        undoLog.add(current[index]);
+        current[index] = def;
+    }
+
+    private void propagate() {
+        int n = preds.length;
+        reachable = new boolean[n];
+        executable = new boolean[n][];
+        for (int b = 0; b < n; ++b) {
+            executable[b] = new boolean[preds[b].length];
+        }
+        reachable[ROOT] = true;
+        markOutEdges(ROOT);
+        while (!flowWorkList.isEmpty() || !defWorkList.isEmpty()) {
+            while (!flowWorkList.isEmpty()) {
+                int b = (int) (flowWorkList.poll() >>> 32);
+                if (!reachable[b]) {
+                    reachable[b] = true;
+                    phis.get(b).forEach(this::updatePhi);
+                    updateStmtDef(b);
+                    markOutEdges(b);
+                } else {
+                    // a new executable edge only affects the phis
+                    phis.get(b).forEach(this::updatePhi);
+                }
+            }
+            Def def = defWorkList.poll();
+            if (def != null) {
+                for (Def phi : def.phiUsers) {
+                    if (reachable[phi.node]) {
+                        updatePhi(phi);
+                    }
+                }
+                for (int user : def.nodeUsers) {
+                    if (reachable[user]) {
+                        updateStmtDef(user);
+                        if (conditional) {
+                            markOutEdges(user);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void markOutEdges(int b) {
+        for (int i = 0; i < succs[b].length; ++i) {
+            int s = succs[b][i];
+            int pos = succPos[b][i];
+            if (!executable[s][pos] && isFeasible(b, s, predEdges.get(s).get(pos))) {
+                executable[s][pos] = true;
+                flowWorkList.add(((long) s << 32) | pos);
+            }
+        }
+    }
+
+    private boolean isFeasible(int b, int s, Edge<Stmt> edge) {
+        if (!conditional) {
+            return true;
+        }
+        if (edge == null) { // edge from the root
+            return s == entry;
+        }
+        Stmt stmt = stmts.get(b - 1);
+        switch (edge.getKind()) {
+            case IF_TRUE, IF_FALSE -> {
+                Value cond = evaluate(((If) stmt).getCondition(),
+                        var -> valueOf(b, var));
+                if (cond.isConstant()) {
+                    return (cond.getConstant() != 0) ==
+                            (edge.getKind() == Edge.Kind.IF_TRUE);
+                }
+                return cond.isNAC();
+            }
+            case SWITCH_CASE, SWITCH_DEFAULT -> {
+                SwitchStmt switchStmt = (SwitchStmt) stmt;
+                Value value = valueOf(b, switchStmt.getVar());
+                if (value.isConstant()) {
+                    return edge.isSwitchCase() ?
+                            edge.getCaseValue() == value.getConstant() :
+                            !switchStmt.getCaseValues().contains(value.getConstant());
+                }
+                return value.isNAC();
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+
+    private void updatePhi(Def phi) {
+        Value value = Value.getUndef();
+        boolean[] exec = executable[phi.node];
+        for (int i = 0; i < exec.length; ++i) {
+            if (exec[i]) {
+                value = analysis.meetValue(value, phi.operands[i].value);
+            }
+        }
+        setValue(phi, value);
+    }
+
+    private void updateStmtDef(int b) {
+        Def def = stmtDefs[b];
+        if (def != null) {
+            DefinitionStmt<?, ?> stmt = (DefinitionStmt<?, ?>) stmts.get(b - 1);
+            setValue(def, evaluate(stmt.getRValue(), var -> valueOf(b, var)));
+        }
+    }
+
+    private void setValue(Def def, Value value) {
+        Value newValue = analysis.meetValue(def.value, value);
+        if (!newValue.equals(def.value)) {
+            def.value = newValue;
+            defWorkList.add(def);
+        }
+    }
+
+    /**
+     * @return the value of given variable used at node b.
+     */
+    private Value valueOf(int b, Var var) {
+        if (!canHoldInt(var)) {
+            return nonIntValue;
+        }
+        Var[] vars = useVars[b];
+        for (int i = 0; i < vars.length; ++i) {
+            if (vars[i] == var) {
+                return useDefs[b][i].value;
+            }
+        }
+        return Value.getUndef();
+    }
+
+    /**
+     * Materializes the IN fact of node b, where the value of each variable
+     * is given by the nearest definition on the dominator tree.
+     */
+    private CPFact computeInFact(int b) {
+        CPFact fact = new CPFact();
+        BitSet seen = new BitSet();
+        for (int x = b; x != ROOT; x = idom[x]) {
+            if (x != b && stmtDefs[x] != null) {
+                addDef(fact, seen, stmtDefs[x]);
+            }
+            if (x == entry) {
+                for (Def def : paramDefs) {
+                    if (def != null) {
+                        addDef(fact, seen, def);
+                    }
+                }
+            }
+            for (Def phi : phis.get(x)) {
+                addDef(fact, seen, phi);
+            }
+        }
+        // remaining variables are defined by the root, i.e., UNDEF
+        return fact;
+    }
+
+    private static void addDef(CPFact fact, BitSet seen, Def def) {
+        int index = def.var.getIndex();
+        if (!seen.get(index)) {
+            seen.set(index);
+            fact.update(def.var, def.value);
+        }
+    }
+
+    private static <T> List<List<T>> newLists(int n) {
+        List<List<T>> lists = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            lists.add(new ArrayList<>());
+        }
+        return lists;
+    }
+
+    private static int[][] toArrays(List<List<Integer>> lists) {
+        int[][] arrays = new int[lists.size()][];
+        for (int i = 0; i < arrays.length; ++i) {
+            arrays[i] = lists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return arrays;
+    }
+
+    /**
+     * A definition of a variable, made by the root, a parameter,
+     * a statement, or a phi (which has operands).
+     */
+    private static class Def {
+
+        private final Var var;
+
+        private final int node;
+
+        /**
+         * Operands of phi, one for each predecessor of the node.
+         */
+        private final Def[] operands;
+
+        private Value value = Value.getUndef();
+
+        private final List<Def> phiUsers = new ArrayList<>(2);
+
+        private final List<Integer> nodeUsers = new ArrayList<>(2);
+
+        private Def(Var var, int node, int nOperands) {
+            this.var = var;
+            this.node = node;
+            this.operands = new Def[nOperands];
+        }
+
+        private void addUser(Def phi) {
+            phiUsers.add(phi);
+        }
+
+        private void addUser(int node) {
+            nodeUsers.add(node);
+        }
+    }
+
+    /**
+     * Data-flow result whose facts are materialized when first requested.
+     */
+    private class Result extends DataflowResult<Stmt, CPFact> {
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            CPFact fact = super.getInFact(stmt);
+            Integer id = ids.get(stmt);
+            if (fact == null && id != null) {
+                fact = computeInFact(id);
+                setInFact(stmt, fact);
+            }
+            return fact;
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            CPFact fact = super.getOutFact(stmt);
+            Integer id = ids.get(stmt);
+            if (fact == null && id != null) {
+                fact = getInFact(stmt).copy();
+                Def def = stmtDefs[id];
+                if (def != null) {
+                    fact.update(def.var, def.value);
+                }
+                setOutFact(stmt, fact);
+            }
+            return fact;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.Graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Work-list which always polls the node with the highest priority.
+ * Priorities are given by a fixed order of all nodes, typically the
+ * reverse postorder for forward analyses (so that a node is usually
+ * visited after its predecessors) and the reverse postorder of the
+ * reversed graph for backward analyses.
+ * <p>
+ * The work-list is a bitmap over the positions of the nodes in the order,
+ * thus a node is never enqueued twice, and polling the lowest set bit
+ * yields the pending node with the highest priority.
+ *
+ * @param <Node> type of graph nodes
+ */
+public class PriorityWorkList<Node> {
+
+    private final List<Node> order;
+
+    private final Map<Node, Integer> positions;
+
+    private final BitSet inQueue;
+
+    /**
+     * Creates an empty work-list over the given nodes, where nodes
+     * that come first in the order have higher priorities.
+     */
+    public PriorityWorkList(List<Node> order) {
+        this.order = order;
+        this.positions = Maps.newMap(order.size());
+        for (int i = 0; i < order.size(); ++i) {
+            positions.put(order.get(i), i);
+        }
+        this.inQueue = new BitSet(order.size());
+    }
+
+    /**
+     * @return an empty work-list ordering the nodes of the graph
+     * by reverse postorder from the given entries.
+     */
+    public static <Node> PriorityWorkList<Node> forward(
+            Graph<Node> graph, Collection<Node> entries) {
+        return new PriorityWorkList<>(
+                reversePostorder(graph, entries, graph::getSuccsOf));
+    }
+
+    /**
+     * @return an empty work-list ordering the nodes of the graph
+     * by reverse postorder of the reversed graph from the given exits.
+     */
+    public static <Node> PriorityWorkList<Node> backward(
+            Graph<Node> graph, Collection<Node> exits) {
+        return new PriorityWorkList<>(
+                reversePostorder(graph, exits, graph::getPredsOf));
+    }
+
+    /**
+     * Computes the reverse postorder of the nodes of the graph by
+     * depth-first search from the given roots along the given edges.
+     * Nodes which are not reachable from the roots are also included,
+     * so the result always contains all nodes of the graph. They are
+     * traversed after the roots, thus in the result they come
+     * <em>before</em> the nodes reachable from the roots (the sparse
+     * constant propagation relies on this order).
+     *
+     * @param next function that returns the nodes following a given node,
+     *             e.g., successors for forward traversal.
+     */
+    public static <Node> List<Node> reversePostorder(
+            Graph<Node> graph, Collection<Node> roots,
+            Function<Node, ? extends Collection<Node>> next) {
+        Set<Node> nodes = graph.getNodes();
+        List<Node> postorder = new ArrayList<>(nodes.size());
+        Set<Node> visited = Sets.newSet(nodes.size());
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<Node>> iterators = new ArrayDeque<>();
+        for (Collection<Node> starts : List.of(roots, nodes)) {
+            for (Node start : starts) {
+                if (!visited.add(start)) {
+                    continue;
+                }
+                stack.push(start);
+                iterators.push(next.apply(start).iterator());
+                while (!stack.isEmpty()) {
+                    Iterator<Node> it = iterators.peek();
+                    if (it.hasNext()) {
+                        Node succ = it.next();
+                        if (visited.add(succ)) {
+                            stack.push(succ);
+                            iterators.push(next.apply(succ).iterator());
+                        }
+                    } else {
+                        postorder.add(stack.pop());
+                        iterators.pop();
+                    }
+                }
+            }
+        }
+        Collections.reverse(postorder);
+        return postorder;
+    }
+
+    /**
+     * @return all nodes of this work-list, from the highest priority
+     * to the lowest.
+     */
+    public List<Node> getOrder() {
+        return Collections.unmodifiableList(order);
+    }
+
+    /**
+     * Adds a node to this work-list.
+     *
+     * @return true if the node was not in this work-list, otherwise false.
+     */
+    public boolean add(Node node) {
+        Integer pos = positions.get(node);
+        if (pos == null) {
+            throw new IllegalArgumentException(node + " is not in the order");
+        }
+        if (inQueue.get(pos)) {
+            return false;
+        }
+        inQueue.set(pos);
+        return true;
+    }
+
+    /**
+     * Adds the given nodes to this work-list.
+     */
+    public void addAll(Collection<? extends Node> nodes) {
+        nodes.forEach(this::add);
+    }
+
+    /**
+     * Adds all nodes in the order to this work-list.
+     */
+    public void addAllNodes() {
+        inQueue.set(0, order.size());
+    }
+
+    /**
+     * Removes and returns the node with the highest priority.
+     *
+     * @return the node, or null if this work-list is empty.
+     */
+    public Node poll() {
+        int pos = inQueue.nextSetBit(0);
+        if (pos < 0) {
+            return null;
+        }
+        inQueue.clear(pos);
+        return order.get(pos);
+    }
+
+    public boolean isEmpty() {
+        return inQueue.isEmpty();
+    }
+}
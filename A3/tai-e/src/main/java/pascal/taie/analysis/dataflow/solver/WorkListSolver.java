@@ -26,8 +26,7 @@ import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
@@ -38,7 +37,8 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
-        Queue<Node> workList = new LinkedList<>();
+        PriorityWorkList<Node> workList =
+                PriorityWorkList.forward(cfg, List.of(cfg.getEntry()));
         // 出错的原因归根结底在于在构建workList时，没有将(p, NAC)加入进去，
         // 在initialize 的时候没有将In设置为NAC？
 //        for (var node:cfg) {
@@ -46,34 +46,33 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 //        }
 //        for (var node : cfg.getIR().getVars())
 //            System.out.println(node.toString());
-        for (var node : cfg) {
-            workList.offer(node);
-        }
+        workList.addAllNodes();
         while (!workList.isEmpty()) {
-            Node curNode = workList.remove();
+            Node curNode = workList.poll();
             for (Node node : cfg.getPredsOf(curNode)) {
                 analysis.meetInto(result.getOutFact(node), result.getInFact(curNode));
             }
 
             if (!analysis.transferNode(curNode, result.getInFact(curNode), result.getOutFact(curNode)))
-                for (var node : cfg.getSuccsOf(curNode))
-                    workList.offer(node);
+                workList.addAll(cfg.getSuccsOf(curNode));
         }
     }
 
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        while (true) {
-            boolean flag = false;
-            for (Node node : cfg) {
-                // 遍历CFG中的每个结点，对于node结点的每个后继
-                for (Node succ : cfg.getSuccsOf(node)) {
-                    analysis.meetInto(result.getInFact(succ), result.getOutFact(node));
-                }
-                // 只要有一个true，说明至少一个节点的IN集合发生了改变，那么可以继续执行
-                flag |= analysis.transferNode(node, result.getInFact(node), result.getOutFact(node));
+        PriorityWorkList<Node> workList =
+                PriorityWorkList.backward(cfg, List.of(cfg.getExit()));
+        workList.addAllNodes();
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            // 遍历CFG中的每个结点，对于node结点的每个后继
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), result.getOutFact(node));
+            }
+            // IN集合发生了改变时，前驱结点需要重新计算
+            if (analysis.transferNode(node, result.getInFact(node), result.getOutFact(node))) {
+                workList.addAll(cfg.getPredsOf(node));
             }
-            if (!flag) break;
         }
     }
 }
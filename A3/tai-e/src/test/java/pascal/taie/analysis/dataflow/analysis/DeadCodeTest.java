@@ -34,6 +34,20 @@ public class DeadCodeTest {
                 "-a", "constprop=edge-refine:false");
     }
 
+    void testSparseDCD(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:false;sparse:true");
+    }
+
+    void testConditionalDCD(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:false;sparse:true;conditional:true");
+    }
+
     @Test
     public void testControlFlowUnreachable() {
         testDCD("ControlFlowUnreachable");
@@ -58,4 +72,24 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testUnreachableIfBranchSparse() {
+        testSparseDCD("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchSparse() {
+        testSparseDCD("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testLoopsSparse() {
+        testSparseDCD("Loops");
+    }
+
+    @Test
+    public void testConditionalConstant() {
+        testConditionalDCD("ConditionalConstant");
+    }
 }
@@ -0,0 +1,20 @@
+class ConditionalConstant {
+
+    int branch() {
+        int x = 10;
+        int y = 1;
+        int z;
+        if (x > y) {
+            z = 100;
+        } else {
+            z = 200; // unreachable branch
+        }
+        int w;
+        if (z > x) {
+            w = 1;
+        } else {
+            w = 2; // unreachable only if z is known to be 100
+        }
+        return w;
+    }
+}
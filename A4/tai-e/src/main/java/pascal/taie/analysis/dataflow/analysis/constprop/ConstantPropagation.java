@@ -69,18 +69,9 @@ public class ConstantPropagation extends
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
-        target.forEach((Var var, Value valTarget) -> { // Mention that `valTarget` cannot be UNDEF
-            Value valFact = fact.get(var);
-            target.update(var, meetValue(valTarget, valFact));
-        });
-        // Add the left element in `fact` to `target`
-        fact.forEach((Var var, Value valFact) -> { // Mention that `valFact` cannot be UNDEF
-            Value valTarget = target.get(var);
-            target.update(var, meetValue(valTarget, valFact));
-        });
-//        for (var mapping : fact.entries().toList()) {
-//            target.update(mapping.getKey(), meetValue(mapping.getValue(), target.get(mapping.getKey())));
-//        }
+        // absent (UNDEF) values are the identity of meet, so this unions
+        // the two facts, skipping the parts they share
+        target.merge(fact, this::meetValue);
     }
 
     /**
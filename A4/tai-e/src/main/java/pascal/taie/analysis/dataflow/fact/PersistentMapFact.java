@@ -0,0 +1,511 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Map-like data-flow facts with copy-on-write semantics.
+ * <p>
+ * The mappings are kept in an immutable hash array mapped trie, and
+ * a fact only holds a reference to its root. Thus {@link #copy()} is O(1)
+ * and the copies share structure with the original fact; an update copies
+ * only the path from the root to the changed entry (O(log n)). Since the
+ * trie is canonical (its shape only depends on the keys), {@link #equals}
+ * and {@link #merge} skip the subtrees shared by two facts.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public class PersistentMapFact<K, V> {
+
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final BinaryOperator<Object> REPLACE = (v1, v2) -> v2;
+
+    /**
+     * Root of the trie, which is null (empty), a {@link Leaf},
+     * a {@link Branch}, or a {@link Collision}.
+     */
+    private Object root;
+
+    public PersistentMapFact() {
+    }
+
+    /**
+     * Constructs a new fact with the same mappings as given fact,
+     * sharing its structure.
+     */
+    protected PersistentMapFact(PersistentMapFact<K, V> fact) {
+        this.root = fact.root;
+    }
+
+    /**
+     * @return the value to which the specified key is mapped,
+     * or null if this fact contains no mapping for the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int hash = hash(key);
+        Object slot = root;
+        for (int shift = 0; ; shift += BITS) {
+            if (slot instanceof Branch branch) {
+                int bit = bit(hash, shift);
+                if ((branch.bitmap & bit) == 0) {
+                    return null;
+                }
+                slot = branch.slots[branch.index(bit)];
+            } else if (slot instanceof Leaf<?, ?> leaf) {
+                return leaf.key.equals(key) ? (V) leaf.value : null;
+            } else if (slot instanceof Collision collision) {
+                Leaf<?, ?> leaf = collision.find(key);
+                return leaf != null ? (V) leaf.value : null;
+            } else {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Updates the key-value mapping in this fact.
+     *
+     * @return if the update changes this fact.
+     */
+    public boolean update(K key, V value) {
+        Object newRoot = put(root, 0, new Leaf<>(hash(key), key, value), replace());
+        boolean changed = newRoot != root;
+        root = newRoot;
+        return changed;
+    }
+
+    /**
+     * Removes the key-value mapping for given key.
+     *
+     * @return the previous value associated with key,
+     * or null if there was no mapping for key.
+     */
+    public V remove(K key) {
+        V value = get(key);
+        if (value != null) {
+            root = remove(root, 0, hash(key), key);
+        }
+        return value;
+    }
+
+    /**
+     * Copies the content from given fact to this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFrom(PersistentMapFact<K, V> fact) {
+        return merge(fact, replace());
+    }
+
+    /**
+     * Merges given fact into this fact. The keys only in given fact are
+     * added to this fact, and for the keys in both facts, the values are
+     * combined by merger, which receives the value of this fact first.
+     * The merger must be idempotent, so that subtrees shared by
+     * the two facts can be skipped.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean merge(PersistentMapFact<K, V> fact, BinaryOperator<V> merger) {
+        Object newRoot = merge(root, fact.root, 0, merger);
+        boolean changed = newRoot != root;
+        root = newRoot;
+        return changed;
+    }
+
+    /**
+     * Creates and returns a copy of this fact.
+     */
+    public PersistentMapFact<K, V> copy() {
+        return new PersistentMapFact<>(this);
+    }
+
+    /**
+     * Clears all content in this fact.
+     */
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * @return an unmodifiable {@link Set} of the keys contained in this fact.
+     */
+    public Set<K> keySet() {
+        Set<K> keys = new HashSet<>();
+        forEach((k, v) -> keys.add(k));
+        return Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * @return all entries (key-value mappings) in this fact.
+     */
+    public Stream<Map.Entry<K, V>> entries() {
+        List<Map.Entry<K, V>> entries = new ArrayList<>();
+        forEach((k, v) -> entries.add(Map.entry(k, v)));
+        return entries.stream();
+    }
+
+    /**
+     * Performs the given action for each entry(key-value mapping) in this fact
+     * until all entries have been processed or the action throws an exception.
+     *
+     * @param action the action to be performed for each entry.
+     */
+    public void forEach(BiConsumer<K, V> action) {
+        forEach(root, action);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PersistentMapFact<?, ?> that = (PersistentMapFact<?, ?>) o;
+        return slotEquals(root, that.root);
+    }
+
+    @Override
+    public int hashCode() {
+        int[] hash = {0};
+        // same as the hash code of java.util.Map
+        forEach((k, v) -> hash[0] += k.hashCode() ^ v.hashCode());
+        return hash[0];
+    }
+
+    @Override
+    public String toString() {
+        // Sort key-value pairs by key's string representation, so that the
+        // fact representation is stable across executions. This is useful
+        // for comparing expected results and the ones given by the analysis.
+        return "{" + entries()
+                .sorted(Comparator.comparing(e -> e.getKey().toString()))
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")) + "}";
+    }
+
+    @SuppressWarnings("unchecked")
+    private BinaryOperator<V> replace() {
+        return (BinaryOperator<V>) REPLACE;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Puts a leaf into the subtree at slot. If the key is already present,
+     * the new value is given by merger(old value, leaf value).
+     *
+     * @return the resulting slot, which is slot itself if nothing changed.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Object put(Object slot, int shift, Leaf<?, ?> leaf,
+                                  BinaryOperator<V> merger) {
+        if (slot == null) {
+            return leaf;
+        } else if (slot instanceof Leaf<?, ?> old) {
+            if (old.hash == leaf.hash && old.key.equals(leaf.key)) {
+                V value = merger.apply((V) old.value, (V) leaf.value);
+                if (Objects.equals(value, old.value)) {
+                    return old;
+                }
+                return value == leaf.value ? leaf :
+                        new Leaf<>(leaf.hash, leaf.key, value);
+            }
+            return combine(old, old.hash, leaf, leaf.hash, shift);
+        } else if (slot instanceof Branch branch) {
+            int bit = bit(leaf.hash, shift);
+            int i = branch.index(bit);
+            if ((branch.bitmap & bit) == 0) {
+                return branch.insert(bit, i, leaf);
+            }
+            Object child = branch.slots[i];
+            Object newChild = put(child, shift + BITS, leaf, merger);
+            return newChild == child ? branch : branch.replace(i, newChild);
+        } else {
+            Collision collision = (Collision) slot;
+            if (collision.hash != leaf.hash) {
+                return combine(collision, collision.hash, leaf, leaf.hash, shift);
+            }
+            Leaf<?, ?>[] leaves = collision.leaves;
+            for (int i = 0; i < leaves.length; ++i) {
+                if (leaves[i].key.equals(leaf.key)) {
+                    Object newLeaf = put(leaves[i], shift, leaf, merger);
+                    if (newLeaf == leaves[i]) {
+                        return collision;
+                    }
+                    Leaf<?, ?>[] newLeaves = leaves.clone();
+                    newLeaves[i] = (Leaf<?, ?>) newLeaf;
+                    return new Collision(collision.hash, newLeaves);
+                }
+            }
+            Leaf<?, ?>[] newLeaves = Arrays.copyOf(leaves, leaves.length + 1);
+            newLeaves[leaves.length] = leaf;
+            return new Collision(collision.hash, newLeaves);
+        }
+    }
+
+    /**
+     * Creates the subtree holding two slots, each of which is
+     * a leaf or a collision with the given hash.
+     */
+    private static Object combine(Object s1, int h1, Object s2, int h2, int shift) {
+        if (h1 == h2) { // both are leaves, as collisions absorb leaves of same hash
+            return new Collision(h1, new Leaf<?, ?>[]{(Leaf<?, ?>) s1, (Leaf<?, ?>) s2});
+        }
+        int p1 = (h1 >>> shift) & MASK;
+        int p2 = (h2 >>> shift) & MASK;
+        if (p1 == p2) {
+            return new Branch(1 << p1, new Object[]{
+                    combine(s1, h1, s2, h2, shift + BITS)});
+        }
+        return new Branch((1 << p1) | (1 << p2),
+                p1 < p2 ? new Object[]{s1, s2} : new Object[]{s2, s1});
+    }
+
+    /**
+     * Removes the mapping of key from the subtree at slot. A branch left
+     * with a single leaf or collision is replaced by it, so that the trie
+     * remains canonical.
+     *
+     * @return the resulting slot, which is slot itself if nothing changed,
+     * or null if the subtree becomes empty.
+     */
+    private static Object remove(Object slot, int shift, int hash, Object key) {
+        if (slot instanceof Leaf<?, ?> leaf) {
+            return leaf.hash == hash && leaf.key.equals(key) ? null : leaf;
+        } else if (slot instanceof Branch branch) {
+            int bit = bit(hash, shift);
+            if ((branch.bitmap & bit) == 0) {
+                return branch;
+            }
+            int i = branch.index(bit);
+            Object child = branch.slots[i];
+            Object newChild = remove(child, shift + BITS, hash, key);
+            if (newChild == child) {
+                return branch;
+            }
+            Branch newBranch = newChild == null ?
+                    branch.delete(bit, i) : branch.replace(i, newChild);
+            if (newBranch.slots.length == 1
+                    && !(newBranch.slots[0] instanceof Branch)) {
+                return newBranch.slots[0];
+            }
+            return newBranch;
+        } else if (slot instanceof Collision collision) {
+            Leaf<?, ?>[] leaves = collision.leaves;
+            for (int i = 0; i < leaves.length; ++i) {
+                if (leaves[i].key.equals(key)) {
+                    if (leaves.length == 2) {
+                        return leaves[1 - i];
+                    }
+                    Leaf<?, ?>[] newLeaves = new Leaf<?, ?>[leaves.length - 1];
+                    System.arraycopy(leaves, 0, newLeaves, 0, i);
+                    System.arraycopy(leaves, i + 1, newLeaves, i, newLeaves.length - i);
+                    return new Collision(collision.hash, newLeaves);
+                }
+            }
+            return collision;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Merges the subtree at s2 into the subtree at s1.
+     *
+     * @return the resulting slot, which is s1 itself if nothing changed.
+     */
+    private static <V> Object merge(Object s1, Object s2, int shift,
+                                    BinaryOperator<V> merger) {
+        if (s1 == s2 || s2 == null) {
+            return s1;
+        } else if (s1 == null) {
+            return s2;
+        } else if (s2 instanceof Leaf<?, ?> leaf) {
+            return put(s1, shift, leaf, merger);
+        } else if (s1 instanceof Leaf<?, ?> leaf) {
+            // s2 has more than one entry, so the result differs from s1
+            return put(s2, shift, leaf, (V v2, V v1) -> merger.apply(v1, v2));
+        } else if (s1 instanceof Branch b1 && s2 instanceof Branch b2) {
+            int bitmap = b1.bitmap | b2.bitmap;
+            Object[] slots = new Object[Integer.bitCount(bitmap)];
+            boolean changed = bitmap != b1.bitmap;
+            int i = 0;
+            for (int rest = bitmap; rest != 0; rest &= rest - 1) {
+                int bit = Integer.lowestOneBit(rest);
+                Object c1 = (b1.bitmap & bit) != 0 ? b1.slots[b1.index(bit)] : null;
+                Object c2 = (b2.bitmap & bit) != 0 ? b2.slots[b2.index(bit)] : null;
+                slots[i] = merge(c1, c2, shift + BITS, merger);
+                changed |= slots[i] != c1;
+                ++i;
+            }
+            return changed ? new Branch(bitmap, slots) : b1;
+        } else {
+            // one of them is a collision, put the leaves of s2 into s1
+            Object result = s1;
+            List<Leaf<?, ?>> leaves = new ArrayList<>();
+            collectLeaves(s2, leaves);
+            for (Leaf<?, ?> leaf : leaves) {
+                result = put(result, shift, leaf, merger);
+            }
+            return result;
+        }
+    }
+
+    private static void collectLeaves(Object slot, List<Leaf<?, ?>> leaves) {
+        if (slot instanceof Leaf<?, ?> leaf) {
+            leaves.add(leaf);
+        } else if (slot instanceof Branch branch) {
+            for (Object child : branch.slots) {
+                collectLeaves(child, leaves);
+            }
+        } else if (slot instanceof Collision collision) {
+            Collections.addAll(leaves, collision.leaves);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> void forEach(Object slot, BiConsumer<K, V> action) {
+        if (slot instanceof Leaf<?, ?> leaf) {
+            action.accept((K) leaf.key, (V) leaf.value);
+        } else if (slot instanceof Branch branch) {
+            for (Object child : branch.slots) {
+                forEach(child, action);
+            }
+        } else if (slot instanceof Collision collision) {
+            for (Leaf<?, ?> leaf : collision.leaves) {
+                action.accept((K) leaf.key, (V) leaf.value);
+            }
+        }
+    }
+
+    private static boolean slotEquals(Object s1, Object s2) {
+        if (s1 == s2) {
+            return true;
+        }
+        if (s1 instanceof Leaf<?, ?> l1 && s2 instanceof Leaf<?, ?> l2) {
+            return l1.key.equals(l2.key) && l1.value.equals(l2.value);
+        }
+        if (s1 instanceof Branch b1 && s2 instanceof Branch b2) {
+            if (b1.bitmap != b2.bitmap) {
+                return false;
+            }
+            for (int i = 0; i < b1.slots.length; ++i) {
+                if (!slotEquals(b1.slots[i], b2.slots[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (s1 instanceof Collision c1 && s2 instanceof Collision c2) {
+            if (c1.hash != c2.hash || c1.leaves.length != c2.leaves.length) {
+                return false;
+            }
+            for (Leaf<?, ?> l1 : c1.leaves) {
+                Leaf<?, ?> l2 = c2.find(l1.key);
+                if (l2 == null || !l1.value.equals(l2.value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private record Leaf<K, V>(int hash, K key, V value) {
+    }
+
+    /**
+     * Inner node of the trie. Its slots are ordered by the positions
+     * given by the bits of bitmap.
+     */
+    private record Branch(int bitmap, Object[] slots) {
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private Branch insert(int bit, int i, Object slot) {
+            Object[] newSlots = new Object[slots.length + 1];
+            System.arraycopy(slots, 0, newSlots, 0, i);
+            newSlots[i] = slot;
+            System.arraycopy(slots, i, newSlots, i + 1, slots.length - i);
+            return new Branch(bitmap | bit, newSlots);
+        }
+
+        private Branch replace(int i, Object slot) {
+            Object[] newSlots = slots.clone();
+            newSlots[i] = slot;
+            return new Branch(bitmap, newSlots);
+        }
+
+        private Branch delete(int bit, int i) {
+            Object[] newSlots = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, newSlots, 0, i);
+            System.arraycopy(slots, i + 1, newSlots, i, newSlots.length - i);
+            return new Branch(bitmap & ~bit, newSlots);
+        }
+    }
+
+    /**
+     * Leaves whose keys have the same hash.
+     */
+    private record Collision(int hash, Leaf<?, ?>[] leaves) {
+
+        private Leaf<?, ?> find(Object key) {
+            for (Leaf<?, ?> leaf : leaves) {
+                if (leaf.key.equals(key)) {
+                    return leaf;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -24,12 +24,10 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.PriorityWorkList;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
-import pascal.taie.util.collection.SetQueue;
 
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -46,7 +44,7 @@ class InterSolver<Method, Node, Fact> {
 
     private DataflowResult<Node, Fact> result;
 
-    private Queue<Node> workList;
+    private PriorityWorkList<Node> workList;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
@@ -80,11 +78,9 @@ class InterSolver<Method, Node, Fact> {
 
     private void doSolve() {
         // TODO - finish me
-        workList = new LinkedList<>();
-
-        for (var node : icfg) {
-            workList.offer(node);
-        }
+        workList = PriorityWorkList.forward(icfg,
+                icfg.entryMethods().map(icfg::getEntryOf).toList());
+        workList.addAllNodes();
         while (!workList.isEmpty()) {
             Node node = workList.poll();
             Fact in = result.getInFact(node);
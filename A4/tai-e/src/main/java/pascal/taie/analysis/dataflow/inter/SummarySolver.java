@@ -0,0 +1,426 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.PriorityWorkList;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Summary-based solver for inter-procedural constant propagation.
+ * <p>
+ * Instead of propagating facts into callees along the ICFG, this solver
+ * analyzes each method intra-procedurally in a number of contexts,
+ * where a context is the abstract values of the arguments, and memoizes
+ * the return value of each context as the summary of the method for
+ * these arguments. Call sites passing the same arguments to a method
+ * share its summary, and call sites passing different arguments do not
+ * pollute each other.
+ * <p>
+ * Methods are grouped into strongly connected components (SCCs) of the
+ * call graph, and contexts are analyzed bottom-up, i.e., callees before
+ * callers. A call to a method in the same SCC (i.e., a recursive call)
+ * which does not hit an existing context, and a call to a method which
+ * already has {@link #MAX_CONTEXTS} contexts, goes to the merged context
+ * of the callee, whose arguments are the meet of all such calls, so that
+ * the number of contexts is always finite. A context is re-analyzed when
+ * the summary of a context it reads changes, until all summaries converge.
+ * <p>
+ * The facts of each node are the meet of its facts in all contexts.
+ */
+class SummarySolver {
+
+    /**
+     * Maximum number of contexts (besides the merged one) per method.
+     */
+    private static final int MAX_CONTEXTS = 16;
+
+    private final ConstantPropagation cp;
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    /**
+     * Index of the SCC containing each method. SCCs are indexed
+     * bottom-up, i.e., callees have smaller (or equal) indexes than callers.
+     */
+    private final Map<JMethod, Integer> sccIndexes = Maps.newMap();
+
+    private final Map<JMethod, Map<List<Value>, Context>> contexts = Maps.newMap();
+
+    private final Map<JMethod, Context> mergedContexts = Maps.newMap();
+
+    private final Queue<Context> workList = new PriorityQueue<>(
+            Comparator.comparingInt((Context ctx) -> ctx.sccIndex)
+                    .thenComparingInt(ctx -> ctx.id));
+
+    private int contextCounter = 0;
+
+    SummarySolver(ConstantPropagation cp, ICFG<JMethod, Stmt> icfg) {
+        this.cp = cp;
+        this.icfg = icfg;
+    }
+
+    DataflowResult<Stmt, CPFact> solve() {
+        computeSCCs();
+        icfg.entryMethods().forEach(method -> {
+            // arguments of entry methods are unknown
+            Value[] args = new Value[method.getIR().getParams().size()];
+            Arrays.fill(args, Value.getNAC());
+            getContext(method, List.of(args));
+        });
+        while (!workList.isEmpty()) {
+            Context ctx = workList.poll();
+            ctx.inWorkList = false;
+            analyze(ctx);
+        }
+        return collectResult();
+    }
+
+    /**
+     * Computes the SCCs of the call graph reachable from the entry methods
+     * by (iterative) Tarjan's algorithm, which finds SCCs in reverse
+     * topological order, i.e., bottom-up.
+     */
+    private void computeSCCs() {
+        Map<JMethod, Integer> indexes = Maps.newMap();
+        Map<JMethod, Integer> lowLinks = Maps.newMap();
+        Deque<JMethod> sccStack = new ArrayDeque<>();
+        Set<JMethod> onStack = Sets.newSet();
+        Deque<JMethod> stack = new ArrayDeque<>();
+        Deque<Iterator<JMethod>> iterators = new ArrayDeque<>();
+        int sccCounter = 0;
+        for (JMethod entry : (Iterable<JMethod>) icfg.entryMethods()::iterator) {
+            if (indexes.containsKey(entry)) {
+                continue;
+            }
+            visit(entry, indexes, lowLinks, sccStack, onStack, stack, iterators);
+            while (!stack.isEmpty()) {
+                JMethod method = stack.peek();
+                Iterator<JMethod> it = iterators.peek();
+                if (it.hasNext()) {
+                    JMethod callee = it.next();
+                    if (!indexes.containsKey(callee)) {
+                        visit(callee, indexes, lowLinks, sccStack, onStack, stack, iterators);
+                    } else if (onStack.contains(callee)) {
+                        lowLinks.put(method, Math.min(
+                                lowLinks.get(method), indexes.get(callee)));
+                    }
+                } else {
+                    stack.pop();
+                    iterators.pop();
+                    if (lowLinks.get(method).equals(indexes.get(method))) {
+                        JMethod member;
+                        do {
+                            member = sccStack.pop();
+                            onStack.remove(member);
+                            sccIndexes.put(member, sccCounter);
+                        } while (member != method);
+                        ++sccCounter;
+                    }
+                    if (!stack.isEmpty()) {
+                        JMethod caller = stack.peek();
+                        lowLinks.put(caller, Math.min(
+                                lowLinks.get(caller), lowLinks.get(method)));
+                    }
+                }
+            }
+        }
+    }
+
+    private void visit(JMethod method,
+                       Map<JMethod, Integer> indexes,
+                       Map<JMethod, Integer> lowLinks,
+                       Deque<JMethod> sccStack, Set<JMethod> onStack,
+                       Deque<JMethod> stack, Deque<Iterator<JMethod>> iterators) {
+        int index = indexes.size();
+        indexes.put(method, index);
+        lowLinks.put(method, index);
+        sccStack.push(method);
+        onStack.add(method);
+        stack.push(method);
+        iterators.push(getCalleesOf(method).iterator());
+    }
+
+    private Set<JMethod> getCalleesOf(JMethod method) {
+        Set<JMethod> callees = Sets.newSet();
+        for (Stmt stmt : method.getIR()) {
+            if (icfg.isCallSite(stmt)) {
+                callees.addAll(icfg.getCalleesOf(stmt));
+            }
+        }
+        return callees;
+    }
+
+    /**
+     * @return the existing context of the method for the arguments,
+     * or a new one if the method does not have it.
+     */
+    private Context getContext(JMethod method, List<Value> args) {
+        return contexts.computeIfAbsent(method, m -> Maps.newMap())
+                .computeIfAbsent(args, a -> {
+                    Context ctx = new Context(method, new ArrayList<>(a));
+                    addToWorkList(ctx);
+                    return ctx;
+                });
+    }
+
+    /**
+     * @return the context which the caller reads for calling the callee
+     * with the given arguments.
+     */
+    private Context getCalleeContext(Context caller, JMethod callee, List<Value> args) {
+        Map<List<Value>, Context> calleeContexts =
+                contexts.computeIfAbsent(callee, m -> Maps.newMap());
+        Context ctx = calleeContexts.get(args);
+        if (ctx != null) {
+            return ctx;
+        }
+        if (sccIndexes.get(callee).equals(caller.sccIndex)
+                || calleeContexts.size() >= MAX_CONTEXTS) {
+            Context merged = mergedContexts.computeIfAbsent(callee, m -> {
+                Value[] undefs = new Value[args.size()];
+                Arrays.fill(undefs, Value.getUndef());
+                // a new context is always analyzed, even if merging
+                // the arguments does not change it (e.g., no arguments)
+                Context context = new Context(m, new ArrayList<>(List.of(undefs)));
+                addToWorkList(context);
+                return context;
+            });
+            if (merged.mergeArgs(args)) {
+                addToWorkList(merged);
+            }
+            return merged;
+        }
+        return getContext(callee, args);
+    }
+
+    private void addToWorkList(Context ctx) {
+        if (!ctx.inWorkList) {
+            ctx.inWorkList = true;
+            workList.add(ctx);
+        }
+    }
+
+    /**
+     * Analyzes the method of the context intra-procedurally from scratch,
+     * and updates the summary of the context.
+     */
+    private void analyze(Context ctx) {
+        IR ir = ctx.method.getIR();
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, CPFact> facts = new DataflowResult<>();
+        // facts flowing out of call sites, i.e., OUT facts with
+        // the values returned by callees
+        Map<Stmt, CPFact> callSiteFlows = Maps.newMap();
+        for (Stmt node : cfg.getNodes()) {
+            facts.setInFact(node, cp.newInitialFact());
+            facts.setOutFact(node, cp.newInitialFact());
+        }
+        CPFact entryFact = cp.newInitialFact();
+        List<Var> params = ir.getParams();
+        for (int i = 0; i < params.size(); ++i) {
+            if (ConstantPropagation.canHoldInt(params.get(i))) {
+                entryFact.update(params.get(i), ctx.args.get(i));
+            }
+        }
+        facts.setOutFact(cfg.getEntry(), entryFact);
+        PriorityWorkList<Stmt> nodes = PriorityWorkList.forward(
+                cfg, List.of(cfg.getEntry()));
+        nodes.addAllNodes();
+        Stmt node;
+        while ((node = nodes.poll()) != null) {
+            if (cfg.isEntry(node)) {
+                nodes.addAll(cfg.getSuccsOf(node));
+                continue;
+            }
+            CPFact in = cp.newInitialFact();
+            for (Stmt pred : cfg.getPredsOf(node)) {
+                CPFact flow = callSiteFlows.get(pred);
+                cp.meetInto(flow != null ? flow : facts.getOutFact(pred), in);
+            }
+            facts.setInFact(node, in);
+            boolean changed;
+            if (icfg.isCallSite(node)) {
+                Invoke invoke = (Invoke) node;
+                facts.setOutFact(node, in.copy());
+                CPFact flow = in.copy();
+                Var lValue = invoke.getLValue();
+                if (lValue != null) {
+                    flow.update(lValue, getReturnValue(ctx, invoke, in));
+                }
+                changed = !flow.equals(callSiteFlows.put(node, flow));
+            } else {
+                changed = cp.transferNode(node, in, facts.getOutFact(node));
+            }
+            if (changed) {
+                nodes.addAll(cfg.getSuccsOf(node));
+            }
+        }
+        ctx.facts = facts;
+        CPFact exitOut = facts.getOutFact(cfg.getExit());
+        Value returnValue = ctx.returnValue;
+        for (Var returnVar : ir.getReturnVars()) {
+            returnValue = cp.meetValue(returnValue, exitOut.get(returnVar));
+        }
+        if (!returnValue.equals(ctx.returnValue)) {
+            ctx.returnValue = returnValue;
+            ctx.readers.forEach(this::addToWorkList);
+        }
+    }
+
+    /**
+     * @return meet of the summaries of all callees of the call site
+     * for the arguments in the given fact.
+     */
+    private Value getReturnValue(Context caller, Invoke invoke, CPFact in) {
+        List<Var> args = invoke.getInvokeExp().getArgs();
+        List<Value> argValues = new ArrayList<>(args.size());
+        for (Var arg : args) {
+            argValues.add(in.get(arg));
+        }
+        argValues = Collections.unmodifiableList(argValues);
+        Value value = Value.getUndef();
+        for (JMethod callee : icfg.getCalleesOf(invoke)) {
+            Context ctx = getCalleeContext(caller, callee, argValues);
+            ctx.readers.add(caller);
+            value = cp.meetValue(value, ctx.returnValue);
+        }
+        return value;
+    }
+
+    /**
+     * Meets the facts of each node in all contexts of its method.
+     */
+    private DataflowResult<Stmt, CPFact> collectResult() {
+        DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+        List<Context> allContexts = new ArrayList<>();
+        contexts.values().forEach(map -> allContexts.addAll(map.values()));
+        allContexts.addAll(mergedContexts.values());
+        for (Context ctx : allContexts) {
+            CFG<Stmt> cfg = ctx.method.getIR().getResult(CFGBuilder.ID);
+            for (Stmt node : cfg.getNodes()) {
+                meetInto(ctx.facts.getInFact(node), result.getInFact(node),
+                        fact -> result.setInFact(node, fact));
+                meetInto(ctx.facts.getOutFact(node), result.getOutFact(node),
+                        fact -> result.setOutFact(node, fact));
+            }
+        }
+        // nodes of methods which are never called
+        for (Stmt node : icfg.getNodes()) {
+            if (result.getInFact(node) == null) {
+                result.setInFact(node, cp.newInitialFact());
+                result.setOutFact(node, cp.newInitialFact());
+            }
+        }
+        return result;
+    }
+
+    private void meetInto(CPFact fact, CPFact target,
+                          Consumer<CPFact> setter) {
+        if (target == null) {
+            setter.accept(fact.copy());
+        } else {
+            cp.meetInto(fact, target);
+        }
+    }
+
+    /**
+     * A method analyzed with the given abstract values of arguments.
+     */
+    private class Context {
+
+        private final int id = contextCounter++;
+
+        private final JMethod method;
+
+        private final int sccIndex;
+
+        /**
+         * Values of arguments, which may be lowered for merged contexts.
+         */
+        private final List<Value> args;
+
+        /**
+         * Summary of this context, i.e., the meet of return values.
+         */
+        private Value returnValue = Value.getUndef();
+
+        /**
+         * Contexts which read the summary of this context.
+         */
+        private final Set<Context> readers = Sets.newHybridSet();
+
+        private boolean inWorkList = false;
+
+        private DataflowResult<Stmt, CPFact> facts;
+
+        private Context(JMethod method, List<Value> args) {
+            this.method = method;
+            this.sccIndex = sccIndexes.get(method);
+            this.args = args;
+        }
+
+        /**
+         * Meets the given arguments into the arguments of this context.
+         *
+         * @return true if the arguments of this context changed.
+         */
+        private boolean mergeArgs(List<Value> newArgs) {
+            boolean changed = false;
+            for (int i = 0; i < args.size(); ++i) {
+                Value merged = cp.meetValue(args.get(i), newArgs.get(i));
+                if (!merged.equals(args.get(i))) {
+                    args.set(i, merged);
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+    }
+}
@@ -25,11 +25,12 @@ package pascal.taie.analysis.graph.callgraph;
 import pascal.taie.World;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
-import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
 
 import java.util.*;
 
@@ -38,11 +39,17 @@ import java.util.*;
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
-    private ClassHierarchy hierarchy;
+    private ClassHierarchyIndex hierarchy;
+
+    /**
+     * Memoized results of {@link #resolve(Invoke)}.
+     */
+    private final TwoKeyMap<MethodRef, CallKind, Set<JMethod>> resolved =
+            Maps.newTwoKeyMap();
 
     @Override
     public CallGraph<Invoke, JMethod> build() {
-        hierarchy = World.get().getClassHierarchy();
+        hierarchy = new ClassHierarchyIndex(World.get().getClassHierarchy());
         return buildCallGraph(World.get().getMainMethod());
     }
 
@@ -74,18 +81,22 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      */
     private Set<JMethod> resolve(Invoke callSite) {
         // TODO - finish me
-        Set<JMethod> T = new HashSet<>();
         MethodRef method = callSite.getMethodRef();
+        return resolved.computeIfAbsent(method, CallGraphs.getCallKind(callSite),
+                this::resolve);
+    }
+
+    private Set<JMethod> resolve(MethodRef method, CallKind kind) {
+        Set<JMethod> T = new HashSet<>();
         // callsite的函数签名，应该用哪个函数？
         // subSignature和signature的区别在于，signature有类，而subSignature没有类。
         JClass jClass = method.getDeclaringClass();
         Subsignature jSubsignature = method.getSubsignature();
-        switch (CallGraphs.getCallKind(callSite)) {
+        switch (kind) {
             case STATIC -> T.add(jClass.getDeclaredMethod(jSubsignature));
             case SPECIAL -> T.add(dispatch(jClass, jSubsignature));
             case VIRTUAL, INTERFACE -> {
-                Set<JClass> allSubJClasses = getAllSubClasses(jClass);
-                for (JClass jClassIter : allSubJClasses) {
+                for (JClass jClassIter : hierarchy.getAllSubtypesOf(jClass)) {
                     T.add(dispatch(jClassIter, jSubsignature));
                 }
             }
@@ -93,19 +104,6 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         return T;
     }
 
-    private Set<JClass> getAllSubClasses(JClass jClass) {
-        Set<JClass> subClasses = new HashSet<>(), jNewClasses = new HashSet<>();
-        subClasses.addAll(hierarchy.getDirectSubclassesOf(jClass));
-        subClasses.addAll(hierarchy.getDirectImplementorsOf(jClass));
-        subClasses.addAll(hierarchy.getDirectSubinterfacesOf(jClass));
-        for (JClass jClassIter : subClasses) {
-            jNewClasses.addAll(getAllSubClasses(jClassIter));
-        }
-        subClasses.addAll(jNewClasses);
-        subClasses.add(jClass);
-        return subClasses;
-    }
-
     /**
      * Looks up the target method based on given class and method subsignature.
      *
@@ -114,15 +112,6 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      */
     private JMethod dispatch(JClass jclass, Subsignature subsignature) {
         // TODO - finish me
-        JMethod method = jclass.getDeclaredMethod(subsignature);
-        // what's the meaning for isNative?
-        // return Dispatch(c', m), c' is the superclass of jclass
-        if (method == null || method.isAbstract()) {
-            JClass superClass = jclass.getSuperClass();
-            if (superClass == null) return null;
-            else return dispatch(superClass, subsignature);
-        } else {
-            return method;
-        }
+        return hierarchy.dispatch(jclass, subsignature);
     }
 }
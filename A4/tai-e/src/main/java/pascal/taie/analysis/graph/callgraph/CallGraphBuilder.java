@@ -58,12 +58,17 @@ public class CallGraphBuilder extends ProgramAnalysis {
         CGBuilder<Invoke, JMethod> builder;
         if (algorithm.equals("cha")) {
             builder = new CHABuilder();
+        } else if (algorithm.equals("rta")) {
+            builder = new RTABuilder();
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
         ClassHierarchyImpl.setCheckCHA(false);
+        logger.info("Built call graph by {}: {} reachable methods, {} edges",
+                algorithm, callGraph.getNumberOfMethods(),
+                callGraph.getNumberOfEdges());
         takeAction(callGraph);
         return callGraph;
     }
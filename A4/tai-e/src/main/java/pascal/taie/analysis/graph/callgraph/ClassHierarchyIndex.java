@@ -0,0 +1,178 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the class hierarchy queries made by call graph construction.
+ * <p>
+ * Classes are numbered by the preorder of the superclass tree, so that
+ * the subclasses of a class occupy an interval of the numbering.
+ * Interfaces are numbered after classes, and the subtypes of an interface
+ * are kept as a bit set over the numbering, which consists of its
+ * subinterfaces and the intervals of its implementors. Results of
+ * dispatch are memoized for each (class, subsignature) pair.
+ */
+class ClassHierarchyIndex {
+
+    private final ClassHierarchy hierarchy;
+
+    private final Map<JClass, Integer> ids = Maps.newMap();
+
+    /**
+     * Classes and interfaces, indexed by their numbers.
+     */
+    private final List<JClass> types = new ArrayList<>();
+
+    /**
+     * For each class, the last number in its subclass interval.
+     */
+    private int[] lasts;
+
+    private final Map<JClass, BitSet> interfaceSubtypes = Maps.newMap();
+
+    private final TwoKeyMap<JClass, Subsignature, Optional<JMethod>> dispatchCache =
+            Maps.newTwoKeyMap();
+
+    ClassHierarchyIndex(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        numberClasses();
+    }
+
+    private void numberClasses() {
+        List<JClass> interfaces = new ArrayList<>();
+        List<Integer> lastList = new ArrayList<>();
+        Deque<JClass> stack = new ArrayDeque<>();
+        Deque<Iterator<JClass>> iterators = new ArrayDeque<>();
+        Set<JClass> allClasses = hierarchy.allClasses().collect(Collectors.toSet());
+        for (JClass c : allClasses) {
+            if (c.isInterface()) {
+                interfaces.add(c);
+            } else if (c.getSuperClass() == null
+                    || !allClasses.contains(c.getSuperClass())) {
+                // root of a superclass tree, e.g., java.lang.Object
+                stack.push(c);
+                iterators.push(hierarchy.getDirectSubclassesOf(c).iterator());
+                ids.put(c, types.size());
+                types.add(c);
+                lastList.add(-1);
+                while (!stack.isEmpty()) {
+                    Iterator<JClass> it = iterators.peek();
+                    if (it.hasNext()) {
+                        JClass sub = it.next();
+                        ids.put(sub, types.size());
+                        types.add(sub);
+                        lastList.add(-1);
+                        stack.push(sub);
+                        iterators.push(hierarchy.getDirectSubclassesOf(sub).iterator());
+                    } else {
+                        lastList.set(ids.get(stack.pop()), types.size() - 1);
+                        iterators.pop();
+                    }
+                }
+            }
+        }
+        lasts = lastList.stream().mapToInt(Integer::intValue).toArray();
+        for (JClass iface : interfaces) {
+            ids.put(iface, types.size());
+            types.add(iface);
+        }
+    }
+
+    /**
+     * @return all subtypes of given class or interface, including itself.
+     */
+    Collection<JClass> getAllSubtypesOf(JClass jclass) {
+        Integer id = ids.get(jclass);
+        if (id == null) {
+            return List.of(jclass);
+        }
+        if (!jclass.isInterface()) {
+            return types.subList(id, lasts[id] + 1);
+        }
+        BitSet subtypes = getInterfaceSubtypes(jclass);
+        List<JClass> result = new ArrayList<>(subtypes.cardinality());
+        subtypes.stream().forEach(i -> result.add(types.get(i)));
+        return result;
+    }
+
+    private BitSet getInterfaceSubtypes(JClass iface) {
+        BitSet subtypes = interfaceSubtypes.get(iface);
+        if (subtypes == null) {
+            subtypes = new BitSet();
+            subtypes.set(ids.get(iface));
+            for (JClass impl : hierarchy.getDirectImplementorsOf(iface)) {
+                Integer id = ids.get(impl);
+                if (id != null) {
+                    subtypes.set(id, lasts[id] + 1);
+                }
+            }
+            for (JClass subIface : hierarchy.getDirectSubinterfacesOf(iface)) {
+                if (ids.containsKey(subIface)) {
+                    subtypes.or(getInterfaceSubtypes(subIface));
+                }
+            }
+            interfaceSubtypes.put(iface, subtypes);
+        }
+        return subtypes;
+    }
+
+    /**
+     * Looks up the target method based on given class and method subsignature.
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        Optional<JMethod> target = dispatchCache.get(jclass, subsignature);
+        if (target == null) {
+            JMethod method = jclass.getDeclaredMethod(subsignature);
+            if (method == null || method.isAbstract()) {
+                JClass superClass = jclass.getSuperClass();
+                method = superClass == null ? null :
+                        dispatch(superClass, subsignature);
+            }
+            target = Optional.ofNullable(method);
+            dispatchCache.put(jclass, subsignature, target);
+        }
+        return target.orElse(null);
+    }
+}
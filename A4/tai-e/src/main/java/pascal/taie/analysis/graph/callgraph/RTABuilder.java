@@ -0,0 +1,171 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of the RTA (Rapid Type Analysis) algorithm.
+ * <p>
+ * Different from CHA, virtual calls are only dispatched on the classes
+ * instantiated by {@link New} statements in reachable methods. As more
+ * classes are instantiated during the construction, the reachable virtual
+ * call sites are dispatched again on the new subtypes of their declaring
+ * classes.
+ * <p>
+ * Besides the {@link New} statements, the objects allocated implicitly
+ * are also considered, i.e., the string constants and other reference
+ * literals (e.g., class literals) in reachable methods, and the strings
+ * passed to the main method. The other implicit allocations, e.g., the
+ * exceptions thrown by the JVM and the objects created by native code or
+ * reflection, are not considered, thus the call graph may miss the edges
+ * to the methods of such classes if they are not instantiated elsewhere.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchyIndex hierarchy;
+
+    private DefaultCallGraph callGraph;
+
+    private final Queue<JMethod> workList = new ArrayDeque<>();
+
+    private final Set<JClass> instantiatedClasses = Sets.newSet();
+
+    /**
+     * Map from each type to its instantiated subclasses.
+     */
+    private final MultiMap<JClass, JClass> instantiatedSubtypes = Maps.newMultiMap();
+
+    /**
+     * Map from each class to the reachable virtual and interface call sites
+     * whose method references are declared in the class.
+     */
+    private final MultiMap<JClass, Invoke> virtualCallSites = Maps.newMultiMap();
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = new ClassHierarchyIndex(World.get().getClassHierarchy());
+        callGraph = new DefaultCallGraph();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        workList.add(entry);
+        // the JVM creates the strings of the arguments of main method
+        JClass string = World.get().getClassHierarchy()
+                .getJREClass(ClassNames.STRING);
+        if (string != null) {
+            instantiate(string);
+        }
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (!callGraph.addReachableMethod(method)) {
+                continue;
+            }
+            if (!method.isAbstract()) {
+                method.getIR().forEach(stmt -> {
+                    if (stmt instanceof New newStmt
+                            && newStmt.getRValue() instanceof NewInstance newInstance) {
+                        instantiate(newInstance.getType().getJClass());
+                    } else if (stmt instanceof AssignLiteral assign
+                            && assign.getRValue() instanceof ReferenceLiteral literal
+                            && literal.getType() instanceof ClassType type) {
+                        instantiate(type.getJClass());
+                    }
+                });
+            }
+            callGraph.getCallSitesIn(method).forEach(this::processCallSite);
+        }
+        return callGraph;
+    }
+
+    private void processCallSite(Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass jclass = methodRef.getDeclaringClass();
+        switch (CallGraphs.getCallKind(callSite)) {
+            case STATIC -> addEdge(callSite,
+                    jclass.getDeclaredMethod(methodRef.getSubsignature()));
+            case SPECIAL -> addEdge(callSite,
+                    hierarchy.dispatch(jclass, methodRef.getSubsignature()));
+            case VIRTUAL, INTERFACE -> {
+                virtualCallSites.put(jclass, callSite);
+                for (JClass subtype : instantiatedSubtypes.get(jclass)) {
+                    addEdge(callSite, hierarchy.dispatch(
+                            subtype, methodRef.getSubsignature()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a newly instantiated class, and dispatches the reachable
+     * virtual call sites of its supertypes on it.
+     */
+    private void instantiate(JClass jclass) {
+        if (!instantiatedClasses.add(jclass)) {
+            return;
+        }
+        Set<JClass> supertypes = Sets.newSet();
+        Deque<JClass> stack = new ArrayDeque<>();
+        stack.push(jclass);
+        while (!stack.isEmpty()) {
+            JClass type = stack.pop();
+            if (supertypes.add(type)) {
+                if (type.getSuperClass() != null) {
+                    stack.push(type.getSuperClass());
+                }
+                type.getInterfaces().forEach(stack::push);
+            }
+        }
+        for (JClass supertype : supertypes) {
+            instantiatedSubtypes.put(supertype, jclass);
+            for (Invoke callSite : virtualCallSites.get(supertype)) {
+                addEdge(callSite, hierarchy.dispatch(
+                        jclass, callSite.getMethodRef().getSubsignature()));
+            }
+        }
+    }
+
+    private void addEdge(Invoke callSite, JMethod callee) {
+        if (callee != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+}
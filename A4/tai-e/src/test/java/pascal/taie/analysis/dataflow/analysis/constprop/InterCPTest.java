@@ -31,8 +31,13 @@ public class InterCPTest {
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
 
     void test(String inputClass) {
+        test(inputClass, false);
+    }
+
+    void test(String inputClass, boolean summary) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha"
+                "edge-refine:false;alias-aware:false;summary:" + summary,
+                "-a", "cg=algorithm:cha"
                 // , "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                             // to output ICFGs for the test cases
         );
@@ -60,4 +65,9 @@ public class InterCPTest {
 
     @Test
     public void testRecursion() {test("Recursion");}
+
+    @Test
+    public void testSummaryRecursion() {
+        test("SummaryRecursion", true);
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentMapFactTest {
+
+    /**
+     * Key with given hash code, to exercise collisions.
+     */
+    private record Key(String name, int hash) {
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    @Test
+    public void testUpdateRemove() {
+        PersistentMapFact<Key, Integer> fact = new PersistentMapFact<>();
+        Key a = new Key("a", 1), b = new Key("b", 33), c = new Key("c", 1);
+        assertTrue(fact.update(a, 1));
+        assertFalse(fact.update(a, 1));
+        assertTrue(fact.update(b, 2));
+        assertTrue(fact.update(c, 3)); // collides with a
+        assertEquals(Integer.valueOf(3), fact.get(c));
+        assertEquals("{a=1, b=2, c=3}", fact.toString());
+        assertEquals(Integer.valueOf(1), fact.remove(a));
+        assertNull(fact.remove(a));
+        assertNull(fact.get(a));
+        assertEquals("{b=2, c=3}", fact.toString());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        PersistentMapFact<Key, Integer> fact = new PersistentMapFact<>();
+        Key a = new Key("a", 7), b = new Key("b", 8);
+        fact.update(a, 1);
+        PersistentMapFact<Key, Integer> copy = fact.copy();
+        assertEquals(fact, copy);
+        copy.update(b, 2);
+        copy.update(a, 3);
+        assertEquals("{a=1}", fact.toString());
+        assertEquals("{a=3, b=2}", copy.toString());
+    }
+
+    @Test
+    public void testMerge() {
+        PersistentMapFact<Key, Integer> f1 = new PersistentMapFact<>();
+        PersistentMapFact<Key, Integer> f2 = new PersistentMapFact<>();
+        Key a = new Key("a", 1), b = new Key("b", 2), c = new Key("c", 1);
+        f1.update(a, 1);
+        f1.update(b, 5);
+        f2.update(b, 2);
+        f2.update(c, 3);
+        assertTrue(f1.merge(f2, Math::max));
+        assertEquals("{a=1, b=5, c=3}", f1.toString());
+        assertFalse(f1.merge(f2, Math::max));
+        assertFalse(f1.merge(f1.copy(), Math::max));
+    }
+
+    @Test
+    public void testAgainstHashMap() {
+        Random random = new Random(42);
+        Key[] keys = new Key[300];
+        for (int i = 0; i < keys.length; ++i) {
+            // few distinct hashes, so that both branches and collisions occur
+            keys[i] = new Key("k" + i, random.nextInt(200) * 0x9E3779B9);
+        }
+        PersistentMapFact<Key, Integer> fact = new PersistentMapFact<>();
+        Map<Key, Integer> expected = new HashMap<>();
+        for (int n = 0; n < 20000; ++n) {
+            Key key = keys[random.nextInt(keys.length)];
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), fact.remove(key));
+            } else {
+                int value = random.nextInt(4);
+                assertEquals(!Integer.valueOf(value).equals(expected.put(key, value)),
+                        fact.update(key, value));
+            }
+            if (n % 1000 == 0) {
+                PersistentMapFact<Key, Integer> rebuilt = new PersistentMapFact<>();
+                expected.forEach(rebuilt::update);
+                assertEquals(rebuilt, fact);
+                assertEquals(expected.hashCode(), fact.hashCode());
+            }
+        }
+        Map<Key, Integer> actual = new HashMap<>();
+        fact.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testMergeAgainstHashMap() {
+        Random random = new Random(7);
+        Key[] keys = new Key[100];
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = new Key("k" + i, random.nextInt(60) * 0x9E3779B9);
+        }
+        for (int n = 0; n < 200; ++n) {
+            PersistentMapFact<Key, Integer> f1 = new PersistentMapFact<>();
+            Map<Key, Integer> expected = new HashMap<>();
+            for (int i = random.nextInt(50); i > 0; --i) {
+                Key key = keys[random.nextInt(keys.length)];
+                int value = random.nextInt(10);
+                f1.update(key, value);
+                expected.put(key, value);
+            }
+            // f2 shares structure with f1
+            PersistentMapFact<Key, Integer> f2 = f1.copy();
+            for (int i = random.nextInt(10); i > 0; --i) {
+                f2.update(keys[random.nextInt(keys.length)], random.nextInt(10));
+            }
+            f2.forEach((k, v) -> expected.merge(k, v, Math::max));
+            f1.merge(f2, Math::max);
+            Map<Key, Integer> actual = new HashMap<>();
+            f1.forEach(actual::put);
+            assertEquals(expected, actual);
+        }
+    }
+}
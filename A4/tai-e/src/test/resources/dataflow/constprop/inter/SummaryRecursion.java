@@ -0,0 +1,31 @@
+public class SummaryRecursion {
+
+    public static void main(String[] args) {
+        int a = 1;
+        int b = ping(a);
+        int c = 2;
+        int d = ping(c);
+        int e = tick();
+    }
+
+    static int ping(int x) {
+        int y = pong(x);
+        return x;
+    }
+
+    static int pong(int x) {
+        int z = ping(x);
+        return z;
+    }
+
+    static int tick() {
+        int t = tock();
+        return t;
+    }
+
+    static int tock() {
+        int u = tick();
+        int v = 3;
+        return v;
+    }
+}
@@ -0,0 +1,9 @@
+public class Literal {
+
+    public static void main(String[] args) {
+        Object s = "hello";
+        s.hashCode();
+        Object c = Literal.class;
+        c.hashCode();
+    }
+}
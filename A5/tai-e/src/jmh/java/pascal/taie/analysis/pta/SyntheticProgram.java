@@ -0,0 +1,114 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates synthetic programs for benchmarking pointer analysis.
+ * <p>
+ * The generated program allocates {@code allocSites} nodes, each in its
+ * own factory class, links them through {@code fanOut} reference fields,
+ * and passes every node down a chain of {@code callDepth} instance calls.
+ * Each call in the chain allocates a fresh node, stores its arguments
+ * into it and loads the result back, so the size of the points-to sets
+ * (and the number of contexts) grows with all three parameters.
+ */
+public final class SyntheticProgram {
+
+    /**
+     * Name of the class containing the main method of generated programs.
+     */
+    public static final String MAIN_CLASS = "Main";
+
+    private SyntheticProgram() {
+    }
+
+    /**
+     * Writes a synthetic program to a fresh temporary directory.
+     *
+     * @return the directory, which can be used as the class path.
+     */
+    public static Path generate(int callDepth, int allocSites, int fanOut)
+            throws IOException {
+        if (callDepth < 1 || allocSites < 1 || fanOut < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid program size: callDepth=%d, allocSites=%d, fanOut=%d",
+                    callDepth, allocSites, fanOut));
+        }
+        Path dir = Files.createTempDirectory("tai-e-synthetic");
+        Files.writeString(dir.resolve(MAIN_CLASS + ".java"),
+                toSource(callDepth, allocSites, fanOut));
+        return dir;
+    }
+
+    private static String toSource(int callDepth, int allocSites, int fanOut) {
+        StringBuilder sb = new StringBuilder();
+        // main class
+        sb.append("class ").append(MAIN_CLASS).append(" {\n");
+        sb.append("    public static void main(String[] args) {\n");
+        for (int i = 0; i < allocSites; ++i) {
+            sb.append(String.format("        Node n%d = new Factory%d().make();%n", i, i));
+        }
+        for (int i = 0; i < allocSites; ++i) {
+            sb.append(String.format("        n%d.f%d = n%d;%n",
+                    i, i % fanOut, (i + 1) % allocSites));
+        }
+        for (int i = 0; i < allocSites; ++i) {
+            sb.append(String.format("        Node r%d = n%d.call0(n%d);%n",
+                    i, i, (i + 1) % allocSites));
+        }
+        sb.append("    }\n}\n\n");
+        // factory classes, one allocation site each
+        for (int i = 0; i < allocSites; ++i) {
+            sb.append(String.format("class Factory%d {%n", i));
+            sb.append("    Node make() {\n");
+            sb.append("        return new Node();\n");
+            sb.append("    }\n}\n\n");
+        }
+        // node class with the call chain
+        sb.append("class Node {\n");
+        for (int f = 0; f < fanOut; ++f) {
+            sb.append(String.format("    Node f%d;%n", f));
+        }
+        for (int k = 0; k < callDepth; ++k) {
+            int f = k % fanOut;
+            sb.append(String.format("%n    Node call%d(Node v) {%n", k));
+            sb.append("        Node w = new Node();\n");
+            sb.append(String.format("        w.f%d = v;%n", f));
+            sb.append(String.format("        w.f%d = this;%n", (k + 1) % fanOut));
+            sb.append(String.format("        Node r = v.call%d(w);%n", k + 1));
+            sb.append(String.format("        return r.f%d;%n", f));
+            sb.append("    }\n");
+        }
+        sb.append(String.format("%n    Node call%d(Node v) {%n", callDepth));
+        for (int f = 0; f < fanOut; ++f) {
+            sb.append(String.format("        this.f%d = v.f%d;%n", f, (f + 1) % fanOut));
+        }
+        sb.append(String.format("        return this.f%d;%n", fanOut - 1));
+        sb.append("    }\n}\n");
+        return sb.toString();
+    }
+}
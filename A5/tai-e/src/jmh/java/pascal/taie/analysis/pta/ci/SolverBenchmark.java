@@ -0,0 +1,122 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pascal.taie.Main;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.SyntheticProgram;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.Var;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the context-insensitive {@link Solver} on synthetic programs
+ * generated by {@link SyntheticProgram}.
+ * Besides throughput, the benchmark reports the peak and total sizes of
+ * the points-to sets of variables of the last run as auxiliary counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SolverBenchmark {
+
+    @Param({"8"})
+    public int callDepth;
+
+    @Param({"64"})
+    public int allocSites;
+
+    @Param({"4"})
+    public int fanOut;
+
+    private AnalysisOptions options;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path dir = SyntheticProgram.generate(callDepth, allocSites, fanOut);
+        Main.buildWorld("-pp", "-cp", dir.toString(),
+                "-m", SyntheticProgram.MAIN_CLASS);
+        options = new AnalysisOptions(Map.of(
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true));
+    }
+
+    @Benchmark
+    public PointerAnalysisResult solve(PointsToStats stats) {
+        Solver solver = new Solver(new AllocationSiteBasedModel(options));
+        solver.solve();
+        PointerAnalysisResult result = solver.getResult();
+        stats.record(result);
+        return result;
+    }
+
+    /**
+     * Sizes of the points-to sets computed by the last run.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PointsToStats {
+
+        /**
+         * Size of the largest points-to set of any variable.
+         */
+        public long peakPointsToSetSize;
+
+        /**
+         * Sum of the sizes of the points-to sets of all variables.
+         */
+        public long totalPointsToSetSize;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakPointsToSetSize = 0;
+            totalPointsToSetSize = 0;
+        }
+
+        void record(PointerAnalysisResult result) {
+            reset();
+            for (Var var : result.getVars()) {
+                int size = result.getPointsToSet(var).size();
+                peakPointsToSetSize = Math.max(peakPointsToSetSize, size);
+                totalPointsToSetSize += size;
+            }
+        }
+    }
+}
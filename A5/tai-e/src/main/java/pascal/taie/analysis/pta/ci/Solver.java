@@ -116,9 +116,7 @@ class Solver {
         public Void visit(New stmt) {
             VarPtr x = pointerFlowGraph.getVarPtr(stmt.getLValue());
             Obj o = heapModel.getObj(stmt);
-            PointsToSet newSet = new PointsToSet();
-            newSet.addObject(o);
-            workList.addEntry(x, newSet);
+            workList.addEntry(x, o);
             return null;
         }
 
@@ -261,7 +259,7 @@ class Solver {
     private void processInstStaticCall(Invoke invoke, Obj recv) {
         JMethod method = resolveCallee(recv, invoke);
         if (recv != null) {
-            workList.addEntry(pointerFlowGraph.getVarPtr(method.getIR().getThis()), new PointsToSet(recv));
+            workList.addEntry(pointerFlowGraph.getVarPtr(method.getIR().getThis()), recv);
         }
         if (callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke), invoke, method))) {
             addReachable(method);
@@ -22,21 +22,58 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.collection.Maps;
+
 import java.util.ArrayDeque;
+import java.util.Map;
 import java.util.Queue;
 
 /**
  * Represents work list in pointer analysis.
+ * <p>
+ * Each pointer appears in the work list at most once. Instead of queuing
+ * a new entry for every points-to set sent to a pointer, the work list
+ * keeps a pending delta for each queued pointer and merges the incoming
+ * objects into it in place. The pending delta only holds the objects
+ * that are not in the points-to set of the pointer yet.
  */
 class WorkList {
 
-    private final Queue<Entry> entries = new ArrayDeque<>();
+    /**
+     * Pointers that have pending deltas, in FIFO order.
+     */
+    private final Queue<Pointer> pointers = new ArrayDeque<>();
+
+    /**
+     * Map from each pointer in the work list to its pending delta.
+     */
+    private final Map<Pointer, PointsToSet> pendingDeltas = Maps.newMap();
 
     /**
-     * Adds an entry to the work list.
+     * Adds an entry to the work list, i.e., merges the objects of given
+     * points-to set which are new to given pointer into its pending delta.
      */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
+        for (Obj obj : pointsToSet) {
+            addEntry(pointer, obj);
+        }
+    }
+
+    /**
+     * Adds an entry which consists of given pointer and a single object
+     * to the work list.
+     */
+    void addEntry(Pointer pointer, Obj obj) {
+        if (!pointer.getPointsToSet().contains(obj)) {
+            PointsToSet delta = pendingDeltas.get(pointer);
+            if (delta == null) {
+                delta = new PointsToSet();
+                pendingDeltas.put(pointer, delta);
+                pointers.add(pointer);
+            }
+            delta.addObject(obj);
+        }
     }
 
     /**
@@ -44,19 +81,21 @@ class WorkList {
      * if this work list is empty.
      */
     Entry pollEntry() {
-        return entries.poll();
+        Pointer pointer = pointers.poll();
+        return pointer != null ?
+                new Entry(pointer, pendingDeltas.remove(pointer)) : null;
     }
 
     /**
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return pointers.isEmpty();
     }
 
     /**
      * Represents entries in the work list.
-     * Each entry consists of a pointer and a points-to set.
+     * Each entry consists of a pointer and its pending delta.
      */
     record Entry(Pointer pointer, PointsToSet pointsToSet) {
     }
@@ -0,0 +1,98 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.ir.exp.Var;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures {@link CSManager#getCSVar(Context, Var)} lookups of
+ * {@link MapBasedCSManager} against {@link ArrayBasedCSManager}.
+ * All context-sensitive variables are created during setup, so the
+ * benchmark only exercises the lookup path taken by the solver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CSManagerBenchmark {
+
+    @Param({"map", "array"})
+    public String manager;
+
+    @Param({"1", "16"})
+    public int contextsPerVar;
+
+    private CSManager csManager;
+
+    private Var[] vars;
+
+    private Context[] contexts;
+
+    @Setup
+    public void setUp() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/pta/cspta",
+                "-m", "TwoObject");
+        vars = World.get().getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .flatMap(m -> m.getIR().getVars().stream())
+                .toArray(Var[]::new);
+        ListContext.Factory contextFactory = new ListContext.Factory();
+        contexts = IntStream.range(0, contextsPerVar)
+                .mapToObj(i -> contextFactory.make("c" + i))
+                .toArray(Context[]::new);
+        csManager = manager.equals("array")
+                ? new ArrayBasedCSManager()
+                : new MapBasedCSManager();
+        for (Context context : contexts) {
+            for (Var var : vars) {
+                csManager.getCSVar(context, var);
+            }
+        }
+    }
+
+    @Benchmark
+    public void getCSVar(Blackhole bh) {
+        for (Context context : contexts) {
+            for (Var var : vars) {
+                bh.consume(csManager.getCSVar(context, var));
+            }
+        }
+    }
+}
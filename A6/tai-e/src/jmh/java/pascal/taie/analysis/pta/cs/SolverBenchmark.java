@@ -0,0 +1,157 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pascal.taie.Main;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.SyntheticProgram;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.selector.CISelector;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector._1CallSelector;
+import pascal.taie.analysis.pta.core.cs.selector._2ObjSelector;
+import pascal.taie.analysis.pta.core.cs.selector._2TypeSelector;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the context-sensitive {@link Solver} on synthetic programs
+ * generated by {@link SyntheticProgram}, for each context selector.
+ * Besides throughput, the benchmark reports the peak and total sizes of
+ * the points-to sets of the last run as auxiliary counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SolverBenchmark {
+
+    @Param({"ci", "1-call", "2-obj", "2-type"})
+    public String cs;
+
+    @Param({"8"})
+    public int callDepth;
+
+    @Param({"64"})
+    public int allocSites;
+
+    @Param({"4"})
+    public int fanOut;
+
+    private AnalysisOptions options;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path dir = SyntheticProgram.generate(callDepth, allocSites, fanOut);
+        Main.buildWorld("-pp", "-cp", dir.toString(),
+                "-m", SyntheticProgram.MAIN_CLASS);
+        options = new AnalysisOptions(Map.of(
+                "cs", cs,
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true,
+                "pts-impl", "hybrid",
+                "cycle-elim", false,
+                "threads", 1,
+                "cs-manager", "map"));
+    }
+
+    @Benchmark
+    public PointerAnalysisResult solve(PointsToStats stats) {
+        Solver solver = new Solver(options,
+                new AllocationSiteBasedModel(options),
+                newContextSelector(cs));
+        solver.solve();
+        PointerAnalysisResult result = solver.getResult();
+        stats.record(result);
+        return result;
+    }
+
+    private static ContextSelector newContextSelector(String cs) {
+        return switch (cs) {
+            case "ci" -> new CISelector();
+            case "1-call" -> new _1CallSelector();
+            case "2-obj" -> new _2ObjSelector();
+            case "2-type" -> new _2TypeSelector();
+            default -> throw new ConfigException(
+                    "Unexpected context-sensitivity variants: " + cs);
+        };
+    }
+
+    /**
+     * Sizes of the points-to sets computed by the last run.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PointsToStats {
+
+        /**
+         * Size of the largest points-to set of any pointer.
+         */
+        public long peakPointsToSetSize;
+
+        /**
+         * Sum of the sizes of the points-to sets of all pointers.
+         */
+        public long totalPointsToSetSize;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakPointsToSetSize = 0;
+            totalPointsToSetSize = 0;
+        }
+
+        void record(PointerAnalysisResult result) {
+            reset();
+            record(result.getCSVars());
+            record(result.getInstanceFields());
+            record(result.getArrayIndexes());
+            record(result.getStaticFields());
+        }
+
+        private void record(Collection<? extends Pointer> pointers) {
+            for (Pointer p : pointers) {
+                int size = p.getPointsToSet().size();
+                peakPointsToSetSize = Math.max(peakPointsToSetSize, size);
+                totalPointsToSetSize += size;
+            }
+        }
+    }
+}
@@ -23,28 +23,29 @@
 package pascal.taie.analysis.pta.core.cs.selector;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.language.classes.JMethod;
 
-import static pascal.taie.analysis.pta.core.cs.context.ListContext.make;
-
 /**
  * Implementation of 1-call-site sensitivity.
  */
 public class _1CallSelector implements ContextSelector {
 
+    private final ListContext.Factory contextFactory = new ListContext.Factory();
+
     @Override
     public Context getEmptyContext() {
-        return make();
+        return contextFactory.make();
     }
 //方法 selectContext(...) 和 selectHeapContext(...) 的最后一个参数在本作业中未被使用。
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
         // TODO - finish me
-        return make(callSite.getCallSite());
+        return contextFactory.make(callSite.getCallSite());
     }
 
     @Override
@@ -37,9 +37,11 @@ import java.util.List;
  */
 public class _1ObjSelector implements ContextSelector {
 
+    private final ListContext.Factory contextFactory = new ListContext.Factory();
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return contextFactory.make();
     }
 
     @Override
@@ -52,7 +54,7 @@ public class _1ObjSelector implements ContextSelector {
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
         // TODO - finish me
         if (recv == null) return selectContext(callSite, callee);
-        return ListContext.make(recv.getObject());
+        return contextFactory.make(recv.getObject());
     }
 
     @Override
@@ -35,9 +35,11 @@ import pascal.taie.language.classes.JMethod;
  */
 public class _1TypeSelector implements ContextSelector {
 
+    private final ListContext.Factory contextFactory = new ListContext.Factory();
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return contextFactory.make();
     }
 
     @Override
@@ -50,7 +52,7 @@ public class _1TypeSelector implements ContextSelector {
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
         // TODO - finish me
         if (recv == null) return selectContext(callSite, callee);
-        return ListContext.make(recv.getObject().getContainerType());
+        return contextFactory.make(recv.getObject().getContainerType());
     }
 
     @Override
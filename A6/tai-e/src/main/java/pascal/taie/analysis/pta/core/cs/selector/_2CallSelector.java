@@ -31,29 +31,22 @@ import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JMethod;
 
-import static pascal.taie.analysis.pta.core.cs.context.ListContext.make;
-
 /**
  * Implementation of 2-call-site sensitivity.
  */
 public class _2CallSelector implements ContextSelector {
 
+    private final ListContext.Factory contextFactory = new ListContext.Factory();
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return contextFactory.make();
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
         // TODO - finish me
-        int i = callSite.getContext().getLength();
-        if (i > 0)
-            return make(
-                    callSite.getContext().getElementAt(i - 1),
-                    callSite.getCallSite()
-            );
-        else
-            return make(callSite.getCallSite());
+        return contextFactory.append(callSite.getContext(), callSite.getCallSite(), 2);
     }
 
     @Override
@@ -65,9 +58,6 @@ public class _2CallSelector implements ContextSelector {
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
         // TODO - finish me
-        if (method.getContext().getLength() > 0)
-            return make(method.getContext().getElementAt(method.getContext().getLength() - 1));
-        else
-            return getEmptyContext();
+        return contextFactory.truncate(method.getContext(), 1);
     }
 }
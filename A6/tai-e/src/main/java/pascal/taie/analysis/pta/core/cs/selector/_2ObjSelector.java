@@ -35,9 +35,11 @@ import pascal.taie.language.classes.JMethod;
  */
 public class _2ObjSelector implements ContextSelector {
 
+    private final ListContext.Factory contextFactory = new ListContext.Factory();
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return contextFactory.make();
     }
 
     @Override
@@ -50,23 +52,12 @@ public class _2ObjSelector implements ContextSelector {
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
         // TODO - finish me
         if (recv == null) return selectContext(callSite, callee);
-        int i = recv.getContext().getLength();
-        if (i > 0)
-            return ListContext.make(
-                    recv.getContext().getElementAt(i - 1),
-                    recv.getObject()
-            );
-        else
-            return ListContext.make(recv.getObject());
+        return contextFactory.append(recv.getContext(), recv.getObject(), 2);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
         // TODO - finish me
-        int i = method.getContext().getLength();
-        if (i > 0)
-            return ListContext.make(method.getContext().getElementAt(i - 1));
-        else
-            return getEmptyContext();
+        return contextFactory.truncate(method.getContext(), 1);
     }
 }
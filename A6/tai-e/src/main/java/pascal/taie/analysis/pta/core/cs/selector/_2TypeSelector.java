@@ -36,9 +36,11 @@ import pascal.taie.language.type.Type;
  */
 public class _2TypeSelector implements ContextSelector {
 
+    private final ListContext.Factory contextFactory = new ListContext.Factory();
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return contextFactory.make();
     }
 
     @Override
@@ -51,23 +53,13 @@ public class _2TypeSelector implements ContextSelector {
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
         // TODO - finish me
         if (recv == null) return selectContext(callSite, callee);
-        int i = recv.getContext().getLength();
-        if (i > 0)
-            return ListContext.make(
-                    recv.getContext().getElementAt(i - 1),
-                    recv.getObject().getContainerType()
-            );
-        else
-            return ListContext.make(recv.getObject().getContainerType());
+        return contextFactory.append(recv.getContext(),
+                recv.getObject().getContainerType(), 2);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
         // TODO - finish me
-        int i = method .getContext().getLength();
-        if (i > 0)
-            return ListContext.make(method.getContext().getElementAt(i - 1));
-        else
-            return getEmptyContext();
+        return contextFactory.truncate(method.getContext(), 1);
     }
 }
@@ -23,20 +23,72 @@
 package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.util.collection.MapSetMultiMap;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents pointer flow graph in context-sensitive pointer analysis.
+ * <p>
+ * The graph supports online cycle elimination: the nodes of a strongly
+ * connected component (SCC) can be collapsed into a single representative
+ * node, which owns the edges of all the collapsed nodes. After collapsing,
+ * all nodes of the SCC share the points-to set of the representative,
+ * and all queries about a collapsed node are redirected to its
+ * representative. Cycles are found by lazy cycle detection, i.e., a search
+ * for cycles is triggered only when the points-to sets of the two ends of
+ * an edge become identical, which is a sign of a cycle.
  */
 class PointerFlowGraph {
 
     /**
      * Map from a pointer (node) to its successors in PFG.
      */
-    private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
+    private final MultiMap<Pointer, Pointer> successors;
+
+    /**
+     * Map from each collapsed pointer to the representative of the SCC
+     * it was collapsed into. Representatives are not in this map.
+     */
+    private final Map<Pointer, Pointer> reps = Maps.newMap();
+
+    /**
+     * Map from each representative to all pointers (including itself)
+     * in its SCC. Only representatives of collapsed SCCs are in this map.
+     */
+    private final MultiMap<Pointer, Pointer> members = Maps.newMultiMap();
+
+    /**
+     * Edges which have triggered cycle detection. Lazy cycle detection
+     * checks each edge at most once to avoid fruitless searches.
+     */
+    private final MultiMap<Pointer, Pointer> checkedEdges = Maps.newMultiMap();
+
+    PointerFlowGraph() {
+        this(false);
+    }
+
+    /**
+     * @param concurrent whether edges may be added and queried by multiple
+     *                   threads concurrently. A concurrent PFG does not
+     *                   support cycle elimination.
+     */
+    PointerFlowGraph(boolean concurrent) {
+        successors = concurrent ?
+                new MapSetMultiMap<>(Maps.newConcurrentMap(), ConcurrentHashMap::newKeySet) :
+                Maps.newMultiMap();
+    }
 
     /**
      * Adds an edge (source -> target) to this PFG.
@@ -45,13 +97,170 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        Pointer sourceRep = getRep(source);
+        Pointer targetRep = getRep(target);
+        return sourceRep != targetRep && successors.put(sourceRep, targetRep);
     }
 
     /**
      * @return successors of given pointer in the PFG.
      */
     Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+        return successors.get(getRep(pointer));
+    }
+
+    /**
+     * @return the representative of the SCC containing given pointer.
+     * If the pointer has not been collapsed, returns the pointer itself.
+     */
+    Pointer getRep(Pointer pointer) {
+        Pointer rep = reps.get(pointer);
+        if (rep == null) {
+            return pointer;
+        }
+        Pointer root = getRep(rep);
+        if (root != rep) { // path compression
+            reps.put(pointer, root);
+        }
+        return root;
+    }
+
+    /**
+     * @return all pointers that are collapsed into the same SCC as
+     * given pointer, including the pointer itself.
+     */
+    Set<Pointer> getMembersOf(Pointer pointer) {
+        Pointer rep = getRep(pointer);
+        return members.containsKey(rep) ? members.get(rep) : Set.of(rep);
+    }
+
+    /**
+     * @return the number of pointers that have been collapsed into
+     * other pointers.
+     */
+    int getNumberOfCollapsedNodes() {
+        return reps.size();
+    }
+
+    /**
+     * Performs lazy cycle detection on the out edges of given pointer.
+     * A search is triggered if the points-to set of a successor equals
+     * the points-to set of given pointer.
+     *
+     * @return the SCCs (with more than one node) that are reachable from
+     * the pointer, or an empty list if no search is triggered.
+     */
+    List<Set<Pointer>> detectCycles(Pointer pointer) {
+        Pointer rep = getRep(pointer);
+        PointsToSet pts = rep.getPointsToSet();
+        for (Pointer succ : successors.get(rep)) {
+            Pointer succRep = getRep(succ);
+            if (succRep != rep && isEqual(pts, succRep.getPointsToSet())
+                    && checkedEdges.put(rep, succRep)) {
+                return findSCCs(rep);
+            }
+        }
+        return List.of();
+    }
+
+    private static boolean isEqual(PointsToSet pts1, PointsToSet pts2) {
+        if (pts1.size() != pts2.size()) {
+            return false;
+        }
+        for (var obj : pts1) {
+            if (!pts2.contains(obj)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds non-trivial SCCs reachable from given representative,
+     * by an iterative version of Tarjan's algorithm.
+     */
+    private List<Set<Pointer>> findSCCs(Pointer root) {
+        List<Set<Pointer>> sccs = new ArrayList<>();
+        Map<Pointer, Integer> indexes = Maps.newMap();
+        Map<Pointer, Integer> lowLinks = Maps.newMap();
+        Deque<Pointer> sccStack = new ArrayDeque<>();
+        Set<Pointer> onStack = Sets.newSet();
+        Deque<Pointer> callStack = new ArrayDeque<>();
+        Deque<Iterator<Pointer>> iterStack = new ArrayDeque<>();
+        int index = 0;
+        indexes.put(root, index);
+        lowLinks.put(root, index++);
+        sccStack.push(root);
+        onStack.add(root);
+        callStack.push(root);
+        iterStack.push(List.copyOf(successors.get(root)).iterator());
+        while (!callStack.isEmpty()) {
+            Pointer node = callStack.peek();
+            Iterator<Pointer> iter = iterStack.peek();
+            if (iter.hasNext()) {
+                Pointer succ = getRep(iter.next());
+                if (succ == node) {
+                    continue;
+                }
+                if (!indexes.containsKey(succ)) {
+                    indexes.put(succ, index);
+                    lowLinks.put(succ, index++);
+                    sccStack.push(succ);
+                    onStack.add(succ);
+                    callStack.push(succ);
+                    iterStack.push(List.copyOf(successors.get(succ)).iterator());
+                } else if (onStack.contains(succ)) {
+                    lowLinks.put(node, Math.min(lowLinks.get(node), indexes.get(succ)));
+                }
+            } else {
+                callStack.pop();
+                iterStack.pop();
+                if (!callStack.isEmpty()) {
+                    Pointer parent = callStack.peek();
+                    lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLinks.get(node)));
+                }
+                if (lowLinks.get(node).equals(indexes.get(node))) {
+                    Set<Pointer> scc = Sets.newHybridSet();
+                    Pointer member;
+                    do {
+                        member = sccStack.pop();
+                        onStack.remove(member);
+                        scc.add(member);
+                    } while (member != node);
+                    if (scc.size() > 1) {
+                        sccs.add(scc);
+                    }
+                }
+            }
+        }
+        return sccs;
+    }
+
+    /**
+     * Collapses the nodes of given SCC into one representative node.
+     * This method only merges the graph structure, and the caller is
+     * responsible for merging the points-to sets of the nodes.
+     *
+     * @param scc representatives of the nodes in an SCC
+     * @return the representative of the collapsed SCC.
+     */
+    Pointer collapse(Set<Pointer> scc) {
+        Pointer rep = scc.iterator().next();
+        Set<Pointer> sccMembers = Sets.newHybridSet();
+        for (Pointer node : scc) {
+            sccMembers.addAll(getMembersOf(node));
+            members.removeAll(node);
+        }
+        for (Pointer node : scc) {
+            if (node != rep) {
+                reps.put(node, rep);
+                successors.putAll(rep, successors.get(node));
+                successors.removeAll(node);
+                checkedEdges.removeAll(node);
+            }
+        }
+        successors.removeAll(rep, scc);
+        members.putAll(rep, sccMembers);
+        return rep;
     }
 }
@@ -0,0 +1,692 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.SolverState.CallEdgeKey;
+import pascal.taie.analysis.pta.cs.SolverState.ElementKey;
+import pascal.taie.analysis.pta.cs.SolverState.MethodKey;
+import pascal.taie.analysis.pta.cs.SolverState.ObjKey;
+import pascal.taie.analysis.pta.cs.SolverState.PointerKey;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Retracts the facts of a persisted {@link SolverState} which may be
+ * invalidated by the changes of the program, and installs the rest of
+ * the facts into a new solver.
+ * <p>
+ * This is the over-deletion phase of the DRed (delete and re-derive)
+ * algorithm: every fact that is derived, directly or transitively, from
+ * a changed part of the program is deleted, together with the facts
+ * derived from the deleted ones. The deleted facts which still hold
+ * in the changed program are re-derived by the solver, which re-processes
+ * the methods returned by {@link #apply(CSCallGraph, PointerFlowGraph)}
+ * and then propagates the points-to sets as usual.
+ */
+class Retraction {
+
+    private final SolverState state;
+
+    private final HeapModel heapModel;
+
+    private final CSManager csManager;
+
+    /**
+     * Factory of the contexts used by the solver, so that the resolved
+     * contexts are identical to the ones selected during the analysis.
+     */
+    private final ListContext.Factory contextFactory;
+
+    private final ClassHierarchy hierarchy;
+
+    private final Set<String> changedClasses = Sets.newSet();
+
+    private final Map<JClass, Boolean> stableClasses = Maps.newMap();
+
+    /**
+     * Reachable methods of the persisted state which are not changed.
+     */
+    private final Map<String, JMethod> unchangedMethods = Maps.newMap();
+
+    private int nChangedMethods;
+
+    // resolved elements, null if the element is invalid in current program
+    private Obj[] objs;
+
+    private Context[] contexts;
+
+    private JField[] fields;
+
+    // indexes of the persisted state
+    private int[] ownerOf;
+
+    private final Map<Long, Integer> varIds = Maps.newMap();
+
+    private final TwoKeyMap<Integer, String, Integer> fieldIds = Maps.newTwoKeyMap();
+
+    private final Map<Integer, Integer> arrayIds = Maps.newMap();
+
+    private final MultiMap<Integer, Integer> varsOf = Maps.newMultiMap();
+
+    private final MultiMap<Integer, Integer> edgesOut = Maps.newMultiMap();
+
+    private final MultiMap<Integer, Integer> edgesIn = Maps.newMultiMap();
+
+    private final MultiMap<Long, Integer> edgesAt = Maps.newMultiMap();
+
+    private int[][] succs;
+
+    private int[][] preds;
+
+    // deleted facts
+    private final BitSet deletedPointers = new BitSet();
+
+    private final BitSet deletedMethods = new BitSet();
+
+    private final BitSet deletedEdges = new BitSet();
+
+    private final Deque<Integer> pointerQueue = new ArrayDeque<>();
+
+    private final Deque<Integer> methodQueue = new ArrayDeque<>();
+
+    private final Deque<Integer> edgeQueue = new ArrayDeque<>();
+
+    Retraction(SolverState state, HeapModel heapModel, CSManager csManager,
+               Context emptyContext) {
+        this.state = state;
+        this.heapModel = heapModel;
+        this.csManager = csManager;
+        this.contextFactory = ((ListContext<?>) emptyContext).getFactory();
+        this.hierarchy = World.get().getClassHierarchy();
+    }
+
+    /**
+     * Retracts the invalidated facts, and installs the rest into
+     * given call graph and pointer flow graph.
+     *
+     * @return the reachable methods whose statements need to be
+     * re-processed to re-derive the deleted facts.
+     */
+    List<CSMethod> apply(CSCallGraph callGraph, PointerFlowGraph pointerFlowGraph) {
+        findChanges();
+        resolveElements();
+        buildIndexes();
+        do {
+            retract();
+        } while (retractUnreachable());
+        return install(callGraph, pointerFlowGraph);
+    }
+
+    int getNumberOfChangedMethods() {
+        return nChangedMethods;
+    }
+
+    int getNumberOfRetractedPointers() {
+        return deletedPointers.cardinality();
+    }
+
+    // ---------- changes ----------
+
+    private void findChanges() {
+        Map<String, Long> fingerprints = SolverState.fingerprintClasses();
+        state.classFingerprints.forEach((name, fingerprint) -> {
+            if (!fingerprint.equals(fingerprints.get(name))) {
+                changedClasses.add(name);
+            }
+        });
+        fingerprints.keySet().forEach(name -> {
+            if (!state.classFingerprints.containsKey(name)) {
+                changedClasses.add(name);
+            }
+        });
+        state.methodFingerprints.forEach((signature, fingerprint) -> {
+            JMethod method = getMethod(signature);
+            if (method != null
+                    && !changedClasses.contains(method.getDeclaringClass().getName())
+                    && fingerprint == SolverState.fingerprintOf(method)
+                    && hasStableReferences(method)) {
+                unchangedMethods.put(signature, method);
+            } else {
+                ++nChangedMethods;
+            }
+        });
+    }
+
+    private JMethod getMethod(String signature) {
+        try {
+            JMethod method = hierarchy.getMethod(signature);
+            return method != null && !method.isAbstract() ? method : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the fields and methods referenced by given method
+     * are resolved to the same ones as in the persisted state.
+     */
+    private boolean hasStableReferences(JMethod method) {
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof FieldStmt<?, ?> fieldStmt) {
+                if (!isStable(fieldStmt.getFieldRef().getDeclaringClass())) {
+                    return false;
+                }
+            } else if (stmt instanceof Invoke invoke) {
+                if (!isStable(invoke.getMethodRef().getDeclaringClass())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if neither given class nor its super types are changed.
+     */
+    private boolean isStable(JClass jclass) {
+        if (jclass == null) {
+            return false;
+        }
+        Boolean stable = stableClasses.get(jclass);
+        if (stable == null) {
+            JClass superClass = jclass.getSuperClass();
+            stable = !changedClasses.contains(jclass.getName())
+                    && (superClass == null || isStable(superClass))
+                    && jclass.getInterfaces().stream().allMatch(this::isStable);
+            stableClasses.put(jclass, stable);
+        }
+        return stable;
+    }
+
+    private boolean isStable(Type type) {
+        if (type instanceof ClassType classType) {
+            return isStable(classType.getJClass());
+        } else if (type instanceof ArrayType) {
+            // methods on arrays are dispatched to java.lang.Object
+            return isStable(hierarchy.getJREClass(ClassNames.OBJECT));
+        } else {
+            return true;
+        }
+    }
+
+    // ---------- resolution ----------
+
+    private void resolveElements() {
+        objs = new Obj[state.objs.size()];
+        for (int i = 0; i < objs.length; ++i) {
+            objs[i] = resolveObj(state.objs.get(i));
+        }
+        contexts = new Context[state.contexts.size()];
+        for (int i = 0; i < contexts.length; ++i) {
+            contexts[i] = resolveContext(state.contexts.get(i));
+        }
+    }
+
+    private Obj resolveObj(ObjKey key) {
+        Stmt stmt = getStmt(key.method(), key.stmt());
+        if (stmt instanceof New newStmt) {
+            Obj obj = heapModel.getObj(newStmt);
+            if (obj.getType().getName().equals(key.type())
+                    && isStable(obj.getType())) {
+                return obj;
+            }
+        }
+        return null;
+    }
+
+    private Context resolveContext(List<ElementKey> keys) {
+        Object[] elements = new Object[keys.size()];
+        for (int i = 0; i < elements.length; ++i) {
+            ElementKey key = keys.get(i);
+            Object element = switch (key.kind()) {
+                case SolverState.OBJ_ELEMENT -> objs[key.index()];
+                case SolverState.CALL_SITE_ELEMENT ->
+                        getStmt(key.name(), key.index()) instanceof Invoke invoke ?
+                                invoke : null;
+                case SolverState.TYPE_ELEMENT -> resolveType(key.name());
+                default -> null;
+            };
+            if (element == null) {
+                return null;
+            }
+            elements[i] = element;
+        }
+        return contextFactory.make(elements);
+    }
+
+    private Type resolveType(String name) {
+        try {
+            Type type = World.get().getTypeSystem().getType(name);
+            return isStable(type) ? type : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private JField resolveField(String signature) {
+        try {
+            JField field = hierarchy.getField(signature);
+            return field != null && isStable(field.getDeclaringClass()) ?
+                    field : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the statement at given index of an unchanged method,
+     * or null if the method is changed.
+     */
+    private Stmt getStmt(String method, int index) {
+        JMethod m = method != null ? unchangedMethods.get(method) : null;
+        if (m != null) {
+            IR ir = m.getIR();
+            if (0 <= index && index < ir.getStmts().size()) {
+                return ir.getStmt(index);
+            }
+        }
+        return null;
+    }
+
+    private boolean isValidCSObj(int csObj) {
+        int[] pair = state.csObjs.get(csObj);
+        return contexts[pair[0]] != null && objs[pair[1]] != null;
+    }
+
+    // ---------- indexes ----------
+
+    private void buildIndexes() {
+        Map<MethodKey, Integer> methodIds = Maps.newMap(state.methods.size());
+        for (int m = 0; m < state.methods.size(); ++m) {
+            MethodKey key = state.methods.get(m);
+            methodIds.put(key, m);
+            if (contexts[key.context()] == null
+                    || !unchangedMethods.containsKey(key.method())) {
+                deleteMethod(m);
+            }
+        }
+        for (int e = 0; e < state.callEdges.size(); ++e) {
+            CallEdgeKey edge = state.callEdges.get(e);
+            edgesOut.put(edge.caller(), e);
+            edgesIn.put(edge.callee(), e);
+            edgesAt.put(key(edge.caller(), edge.callSite()), e);
+        }
+        int nPointers = state.pointers.size();
+        ownerOf = new int[nPointers];
+        fields = new JField[nPointers];
+        for (int p = 0; p < nPointers; ++p) {
+            PointerKey key = state.pointers.get(p);
+            ownerOf[p] = -1;
+            boolean valid = true;
+            switch (key.kind()) {
+                case SolverState.VAR -> {
+                    Integer owner = methodIds.get(
+                            new MethodKey(key.base(), key.name()));
+                    if (owner != null) {
+                        ownerOf[p] = owner;
+                        varIds.put(key(owner, key.index()), p);
+                        varsOf.put(owner, p);
+                    } else {
+                        valid = false;
+                    }
+                }
+                case SolverState.INSTANCE_FIELD -> {
+                    fieldIds.put(key.base(), key.name(), p);
+                    fields[p] = resolveField(key.name());
+                    valid = fields[p] != null && isValidCSObj(key.base());
+                }
+                case SolverState.ARRAY_INDEX -> {
+                    arrayIds.put(key.base(), p);
+                    valid = isValidCSObj(key.base());
+                }
+                default -> {
+                    fields[p] = resolveField(key.name());
+                    valid = fields[p] != null;
+                }
+            }
+            for (int csObj : key.pts()) {
+                valid &= isValidCSObj(csObj);
+            }
+            if (!valid) {
+                deletePointer(p);
+            }
+        }
+        int[] nSuccs = new int[nPointers];
+        int[] nPreds = new int[nPointers];
+        for (int[] edge : state.edges) {
+            ++nSuccs[edge[0]];
+            ++nPreds[edge[1]];
+        }
+        succs = new int[nPointers][];
+        preds = new int[nPointers][];
+        for (int p = 0; p < nPointers; ++p) {
+            succs[p] = new int[nSuccs[p]];
+            preds[p] = new int[nPreds[p]];
+        }
+        for (int[] edge : state.edges) {
+            succs[edge[0]][--nSuccs[edge[0]]] = edge[1];
+            preds[edge[1]][--nPreds[edge[1]]] = edge[0];
+        }
+    }
+
+    private static long key(int i, int j) {
+        return ((long) i << 32) | (j & 0xffffffffL);
+    }
+
+    // ---------- over-deletion ----------
+
+    private void deletePointer(Integer p) {
+        if (p != null && !deletedPointers.get(p)) {
+            deletedPointers.set(p);
+            pointerQueue.add(p);
+        }
+    }
+
+    private void deleteMethod(int m) {
+        if (!deletedMethods.get(m)) {
+            deletedMethods.set(m);
+            methodQueue.add(m);
+        }
+    }
+
+    private void deleteEdge(int e) {
+        if (!deletedEdges.get(e)) {
+            deletedEdges.set(e);
+            edgeQueue.add(e);
+        }
+    }
+
+    private void retract() {
+        while (!pointerQueue.isEmpty() || !methodQueue.isEmpty()
+                || !edgeQueue.isEmpty()) {
+            while (!methodQueue.isEmpty()) {
+                // variables and call edges of deleted methods are deleted
+                int m = methodQueue.poll();
+                varsOf.get(m).forEach(this::deletePointer);
+                edgesOut.get(m).forEach(this::deleteEdge);
+                edgesIn.get(m).forEach(this::deleteEdge);
+            }
+            while (!edgeQueue.isEmpty()) {
+                retractEdge(edgeQueue.poll());
+            }
+            while (!pointerQueue.isEmpty()) {
+                int p = pointerQueue.poll();
+                // objects flowing out of a deleted pointer are deleted
+                for (int succ : succs[p]) {
+                    deletePointer(succ);
+                }
+                if (ownerOf[p] != -1 && !deletedMethods.get(ownerOf[p])) {
+                    retractVar(p);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the facts derived from the call edge, i.e., the objects
+     * passed to the callee and the objects returned to the caller.
+     */
+    private void retractEdge(int e) {
+        CallEdgeKey edge = state.callEdges.get(e);
+        if (!deletedMethods.get(edge.callee())) {
+            int callee = edge.callee();
+            IR ir = getMethod(callee).getIR();
+            if (ir.getThis() != null) {
+                deletePointer(varIds.get(key(callee, ir.getThis().getIndex())));
+            }
+            for (Var param : ir.getParams()) {
+                deletePointer(varIds.get(key(callee, param.getIndex())));
+            }
+        }
+        if (!deletedMethods.get(edge.caller())) {
+            Var result = ((Invoke) getMethod(edge.caller()).getIR()
+                    .getStmt(edge.callSite())).getResult();
+            if (result != null) {
+                deletePointer(varIds.get(key(edge.caller(), result.getIndex())));
+            }
+        }
+    }
+
+    /**
+     * Deletes the facts derived from the objects pointed to by a deleted
+     * variable in an unchanged method, i.e., the objects stored to and
+     * loaded from the fields and array indexes of these objects, and
+     * the call edges on these objects as receivers.
+     */
+    private void retractVar(int p) {
+        PointerKey key = state.pointers.get(p);
+        int m = ownerOf[p];
+        Var x = getMethod(m).getIR().getVar(key.index());
+        for (StoreField store : x.getStoreFields()) {
+            if (!store.isStatic()) {
+                String field = store.getFieldRef().resolve().getSignature();
+                for (int obj : key.pts()) {
+                    deletePointer(fieldIds.get(obj, field));
+                }
+            }
+        }
+        for (LoadField load : x.getLoadFields()) {
+            if (!load.isStatic()) {
+                deletePointer(varIds.get(key(m, load.getLValue().getIndex())));
+            }
+        }
+        for (StoreArray store : x.getStoreArrays()) {
+            for (int obj : key.pts()) {
+                deletePointer(arrayIds.get(obj));
+            }
+        }
+        for (LoadArray load : x.getLoadArrays()) {
+            deletePointer(varIds.get(key(m, load.getLValue().getIndex())));
+        }
+        for (Invoke invoke : x.getInvokes()) {
+            edgesAt.get(key(m, invoke.getIndex())).forEach(this::deleteEdge);
+        }
+    }
+
+    /**
+     * Deletes the methods which are unreachable from the entry methods
+     * through the remaining call edges.
+     *
+     * @return true if any method is deleted.
+     */
+    private boolean retractUnreachable() {
+        BitSet reached = new BitSet();
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int entry : state.entries) {
+            if (!deletedMethods.get(entry) && !reached.get(entry)) {
+                reached.set(entry);
+                queue.add(entry);
+            }
+        }
+        while (!queue.isEmpty()) {
+            for (int e : edgesOut.get(queue.poll())) {
+                int callee = state.callEdges.get(e).callee();
+                if (!deletedEdges.get(e) && !reached.get(callee)) {
+                    reached.set(callee);
+                    queue.add(callee);
+                }
+            }
+        }
+        boolean changed = false;
+        for (int m = 0; m < state.methods.size(); ++m) {
+            if (!reached.get(m) && !deletedMethods.get(m)) {
+                deleteMethod(m);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private JMethod getMethod(int m) {
+        return unchangedMethods.get(state.methods.get(m).method());
+    }
+
+    // ---------- installation ----------
+
+    private List<CSMethod> install(CSCallGraph callGraph,
+                                   PointerFlowGraph pointerFlowGraph) {
+        CSMethod[] csMethods = new CSMethod[state.methods.size()];
+        for (int m = 0; m < csMethods.length; ++m) {
+            if (!deletedMethods.get(m)) {
+                csMethods[m] = csManager.getCSMethod(
+                        contexts[state.methods.get(m).context()], getMethod(m));
+                callGraph.addReachableMethod(csMethods[m]);
+            }
+        }
+        for (int e = 0; e < state.callEdges.size(); ++e) {
+            if (!deletedEdges.get(e)) {
+                CallEdgeKey edge = state.callEdges.get(e);
+                CSMethod caller = csMethods[edge.caller()];
+                Invoke invoke = (Invoke) caller.getMethod().getIR()
+                        .getStmt(edge.callSite());
+                CSCallSite csCallSite = csManager.getCSCallSite(
+                        caller.getContext(), invoke);
+                callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke),
+                        csCallSite, csMethods[edge.callee()]));
+            }
+        }
+        CSObj[] csObjs = new CSObj[state.csObjs.size()];
+        Pointer[] pointers = new Pointer[state.pointers.size()];
+        for (int p = 0; p < pointers.length; ++p) {
+            if (!deletedPointers.get(p)) {
+                Pointer pointer = resolvePointer(p, csMethods, csObjs);
+                for (int obj : state.pointers.get(p).pts()) {
+                    pointer.getPointsToSet().addObject(getCSObj(obj, csObjs));
+                }
+                pointers[p] = pointer;
+            }
+        }
+        for (int[] edge : state.edges) {
+            if (pointers[edge[0]] != null && pointers[edge[1]] != null) {
+                pointerFlowGraph.addEdge(pointers[edge[0]], pointers[edge[1]]);
+            }
+        }
+        return collectAffectedMethods(csMethods);
+    }
+
+    private Pointer resolvePointer(int p, CSMethod[] csMethods, CSObj[] csObjs) {
+        PointerKey key = state.pointers.get(p);
+        return switch (key.kind()) {
+            case SolverState.VAR -> {
+                CSMethod csMethod = csMethods[ownerOf[p]];
+                IR ir = csMethod.getMethod().getIR();
+                if (key.index() < 0 || key.index() >= ir.getVars().size()) {
+                    throw new IllegalStateException(
+                            "Variable " + key.index() + " not found in " + key.name());
+                }
+                yield csManager.getCSVar(csMethod.getContext(),
+                        ir.getVar(key.index()));
+            }
+            case SolverState.INSTANCE_FIELD -> csManager.getInstanceField(
+                    getCSObj(key.base(), csObjs), fields[p]);
+            case SolverState.ARRAY_INDEX -> csManager.getArrayIndex(
+                    getCSObj(key.base(), csObjs));
+            default -> csManager.getStaticField(fields[p]);
+        };
+    }
+
+    private CSObj getCSObj(int i, CSObj[] csObjs) {
+        if (csObjs[i] == null) {
+            int[] pair = state.csObjs.get(i);
+            csObjs[i] = csManager.getCSObj(contexts[pair[0]], objs[pair[1]]);
+        }
+        return csObjs[i];
+    }
+
+    /**
+     * @return the remaining methods whose statements may derive deleted facts,
+     * i.e., the methods which contain deleted variables and their callers,
+     * the callers of deleted call edges, and the methods which contain
+     * the variables flowing to deleted pointers.
+     */
+    private List<CSMethod> collectAffectedMethods(CSMethod[] csMethods) {
+        BitSet affected = new BitSet();
+        deletedPointers.stream().forEach(p -> {
+            int owner = ownerOf[p];
+            if (owner != -1 && !deletedMethods.get(owner)) {
+                affected.set(owner);
+                for (int e : edgesIn.get(owner)) {
+                    if (!deletedEdges.get(e)) {
+                        affected.set(state.callEdges.get(e).caller());
+                    }
+                }
+            }
+            for (int pred : preds[p]) {
+                int predOwner = ownerOf[pred];
+                if (!deletedPointers.get(pred) && predOwner != -1) {
+                    affected.set(predOwner);
+                }
+            }
+        });
+        deletedEdges.stream().forEach(e -> {
+            int caller = state.callEdges.get(e).caller();
+            if (!deletedMethods.get(caller)) {
+                affected.set(caller);
+            }
+        });
+        List<CSMethod> result = new ArrayList<>(affected.cardinality());
+        affected.stream().forEach(m -> result.add(csMethods[m]));
+        return result;
+    }
+}
@@ -36,15 +36,32 @@ import pascal.taie.analysis.pta.core.cs.element.*;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.plugin.ResultProcessor;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
-
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 class Solver {
 
@@ -66,33 +83,227 @@ class Solver {
 
     private PointerAnalysisResult result;
 
+    /**
+     * Whether online cycle elimination in PFG is enabled.
+     */
+    private final boolean cycleElimination;
+
+    /**
+     * Number of threads used to solve the analysis.
+     */
+    private final int threads;
+
+    /**
+     * Locks that guard the points-to sets in parallel mode,
+     * or null if the analysis is solved by a single thread.
+     */
+    private StripedLocks locks;
+
+    /**
+     * Lock that serializes the updates of call graph and the accesses
+     * to the components which are not thread-safe, i.e., heap model,
+     * context selector, class hierarchy and IR builder.
+     */
+    private final Object callLock = new Object();
+
+    /**
+     * Path of the file which keeps the solver state for incremental
+     * analysis, or null if incremental analysis is disabled.
+     */
+    private final Path statePath;
+
+    /**
+     * Whether the solver is re-deriving the facts retracted from
+     * the persisted state, see {@link #rederive(List)}.
+     */
+    private boolean rederiving;
+
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
         this.heapModel = heapModel;
         this.contextSelector = contextSelector;
+        this.threads = options.get("threads") != null ?
+                Math.max(1, options.getInt("threads")) : 1;
+        boolean cycleElim = options.getBooleanOrDefault("cycle-elim", false);
+        if (cycleElim && threads > 1) {
+            logger.warn("Cycle elimination is not supported by parallel" +
+                    " pointer analysis, disable it");
+            cycleElim = false;
+        }
+        this.cycleElimination = cycleElim;
+        String incremental = options.getString("incremental");
+        if (incremental != null && (threads > 1 || cycleElimination)) {
+            logger.warn("Incremental analysis is not supported by parallel" +
+                    " pointer analysis or cycle elimination, disable it");
+            incremental = null;
+        }
+        this.statePath = incremental != null ? Path.of(incremental) : null;
     }
 
     void solve() {
         initialize();
         analyze();
+        if (statePath != null) {
+            saveState();
+        }
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
-        callGraph = new CSCallGraph(csManager);
-        pointerFlowGraph = new PointerFlowGraph();
-        workList = new WorkList();
+        newComponents();
+        List<CSMethod> affected = statePath != null ?
+                restoreState() : List.of();
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
         CSMethod csMethod = csManager.getCSMethod(defContext, main);
         callGraph.addEntryMethod(csMethod);
         addReachable(csMethod);
+        if (!affected.isEmpty()) {
+            rederive(affected);
+        }
+    }
+
+    private void newComponents() {
+        csManager = newCSManager();
+        PointsToSetFactory.setImplementation(options.getString("pts-impl"),
+                csManager.getObjectIndexer());
+        callGraph = new CSCallGraph(csManager);
+        if (threads > 1) {
+            pointerFlowGraph = new PointerFlowGraph(true);
+            locks = new StripedLocks(threads);
+            workList = new ConcurrentWorkList(threads, locks);
+        } else {
+            pointerFlowGraph = new PointerFlowGraph();
+            workList = new WorkList();
+        }
+    }
+
+    /**
+     * Installs the facts of the persisted solver state which are not
+     * affected by the changes of the program since the state was saved.
+     * If the state is unavailable or cannot be reused, the solver
+     * is left empty and the analysis runs from scratch.
+     *
+     * @return the methods to be re-processed by {@link #rederive(List)}.
+     */
+    private List<CSMethod> restoreState() {
+        SolverState state = loadState();
+        if (state == null) {
+            return List.of();
+        }
+        try {
+            Retraction retraction = new Retraction(state, heapModel, csManager,
+                    contextSelector.getEmptyContext());
+            List<CSMethod> affected = retraction.apply(callGraph, pointerFlowGraph);
+            logger.info("Incremental pointer analysis: {} changed methods," +
+                            " {} retracted pointers, {} re-processed methods",
+                    retraction.getNumberOfChangedMethods(),
+                    retraction.getNumberOfRetractedPointers(), affected.size());
+            return affected;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reuse solver state, solve from scratch", e);
+            newComponents();
+            return List.of();
+        }
+    }
+
+    private SolverState loadState() {
+        if (!Files.exists(statePath)) {
+            logger.info("Solver state {} does not exist, solve from scratch",
+                    statePath);
+            return null;
+        }
+        SolverState state;
+        try {
+            state = SolverState.read(statePath);
+        } catch (IOException e) {
+            logger.warn("Failed to read solver state {}, solve from scratch",
+                    statePath, e);
+            return null;
+        }
+        if (!state.optionsKey.equals(getOptionsKey())) {
+            logger.info("Solver state {} is computed with different options," +
+                    " solve from scratch", statePath);
+            return null;
+        }
+        return state;
+    }
+
+    private void saveState() {
+        try {
+            SolverState.capture(getOptionsKey(), heapModel, csManager,
+                    callGraph, pointerFlowGraph).write(statePath);
+        } catch (IOException e) {
+            logger.warn("Failed to save solver state to {}", statePath, e);
+        }
+    }
+
+    /**
+     * @return the options which affect the result of the analysis.
+     */
+    private String getOptionsKey() {
+        StringBuilder key = new StringBuilder();
+        for (String option : List.of("cs", "merge-string-constants",
+                "merge-string-objects", "merge-string-builders",
+                "merge-exception-objects")) {
+            key.append(option).append('=').append(options.get(option)).append(';');
+        }
+        return key.append(World.get().getMainMethod().getSignature()).toString();
+    }
+
+    /**
+     * Re-derives the facts retracted from the persisted state by
+     * re-processing the statements of given methods, as if the methods
+     * were just reachable and the objects pointed to by their variables
+     * were just discovered. The facts derived from the retracted ones are
+     * then re-derived by {@link #analyze()}.
+     */
+    private void rederive(List<CSMethod> methods) {
+        rederiving = true;
+        for (CSMethod csMethod : methods) {
+            StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
+            for (Stmt stmt : csMethod.getMethod().getIR().getStmts()) {
+                stmt.accept(stmtProcessor);
+            }
+        }
+        MultiMap<JMethod, Context> contexts = Maps.newMultiMap();
+        methods.forEach(m -> contexts.put(m.getMethod(), m.getContext()));
+        List<CSVar> csVars = csManager.getCSVars()
+                .stream()
+                .filter(csVar -> !csVar.getPointsToSet().isEmpty() &&
+                        contexts.get(csVar.getVar().getMethod())
+                                .contains(csVar.getContext()))
+                .toList();
+        for (CSVar csVar : csVars) {
+            processNewObjects(csVar, csVar.getPointsToSet());
+        }
+        rederiving = false;
+    }
+
+    /**
+     * Creates the manager of context-sensitive elements specified by
+     * option "cs-manager", i.e., "map" (default) or "array". For parallel
+     * analysis, "map" gives the thread-safe {@link ConcurrentCSManager}.
+     */
+    private CSManager newCSManager() {
+        String impl = options.getString("cs-manager");
+        if (impl == null || impl.equals("map")) {
+            return threads > 1 ? new ConcurrentCSManager() : new MapBasedCSManager();
+        } else if (impl.equals("array")) {
+            if (threads > 1) {
+                throw new ConfigException("cs-manager:array is not thread-safe," +
+                        " use cs-manager:map for parallel analysis");
+            }
+            return new ArrayBasedCSManager();
+        } else {
+            throw new ConfigException("Unknown cs-manager: " + impl);
+        }
     }
 
     /**
      * Processes new reachable context-sensitive method.
+     * In parallel mode, this method must be called with {@link #callLock} held.
      */
     private void addReachable(CSMethod csMethod) {
         // TODO - finish me
@@ -130,8 +341,7 @@ class Solver {
 
             Context ctx = contextSelector.selectHeapContext(csMethod, obj);
             CSObj csObj = csManager.getCSObj(ctx, obj);
-            PointsToSet pointsToSet = PointsToSetFactory.make(csObj);
-            workList.addEntry(x, pointsToSet);
+            workList.addEntry(x, csObj);
             return null;
         }
 
@@ -172,9 +382,26 @@ class Solver {
      */
     private void addPFGEdge(Pointer source, Pointer target) {
         // TODO - finish me
-        if (pointerFlowGraph.addEdge(source, target))
-            if (!source.getPointsToSet().isEmpty())
-                workList.addEntry(target, source.getPointsToSet());
+        if (pointerFlowGraph.addEdge(source, target)) {
+            PointsToSet sourcePts = getPointsToSetOf(source);
+            if (!sourcePts.isEmpty())
+                workList.addEntry(target, sourcePts);
+        }
+    }
+
+    /**
+     * @return the points-to set of given pointer. In parallel mode,
+     * returns a copy which is not affected by concurrent updates.
+     */
+    private PointsToSet getPointsToSetOf(Pointer pointer) {
+        if (locks == null) {
+            return pointer.getPointsToSet();
+        }
+        PointsToSet copy = PointsToSetFactory.make();
+        synchronized (locks.get(pointer)) {
+            copy.addAll(pointer.getPointsToSet());
+        }
+        return copy;
     }
 
     /**
@@ -182,67 +409,171 @@ class Solver {
      */
     private void analyze() {
         // TODO - finish me
+        if (threads > 1) {
+            analyzeInParallel();
+            return;
+        }
         while (!workList.isEmpty()) {
             WorkList.Entry entry = workList.pollEntry();
             PointsToSet delta = propagate(entry.pointer(), entry.pointsToSet());
-            if (entry.pointer() instanceof CSVar varPtr) {
-                Var x = varPtr.getVar();
-                // c
-                Context context = varPtr.getContext();
-                for (var obj : delta.getObjects()) {
-                    // y = x.f
-                    for (var loadField : x.getLoadFields()) {
-                        if (loadField.isStatic()) continue;
-                        addPFGEdge(
-                                csManager.getInstanceField(obj, loadField.getFieldRef().resolve()),
-                                csManager.getCSVar(context, loadField.getLValue())
-                        );
-                    }
-                    // x.f = y
-                    for (var storeField : x.getStoreFields()) {
-                        if (storeField.isStatic()) continue;
-                        addPFGEdge(
-                              csManager.getCSVar(context, storeField.getRValue()) ,
-                              csManager.getInstanceField(obj, storeField.getFieldRef().resolve())
-                        );
-                    }
-                    //y = x[i]
-                    for (var loadArray : x.getLoadArrays()) {
-                        addPFGEdge(
-                                csManager.getArrayIndex(obj),
-                                csManager.getCSVar(context, loadArray.getLValue())
-                        );
-                    }
-                    // x[i] = y
-                    for (var storeArray : x.getStoreArrays()) {
-                        addPFGEdge(
-                                csManager.getCSVar(context, storeArray.getRValue()),
-                                csManager.getArrayIndex(obj)
-                        );
+            if (!delta.isEmpty()) {
+                // all pointers collapsed with entry.pointer() share its points-to set
+                for (Pointer pointer : pointerFlowGraph.getMembersOf(entry.pointer())) {
+                    processNewObjects(pointer, delta);
+                }
+                if (cycleElimination) {
+                    eliminateCycles(entry.pointer());
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes work-list entries by multiple threads until all entries
+     * are finished. Each thread runs the same loop as {@link #analyze()},
+     * and as the analysis is monotone, the result does not depend on
+     * the order in which the entries are processed.
+     */
+    private void analyzeInParallel() {
+        ConcurrentWorkList concurrentWorkList = (ConcurrentWorkList) workList;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; ++i) {
+                int partition = i;
+                futures.add(executor.submit(() -> {
+                    try {
+                        WorkList.Entry entry;
+                        while ((entry = concurrentWorkList.pollEntry(partition)) != null) {
+                            PointsToSet delta = propagate(entry.pointer(), entry.pointsToSet());
+                            if (!delta.isEmpty()) {
+                                processNewObjects(entry.pointer(), delta);
+                            }
+                            concurrentWorkList.finish();
+                        }
+                    } catch (RuntimeException | Error e) {
+                        concurrentWorkList.abort();
+                        throw e;
                     }
-                    processCall((CSVar) entry.pointer(), obj);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Parallel pointer analysis is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new AnalysisException("Parallel pointer analysis failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Processes the statements related to given pointer when
+     * new objects (delta) are added to its points-to set.
+     */
+    private void processNewObjects(Pointer pointer, PointsToSet delta) {
+        if (pointer instanceof CSVar varPtr) {
+            Var x = varPtr.getVar();
+            // c
+            Context context = varPtr.getContext();
+            for (var obj : delta.getObjects()) {
+                // y = x.f
+                for (var loadField : x.getLoadFields()) {
+                    if (loadField.isStatic()) continue;
+                    addPFGEdge(
+                            csManager.getInstanceField(obj, loadField.getFieldRef().resolve()),
+                            csManager.getCSVar(context, loadField.getLValue())
+                    );
                 }
+                // x.f = y
+                for (var storeField : x.getStoreFields()) {
+                    if (storeField.isStatic()) continue;
+                    addPFGEdge(
+                            csManager.getCSVar(context, storeField.getRValue()) ,
+                            csManager.getInstanceField(obj, storeField.getFieldRef().resolve())
+                    );
+                }
+                //y = x[i]
+                for (var loadArray : x.getLoadArrays()) {
+                    addPFGEdge(
+                            csManager.getArrayIndex(obj),
+                            csManager.getCSVar(context, loadArray.getLValue())
+                    );
+                }
+                // x[i] = y
+                for (var storeArray : x.getStoreArrays()) {
+                    addPFGEdge(
+                            csManager.getCSVar(context, storeArray.getRValue()),
+                            csManager.getArrayIndex(obj)
+                    );
+                }
+                processCall(varPtr, obj);
             }
         }
     }
 
+    /**
+     * Detects cycles starting from given pointer in the PFG and collapses them.
+     * The points-to sets of the nodes in each cycle are merged into the one of
+     * the representative, and the objects that are new to each node are
+     * processed as if they were propagated to the node.
+     */
+    private void eliminateCycles(Pointer pointer) {
+        for (Set<Pointer> scc : pointerFlowGraph.detectCycles(pointer)) {
+            Pointer rep = pointerFlowGraph.collapse(scc);
+            PointsToSet repPts = rep.getPointsToSet();
+            // map from each original points-to set in the SCC to
+            // the objects that are new to it after merging
+            Map<PointsToSet, PointsToSet> deltas = new IdentityHashMap<>();
+            PointsToSet repDelta = PointsToSetFactory.make();
+            for (Pointer node : scc) {
+                if (node != rep) {
+                    repDelta.addAll(repPts.addAllDiff(node.getPointsToSet()));
+                }
+            }
+            deltas.put(repPts, repDelta);
+            for (Pointer node : scc) {
+                if (node != rep) {
+                    deltas.put(node.getPointsToSet(),
+                            node.getPointsToSet().addAllDiff(repPts));
+                }
+            }
+            Map<Pointer, PointsToSet> memberDeltas = Maps.newMap();
+            for (Pointer member : pointerFlowGraph.getMembersOf(rep)) {
+                memberDeltas.put(member, deltas.get(member.getPointsToSet()));
+                member.setPointsToSet(repPts);
+            }
+            for (Pointer succ : pointerFlowGraph.getSuccsOf(rep)) {
+                workList.addEntry(succ, repPts);
+            }
+            memberDeltas.forEach((member, delta) -> {
+                if (!delta.isEmpty()) {
+                    processNewObjects(member, delta);
+                }
+            });
+        }
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
-        PointsToSet delta = PointsToSetFactory.make();
-        if (!pointsToSet.isEmpty()) {
-            PointsToSet ptn = pointer.getPointsToSet();
-            for (var obj : pointsToSet)
-                if (!ptn.contains(obj))
-                    delta.addObject(obj);
-            ptn.addAll(delta);
-            if (!delta.isEmpty())
-                for (Pointer succ : pointerFlowGraph.getSuccsOf(pointer))
-                    workList.addEntry(succ, delta);
+        PointsToSet delta;
+        if (locks == null) {
+            delta = pointer.getPointsToSet().addAllDiff(pointsToSet);
+        } else {
+            synchronized (locks.get(pointer)) {
+                delta = pointer.getPointsToSet().addAllDiff(pointsToSet);
+            }
         }
+        if (!delta.isEmpty())
+            for (Pointer succ : pointerFlowGraph.getSuccsOf(pointer))
+                workList.addEntry(succ, delta);
         return delta;
     }
 
@@ -261,19 +592,30 @@ class Solver {
     }
 
     private void processInstStaticCall(CSObj recv, Invoke stmt, Context context) {
-        JMethod jMethod = resolveCallee(recv, stmt);
-        //if (jMethod == null) return;
         // callSite应该是与stmt保持一致
         CSCallSite callSite = csManager.getCSCallSite(context, stmt);
-        Context callCtx = contextSelector.selectContext(callSite, recv, jMethod);
-        // 但是CSMethod应该通过select选择context？
-        CSMethod csMethod = csManager.getCSMethod(callCtx, jMethod);
+        JMethod jMethod;
+        Context callCtx;
+        IR ir;
+        boolean isNewEdge;
+        synchronized (callLock) {
+            jMethod = resolveCallee(recv, stmt);
+            //if (jMethod == null) return;
+            callCtx = contextSelector.selectContext(callSite, recv, jMethod);
+            // 但是CSMethod应该通过select选择context？
+            CSMethod csMethod = csManager.getCSMethod(callCtx, jMethod);
+            ir = jMethod.getIR();
+            isNewEdge = callGraph.addEdge(new Edge<>(
+                    CallGraphs.getCallKind(stmt), callSite, csMethod));
+            if (isNewEdge) {
+                addReachable(csMethod);
+            }
+        }
         if (recv != null)
-            workList.addEntry(csManager.getCSVar(callCtx, jMethod.getIR().getThis()), PointsToSetFactory.make(recv));
-        if (callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(stmt), callSite, csMethod))) {
-            addReachable(csMethod);
+            workList.addEntry(csManager.getCSVar(callCtx, ir.getThis()), recv);
+        if (isNewEdge || rederiving) {
             // 形参
-            List<Var> params = jMethod.getIR().getParams();
+            List<Var> params = ir.getParams();
             // 实参
             List<Var> args = stmt.getInvokeExp().getArgs();
             assert args.size() == params.size();
@@ -283,7 +625,7 @@ class Solver {
                         csManager.getCSVar(callCtx, params.get(i))
                 );
             }
-            List<Var> retVars = jMethod.getIR().getReturnVars();
+            List<Var> retVars = ir.getReturnVars();
             Var result = stmt.getResult();
             if (result != null) {
                 CSVar csResult = csManager.getCSVar(context, result);
@@ -313,6 +655,10 @@ class Solver {
     PointerAnalysisResult getResult() {
         if (result == null) {
             result = new PointerAnalysisResultImpl(csManager, callGraph);
+            if (cycleElimination) {
+                result.storeResult(ResultProcessor.COLLAPSED_PFG_NODES,
+                        pointerFlowGraph.getNumberOfCollapsedNodes());
+            }
         }
         return result;
     }
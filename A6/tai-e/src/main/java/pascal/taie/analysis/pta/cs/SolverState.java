@@ -0,0 +1,710 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassMember;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Persisted state of {@link Solver}, i.e., the points-to sets, the pointer
+ * flow graph, the call graph and the contexts, which is reused by
+ * incremental pointer analysis.
+ * <p>
+ * Elements are persisted by keys which are stable across runs of the
+ * analysis, e.g., signatures of methods and fields, and indexes of
+ * variables and statements in IR, so that they can be resolved to the
+ * elements of a new run on a changed program. To find out what changed,
+ * the state also keeps the fingerprints of all classes and of the IR
+ * of all reachable methods of the analyzed program.
+ */
+class SolverState {
+
+    private static final int MAGIC = 0x54414950;
+
+    private static final int VERSION = 1;
+
+    // kinds of context elements
+    static final byte OBJ_ELEMENT = 0;
+
+    static final byte CALL_SITE_ELEMENT = 1;
+
+    static final byte TYPE_ELEMENT = 2;
+
+    static final byte UNKNOWN_ELEMENT = 3;
+
+    // kinds of pointers
+    static final byte VAR = 0;
+
+    static final byte INSTANCE_FIELD = 1;
+
+    static final byte ARRAY_INDEX = 2;
+
+    static final byte STATIC_FIELD = 3;
+
+    /**
+     * An object, which is identified by one of its allocation sites,
+     * i.e., a New statement in a method. The method is null if no
+     * allocation site of the object is known.
+     */
+    record ObjKey(String method, int stmt, String type) {
+    }
+
+    /**
+     * A context element. For objects, {@code index} is the index of
+     * the object in {@link #objs}; for call sites, {@code name} is the
+     * signature of the container method and {@code index} is the index of
+     * the call site in its IR; for types, {@code name} is the type name.
+     */
+    record ElementKey(byte kind, String name, int index) {
+    }
+
+    /**
+     * A pointer and its points-to set (indexes of {@link #csObjs}).
+     * For variables, {@code base} is the index of the context and
+     * {@code name} and {@code index} are the signature of the method and
+     * the index of the variable in its IR; for instance fields and array
+     * indexes, {@code base} is the index of the CS object; for fields,
+     * {@code name} is the field signature.
+     */
+    record PointerKey(byte kind, int base, String name, int index, int[] pts) {
+    }
+
+    /**
+     * A context-sensitive method.
+     */
+    record MethodKey(int context, String method) {
+    }
+
+    /**
+     * A call edge from the call site at index {@code callSite} in the IR of
+     * method {@code caller} to method {@code callee} (indexes of {@link #methods}).
+     */
+    record CallEdgeKey(int caller, int callSite, int callee) {
+    }
+
+    /**
+     * Options of the analysis that affect its result. The state
+     * is only reused by the analysis with the same options.
+     */
+    final String optionsKey;
+
+    final Map<String, Long> classFingerprints;
+
+    final Map<String, Long> methodFingerprints;
+
+    final List<ObjKey> objs;
+
+    final List<List<ElementKey>> contexts;
+
+    /**
+     * Context-sensitive objects, as pairs of indexes of
+     * {@link #contexts} and {@link #objs}.
+     */
+    final List<int[]> csObjs;
+
+    final List<PointerKey> pointers;
+
+    /**
+     * PFG edges, as pairs of indexes of {@link #pointers}.
+     */
+    final List<int[]> edges;
+
+    /**
+     * Reachable context-sensitive methods.
+     */
+    final List<MethodKey> methods;
+
+    /**
+     * Indexes of the entry methods in {@link #methods}.
+     */
+    final int[] entries;
+
+    final List<CallEdgeKey> callEdges;
+
+    private SolverState(String optionsKey,
+                        Map<String, Long> classFingerprints,
+                        Map<String, Long> methodFingerprints,
+                        List<ObjKey> objs, List<List<ElementKey>> contexts,
+                        List<int[]> csObjs, List<PointerKey> pointers,
+                        List<int[]> edges, List<MethodKey> methods,
+                        int[] entries, List<CallEdgeKey> callEdges) {
+        this.optionsKey = optionsKey;
+        this.classFingerprints = classFingerprints;
+        this.methodFingerprints = methodFingerprints;
+        this.objs = objs;
+        this.contexts = contexts;
+        this.csObjs = csObjs;
+        this.pointers = pointers;
+        this.edges = edges;
+        this.methods = methods;
+        this.entries = entries;
+        this.callEdges = callEdges;
+    }
+
+    /**
+     * Captures the state of a solver which has finished solving.
+     */
+    static SolverState capture(String optionsKey, HeapModel heapModel,
+                               CSManager csManager, CSCallGraph callGraph,
+                               PointerFlowGraph pointerFlowGraph) {
+        return new Capturer(heapModel).capture(
+                optionsKey, csManager, callGraph, pointerFlowGraph);
+    }
+
+    /**
+     * Assigns indexes to the elements of a solver.
+     */
+    private static class Capturer {
+
+        private final HeapModel heapModel;
+
+        /**
+         * Allocation sites of the objects in reachable methods.
+         */
+        private final Map<Obj, ObjKey> allocSites = Maps.newMap();
+
+        private final Map<Obj, Integer> objIds = Maps.newMap();
+
+        private final List<ObjKey> objs = new ArrayList<>();
+
+        private final Map<Context, Integer> contextIds = Maps.newMap();
+
+        private final List<List<ElementKey>> contexts = new ArrayList<>();
+
+        private final Map<CSObj, Integer> csObjIds = Maps.newMap();
+
+        private final List<int[]> csObjs = new ArrayList<>();
+
+        private final Map<CSMethod, Integer> methodIds = Maps.newMap();
+
+        private final List<MethodKey> methods = new ArrayList<>();
+
+        private Capturer(HeapModel heapModel) {
+            this.heapModel = heapModel;
+        }
+
+        private SolverState capture(String optionsKey, CSManager csManager,
+                                    CSCallGraph callGraph,
+                                    PointerFlowGraph pointerFlowGraph) {
+            Map<String, Long> methodFingerprints = Maps.newMap();
+            callGraph.reachableMethods()
+                    .map(CSMethod::getMethod)
+                    .distinct()
+                    .forEach(method -> {
+                        methodFingerprints.put(method.getSignature(),
+                                fingerprintOf(method));
+                        for (Stmt stmt : method.getIR()) {
+                            if (stmt instanceof New newStmt) {
+                                allocSites.putIfAbsent(heapModel.getObj(newStmt),
+                                        new ObjKey(method.getSignature(),
+                                                stmt.getIndex(), null));
+                            }
+                        }
+                    });
+            callGraph.reachableMethods().forEach(this::getMethodId);
+            int[] entries = callGraph.entryMethods()
+                    .mapToInt(this::getMethodId)
+                    .toArray();
+            List<CallEdgeKey> callEdges = new ArrayList<>();
+            callGraph.edges().forEach(edge -> {
+                CSCallSite callSite = edge.getCallSite();
+                callEdges.add(new CallEdgeKey(
+                        getMethodId(callSite.getContainer()),
+                        callSite.getCallSite().getIndex(),
+                        getMethodId(edge.getCallee())));
+            });
+            Map<Pointer, Integer> pointerIds = Maps.newMap();
+            List<PointerKey> pointers = new ArrayList<>();
+            List<Pointer> allPointers = new ArrayList<>();
+            allPointers.addAll(csManager.getCSVars());
+            allPointers.addAll(csManager.getInstanceFields());
+            allPointers.addAll(csManager.getArrayIndexes());
+            allPointers.addAll(csManager.getStaticFields());
+            for (Pointer pointer : allPointers) {
+                pointerIds.put(pointer, pointers.size());
+                pointers.add(getPointerKey(pointer));
+            }
+            List<int[]> edges = new ArrayList<>();
+            for (Pointer pointer : allPointers) {
+                int source = pointerIds.get(pointer);
+                for (Pointer succ : pointerFlowGraph.getSuccsOf(pointer)) {
+                    edges.add(new int[]{ source, pointerIds.get(succ) });
+                }
+            }
+            return new SolverState(optionsKey, fingerprintClasses(),
+                    methodFingerprints, objs, contexts, csObjs, pointers,
+                    edges, methods, entries, callEdges);
+        }
+
+        private PointerKey getPointerKey(Pointer pointer) {
+            int[] pts = pointer.getPointsToSet().objects()
+                    .mapToInt(this::getCSObjId)
+                    .toArray();
+            if (pointer instanceof CSVar csVar) {
+                Var var = csVar.getVar();
+                return new PointerKey(VAR, getContextId(csVar.getContext()),
+                        var.getMethod().getSignature(), var.getIndex(), pts);
+            } else if (pointer instanceof InstanceField field) {
+                return new PointerKey(INSTANCE_FIELD, getCSObjId(field.getBase()),
+                        field.getField().getSignature(), -1, pts);
+            } else if (pointer instanceof ArrayIndex arrayIndex) {
+                return new PointerKey(ARRAY_INDEX,
+                        getCSObjId(arrayIndex.getArray()), null, -1, pts);
+            } else {
+                return new PointerKey(STATIC_FIELD, -1,
+                        ((StaticField) pointer).getField().getSignature(), -1, pts);
+            }
+        }
+
+        private int getMethodId(CSMethod csMethod) {
+            return methodIds.computeIfAbsent(csMethod, m -> {
+                methods.add(new MethodKey(getContextId(m.getContext()),
+                        m.getMethod().getSignature()));
+                return methods.size() - 1;
+            });
+        }
+
+        private int getCSObjId(CSObj csObj) {
+            Integer id = csObjIds.get(csObj);
+            if (id == null) {
+                int context = getContextId(csObj.getContext());
+                int obj = getObjId(csObj.getObject());
+                id = csObjs.size();
+                csObjs.add(new int[]{ context, obj });
+                csObjIds.put(csObj, id);
+            }
+            return id;
+        }
+
+        private int getObjId(Obj obj) {
+            Integer id = objIds.get(obj);
+            if (id == null) {
+                ObjKey site = allocSites.get(obj);
+                String type = obj.getType().getName();
+                id = objs.size();
+                objs.add(site != null ?
+                        new ObjKey(site.method(), site.stmt(), type) :
+                        new ObjKey(null, -1, type));
+                objIds.put(obj, id);
+            }
+            return id;
+        }
+
+        private int getContextId(Context context) {
+            Integer id = contextIds.get(context);
+            if (id == null) {
+                List<ElementKey> elements = new ArrayList<>(context.getLength());
+                for (int i = 0; i < context.getLength(); ++i) {
+                    elements.add(getElementKey(context.getElementAt(i)));
+                }
+                id = contexts.size();
+                contexts.add(elements);
+                contextIds.put(context, id);
+            }
+            return id;
+        }
+
+        private ElementKey getElementKey(Object element) {
+            if (element instanceof Obj obj) {
+                return new ElementKey(OBJ_ELEMENT, null, getObjId(obj));
+            } else if (element instanceof Invoke invoke) {
+                return new ElementKey(CALL_SITE_ELEMENT,
+                        invoke.getContainer().getSignature(), invoke.getIndex());
+            } else if (element instanceof Type type) {
+                return new ElementKey(TYPE_ELEMENT, type.getName(), -1);
+            } else {
+                return new ElementKey(UNKNOWN_ELEMENT, String.valueOf(element), -1);
+            }
+        }
+    }
+
+    // ---------- fingerprints ----------
+
+    /**
+     * @return fingerprints of all classes in the current world.
+     */
+    static Map<String, Long> fingerprintClasses() {
+        Map<String, Long> fingerprints = Maps.newMap();
+        World.get().getClassHierarchy().allClasses().forEach(jclass ->
+                fingerprints.put(jclass.getName(), fingerprintOf(jclass)));
+        return fingerprints;
+    }
+
+    /**
+     * @return fingerprint of the declaration of a class, i.e., its
+     * modifiers, super types, and signatures of its members.
+     * It does not cover the bodies of methods.
+     */
+    static long fingerprintOf(JClass jclass) {
+        long h = hash(OFFSET_BASIS, jclass.getName());
+        h = hash(h, String.valueOf(new TreeSet<>(jclass.getModifiers()
+                .stream().map(Object::toString).toList())));
+        JClass superClass = jclass.getSuperClass();
+        h = hash(h, superClass != null ? superClass.getName() : "");
+        for (String name : sorted(jclass.getInterfaces().stream()
+                .map(JClass::getName).toList())) {
+            h = hash(h, name);
+        }
+        for (String member : sortedMembers(jclass.getDeclaredFields())) {
+            h = hash(h, member);
+        }
+        for (String member : sortedMembers(jclass.getDeclaredMethods())) {
+            h = hash(h, member);
+        }
+        return h;
+    }
+
+    /**
+     * @return fingerprint of the IR of a method.
+     */
+    static long fingerprintOf(JMethod method) {
+        long h = hash(OFFSET_BASIS, method.getSignature());
+        IR ir = method.getIR();
+        for (Var var : ir.getVars()) {
+            h = hash(h, var.getName() + ':' + var.getType().getName());
+        }
+        Var thisVar = ir.getThis();
+        h = hash(h, thisVar != null ? thisVar.getName() : "");
+        for (Var param : ir.getParams()) {
+            h = hash(h, param.getName());
+        }
+        for (Var ret : ir.getReturnVars()) {
+            h = hash(h, ret.getName());
+        }
+        for (Stmt stmt : ir) {
+            h = hash(h, stmt.toString());
+        }
+        return h;
+    }
+
+    private static List<String> sortedMembers(
+            Collection<? extends ClassMember> members) {
+        return sorted(members.stream()
+                .map(m -> m.getModifiers().stream()
+                        .map(Object::toString)
+                        .sorted()
+                        .collect(Collectors.joining(" ", "", " "))
+                        + m.getSignature())
+                .toList());
+    }
+
+    private static List<String> sorted(List<String> strings) {
+        List<String> result = new ArrayList<>(strings);
+        Collections.sort(result);
+        return result;
+    }
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long PRIME = 0x100000001b3L;
+
+    /**
+     * FNV-1a hash of the string (terminated by a separator)
+     * combined with given hash.
+     */
+    private static long hash(long h, String s) {
+        for (int i = 0; i < s.length(); ++i) {
+            h ^= s.charAt(i);
+            h *= PRIME;
+        }
+        h ^= 0xffff;
+        h *= PRIME;
+        return h;
+    }
+
+    // ---------- serialization ----------
+
+    void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Output out = new Output(new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeString(optionsKey);
+            out.writeFingerprints(classFingerprints);
+            out.writeFingerprints(methodFingerprints);
+            out.writeInt(objs.size());
+            for (ObjKey obj : objs) {
+                out.writeString(obj.method());
+                out.writeInt(obj.stmt());
+                out.writeString(obj.type());
+            }
+            out.writeInt(contexts.size());
+            for (List<ElementKey> context : contexts) {
+                out.writeInt(context.size());
+                for (ElementKey element : context) {
+                    out.writeByte(element.kind());
+                    out.writeString(element.name());
+                    out.writeInt(element.index());
+                }
+            }
+            out.writeInt(csObjs.size());
+            for (int[] csObj : csObjs) {
+                out.writeInt(csObj[0]);
+                out.writeInt(csObj[1]);
+            }
+            out.writeInt(pointers.size());
+            for (PointerKey pointer : pointers) {
+                out.writeByte(pointer.kind());
+                out.writeInt(pointer.base());
+                out.writeString(pointer.name());
+                out.writeInt(pointer.index());
+                out.writeInt(pointer.pts().length);
+                for (int obj : pointer.pts()) {
+                    out.writeInt(obj);
+                }
+            }
+            out.writeInt(edges.size());
+            for (int[] edge : edges) {
+                out.writeInt(edge[0]);
+                out.writeInt(edge[1]);
+            }
+            out.writeInt(methods.size());
+            for (MethodKey method : methods) {
+                out.writeInt(method.context());
+                out.writeString(method.method());
+            }
+            out.writeInt(entries.length);
+            for (int entry : entries) {
+                out.writeInt(entry);
+            }
+            out.writeInt(callEdges.size());
+            for (CallEdgeKey edge : callEdges) {
+                out.writeInt(edge.caller());
+                out.writeInt(edge.callSite());
+                out.writeInt(edge.callee());
+            }
+        }
+    }
+
+    /**
+     * Reads the state written by {@link #write(Path)}.
+     *
+     * @throws IOException if the file cannot be read, or it is
+     *                     not written by the same version of this class.
+     */
+    static SolverState read(Path path) throws IOException {
+        try (Input in = new Input(new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported solver state file: " + path);
+            }
+            String optionsKey = in.readString();
+            Map<String, Long> classFingerprints = in.readFingerprints();
+            Map<String, Long> methodFingerprints = in.readFingerprints();
+            int nObjs = in.readInt();
+            List<ObjKey> objs = new ArrayList<>(nObjs);
+            for (int i = 0; i < nObjs; ++i) {
+                objs.add(new ObjKey(in.readString(), in.readInt(), in.readString()));
+            }
+            int nContexts = in.readInt();
+            List<List<ElementKey>> contexts = new ArrayList<>(nContexts);
+            for (int i = 0; i < nContexts; ++i) {
+                int length = in.readInt();
+                List<ElementKey> elements = new ArrayList<>(length);
+                for (int j = 0; j < length; ++j) {
+                    elements.add(new ElementKey(
+                            in.readByte(), in.readString(), in.readInt()));
+                }
+                contexts.add(elements);
+            }
+            int nCSObjs = in.readInt();
+            List<int[]> csObjs = new ArrayList<>(nCSObjs);
+            for (int i = 0; i < nCSObjs; ++i) {
+                csObjs.add(new int[]{ in.readInt(), in.readInt() });
+            }
+            int nPointers = in.readInt();
+            List<PointerKey> pointers = new ArrayList<>(nPointers);
+            for (int i = 0; i < nPointers; ++i) {
+                byte kind = in.readByte();
+                int base = in.readInt();
+                String name = in.readString();
+                int index = in.readInt();
+                int[] pts = new int[in.readInt()];
+                for (int j = 0; j < pts.length; ++j) {
+                    pts[j] = in.readInt();
+                }
+                pointers.add(new PointerKey(kind, base, name, index, pts));
+            }
+            int nEdges = in.readInt();
+            List<int[]> edges = new ArrayList<>(nEdges);
+            for (int i = 0; i < nEdges; ++i) {
+                edges.add(new int[]{ in.readInt(), in.readInt() });
+            }
+            int nMethods = in.readInt();
+            List<MethodKey> methods = new ArrayList<>(nMethods);
+            for (int i = 0; i < nMethods; ++i) {
+                methods.add(new MethodKey(in.readInt(), in.readString()));
+            }
+            int[] entries = new int[in.readInt()];
+            for (int i = 0; i < entries.length; ++i) {
+                entries[i] = in.readInt();
+            }
+            int nCallEdges = in.readInt();
+            List<CallEdgeKey> callEdges = new ArrayList<>(nCallEdges);
+            for (int i = 0; i < nCallEdges; ++i) {
+                callEdges.add(new CallEdgeKey(in.readInt(), in.readInt(), in.readInt()));
+            }
+            return new SolverState(optionsKey, classFingerprints,
+                    methodFingerprints, objs, contexts, csObjs, pointers,
+                    edges, methods, entries, callEdges);
+        }
+    }
+
+    /**
+     * Output stream which writes each distinct string once,
+     * and refers to it by its index afterwards.
+     */
+    private static class Output implements AutoCloseable {
+
+        private final DataOutputStream out;
+
+        private final Map<String, Integer> strings = Maps.newMap();
+
+        private Output(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void writeInt(int i) throws IOException {
+            out.writeInt(i);
+        }
+
+        private void writeByte(byte b) throws IOException {
+            out.writeByte(b);
+        }
+
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+                return;
+            }
+            Integer id = strings.get(s);
+            if (id != null) {
+                out.writeInt(id);
+            } else {
+                out.writeInt(-2);
+                out.writeUTF(s);
+                strings.put(s, strings.size());
+            }
+        }
+
+        private void writeFingerprints(Map<String, Long> fingerprints)
+                throws IOException {
+            out.writeInt(fingerprints.size());
+            for (Map.Entry<String, Long> e : fingerprints.entrySet()) {
+                writeString(e.getKey());
+                out.writeLong(e.getValue());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static class Input implements AutoCloseable {
+
+        private final DataInputStream in;
+
+        private final List<String> strings = new ArrayList<>();
+
+        private Input(DataInputStream in) {
+            this.in = in;
+        }
+
+        private int readInt() throws IOException {
+            return in.readInt();
+        }
+
+        private byte readByte() throws IOException {
+            return in.readByte();
+        }
+
+        private String readString() throws IOException {
+            int id = in.readInt();
+            if (id == -1) {
+                return null;
+            } else if (id == -2) {
+                String s = in.readUTF();
+                strings.add(s);
+                return s;
+            } else {
+                return strings.get(id);
+            }
+        }
+
+        private Map<String, Long> readFingerprints() throws IOException {
+            int size = in.readInt();
+            Map<String, Long> fingerprints = Maps.newMap(size);
+            for (int i = 0; i < size; ++i) {
+                fingerprints.put(readString(), in.readLong());
+            }
+            return fingerprints;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
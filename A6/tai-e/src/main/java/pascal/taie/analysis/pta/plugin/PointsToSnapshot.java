@@ -0,0 +1,695 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.collection.Maps;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary snapshot of points-to sets, which is much smaller than
+ * the text dumped by {@link ResultProcessor} and can be queried without
+ * re-running the analysis or parsing the whole file.
+ * <p>
+ * The names of all pointers and objects are kept in a string table which
+ * is sorted, so that the ID of a string (i.e., its index in the table)
+ * follows the order of the strings. The snapshot consists of sections,
+ * one for each kind of pointers, and the pointers in each section are
+ * sorted by their names. The points-to set of each pointer is stored
+ * as the sorted IDs of the objects, encoded as deltas in variable-length
+ * integers, and the points-to sets are grouped into blocks which are
+ * optionally compressed.
+ * <p>
+ * The snapshot is read via memory-mapped I/O, and the blocks are decoded
+ * on demand. The reader is not thread-safe.
+ * <pre>
+ * file      := header strings section* directory
+ * header    := MAGIC VERSION flags:int #sections:int directory-offset:long
+ * strings   := utf8-bytes* string-offsets:long[#strings + 1]
+ * section   := block* pointer-ids:int[#pointers] block-table
+ * block     := (#objects:varint object-id-delta:varint*)*
+ * directory := #strings:int string-offsets-offset:long
+ *              (name #pointers:int ids-offset:long
+ *               #blocks:int block-table-offset:long)*
+ * </pre>
+ */
+public class PointsToSnapshot implements AutoCloseable {
+
+    private static final int MAGIC = 0x50545353;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Flag indicating that the blocks are compressed by {@link Deflater}.
+     */
+    private static final int COMPRESSED = 1;
+
+    /**
+     * Number of points-to sets in each block.
+     */
+    private static final int BLOCK_SIZE = 256;
+
+    private static final int HEADER_SIZE = 24;
+
+    /**
+     * Size of each block table entry, i.e., offset, stored length
+     * and raw length of the block.
+     */
+    private static final int BLOCK_ENTRY_SIZE = 16;
+
+    static final String VARIABLES = "variables";
+
+    static final String STATIC_FIELDS = "static fields";
+
+    static final String INSTANCE_FIELDS = "instance fields";
+
+    static final String ARRAY_INDEXES = "array indexes";
+
+    // ---------- writer ----------
+
+    /**
+     * Writes the points-to sets in given result to a snapshot file.
+     *
+     * @param compress whether the blocks of points-to sets are compressed.
+     */
+    public static void write(PointerAnalysisResult result, Path path,
+                             boolean compress) throws IOException {
+        Map<String, Collection<? extends Pointer>> sections = new LinkedHashMap<>();
+        sections.put(VARIABLES, result.getCSVars());
+        sections.put(STATIC_FIELDS, result.getStaticFields());
+        sections.put(INSTANCE_FIELDS, result.getInstanceFields());
+        sections.put(ARRAY_INDEXES, result.getArrayIndexes());
+        write(sections, path, compress);
+    }
+
+    static void write(Map<String, Collection<? extends Pointer>> sections,
+                      Path path, boolean compress) throws IOException {
+        // build string table
+        Map<String, Integer> ids = Maps.newMap();
+        sections.values().forEach(pointers -> pointers.forEach(p -> {
+            ids.put(p.toString(), 0);
+            p.getPointsToSet().objects().forEach(o -> ids.put(o.toString(), 0));
+        }));
+        String[] strings = ids.keySet().toArray(new String[0]);
+        Arrays.sort(strings);
+        for (int i = 0; i < strings.length; ++i) {
+            ids.put(strings[i], i);
+        }
+        try (Output out = new Output(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))) {
+            out.position(HEADER_SIZE);
+            long[] stringOffsets = new long[strings.length + 1];
+            for (int i = 0; i < strings.length; ++i) {
+                stringOffsets[i] = out.position();
+                out.write(strings[i].getBytes(StandardCharsets.UTF_8));
+            }
+            stringOffsets[strings.length] = out.position();
+            long stringOffsetsOffset = out.position();
+            for (long offset : stringOffsets) {
+                out.writeLong(offset);
+            }
+            List<long[]> sectionInfos = new ArrayList<>();
+            for (Collection<? extends Pointer> pointers : sections.values()) {
+                sectionInfos.add(writeSection(out, pointers, ids, compress));
+            }
+            long directoryOffset = out.position();
+            out.writeInt(strings.length);
+            out.writeLong(stringOffsetsOffset);
+            int i = 0;
+            for (String name : sections.keySet()) {
+                long[] info = sectionInfos.get(i++);
+                out.writeString(name);
+                out.writeInt((int) info[0]);
+                out.writeLong(info[1]);
+                out.writeInt((int) info[2]);
+                out.writeLong(info[3]);
+            }
+            out.flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(compress ? COMPRESSED : 0)
+                    .putInt(sections.size())
+                    .putLong(directoryOffset)
+                    .flip();
+            out.channel.write(header, 0);
+        }
+    }
+
+    /**
+     * Writes the points-to sets of the pointers in a section.
+     *
+     * @return number of pointers, offset of pointer IDs,
+     * number of blocks and offset of block table of the section.
+     */
+    private static long[] writeSection(Output out,
+                                       Collection<? extends Pointer> pointers,
+                                       Map<String, Integer> ids,
+                                       boolean compress) throws IOException {
+        List<Pointer> sorted = new ArrayList<>(pointers);
+        int[] pointerIds = new int[sorted.size()];
+        sorted.sort(Comparator.comparing(p -> ids.get(p.toString())));
+        List<long[]> blocks = new ArrayList<>();
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        for (int i = 0; i < sorted.size(); ++i) {
+            Pointer pointer = sorted.get(i);
+            pointerIds[i] = ids.get(pointer.toString());
+            int[] objs = pointer.getPointsToSet().objects()
+                    .mapToInt(o -> ids.get(o.toString()))
+                    .sorted()
+                    .toArray();
+            writeVarInt(raw, objs.length);
+            int prev = 0;
+            for (int obj : objs) {
+                writeVarInt(raw, obj - prev);
+                prev = obj;
+            }
+            if ((i + 1) % BLOCK_SIZE == 0 || i == sorted.size() - 1) {
+                blocks.add(writeBlock(out, raw.toByteArray(), deflater));
+                raw.reset();
+            }
+        }
+        if (deflater != null) {
+            deflater.end();
+        }
+        long idsOffset = out.position();
+        for (int id : pointerIds) {
+            out.writeInt(id);
+        }
+        long blockTableOffset = out.position();
+        for (long[] block : blocks) {
+            out.writeLong(block[0]);
+            out.writeInt((int) block[1]);
+            out.writeInt((int) block[2]);
+        }
+        return new long[]{ pointerIds.length, idsOffset,
+                blocks.size(), blockTableOffset };
+    }
+
+    /**
+     * @return offset, stored length and raw length of the block.
+     */
+    private static long[] writeBlock(Output out, byte[] raw, Deflater deflater)
+            throws IOException {
+        long offset = out.position();
+        byte[] stored = raw;
+        if (deflater != null) {
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            stored = compressed.toByteArray();
+        }
+        out.write(stored);
+        return new long[]{ offset, stored.length, raw.length };
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Buffered output to a file channel, which keeps track of
+     * the position of written data.
+     */
+    private static class Output implements AutoCloseable {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+        private long position;
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private long position() {
+            return position;
+        }
+
+        private void position(long position) throws IOException {
+            flush();
+            channel.position(position);
+            this.position = position;
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > buffer.remaining()) {
+                ByteBuffer data = ByteBuffer.wrap(bytes);
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            } else {
+                buffer.put(bytes);
+            }
+            position += bytes.length;
+        }
+
+        private void writeInt(int i) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(i);
+            position += Integer.BYTES;
+        }
+
+        private void writeLong(long l) throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(l);
+            position += Long.BYTES;
+        }
+
+        private void writeString(String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            write(bytes);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+
+    // ---------- reader ----------
+
+    private final MappedFile file;
+
+    private final boolean compressed;
+
+    private final int nStrings;
+
+    private final long stringOffsetsOffset;
+
+    private final Map<String, Section> sections = new LinkedHashMap<>();
+
+    private PointsToSnapshot(MappedFile file) throws IOException {
+        this.file = file;
+        if (file.size < HEADER_SIZE || file.getInt(0) != MAGIC
+                || file.getInt(4) != VERSION) {
+            throw new IOException("Not a points-to snapshot of version " + VERSION);
+        }
+        compressed = (file.getInt(8) & COMPRESSED) != 0;
+        int nSections = file.getInt(12);
+        long pos = file.getLong(16);
+        // the directory of a truncated or corrupted file may point
+        // out of the file, which is reported as an I/O error
+        try {
+            nStrings = file.getInt(pos);
+            stringOffsetsOffset = file.getLong(pos + 4);
+            pos += 12;
+            for (int i = 0; i < nSections; ++i) {
+                int length = file.getInt(pos);
+                String name = new String(file.getBytes(pos + 4, length),
+                        StandardCharsets.UTF_8);
+                pos += 4 + length;
+                sections.put(name, new Section(file.getInt(pos), file.getLong(pos + 4),
+                        file.getInt(pos + 12), file.getLong(pos + 16)));
+                pos += 24;
+            }
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("Corrupted points-to snapshot", e);
+        }
+    }
+
+    /**
+     * Opens a snapshot file written by {@link #write}.
+     *
+     * @throws IOException if the file cannot be read or is not a snapshot.
+     */
+    public static PointsToSnapshot open(Path path) throws IOException {
+        MappedFile file = new MappedFile(path);
+        try {
+            return new PointsToSnapshot(file);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if given file is a points-to snapshot.
+     */
+    public static boolean isSnapshot(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            return channel.read(magic, 0) == Integer.BYTES
+                    && magic.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return names of the sections in this snapshot, in the order
+     * they are written.
+     */
+    public Collection<String> getSectionNames() {
+        return Collections.unmodifiableSet(sections.keySet());
+    }
+
+    /**
+     * @return the section of given name, or null if it is absent.
+     */
+    public Section getSection(String name) {
+        return sections.get(name);
+    }
+
+    /**
+     * @return the string of given ID.
+     */
+    public String getString(int id) {
+        long start = file.getLong(stringOffsetsOffset + (long) id * Long.BYTES);
+        long end = file.getLong(stringOffsetsOffset + (long) (id + 1) * Long.BYTES);
+        return new String(file.getBytes(start, (int) (end - start)),
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the ID of given string, or -1 if the string is absent.
+     */
+    public int getId(String s) {
+        int low = 0, high = nStrings - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = getString(mid).compareTo(s);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() {
+        file.close();
+    }
+
+    /**
+     * Points-to sets of a kind of pointers.
+     */
+    public class Section {
+
+        private final int size;
+
+        private final long idsOffset;
+
+        private final int nBlocks;
+
+        private final long blockTableOffset;
+
+        /**
+         * Index of the block that was decoded last time, and the offsets
+         * of the points-to sets in the decoded block.
+         */
+        private int cachedBlock = -1;
+
+        private ByteBuffer cachedData;
+
+        private int[] cachedOffsets;
+
+        private Section(int size, long idsOffset, int nBlocks, long blockTableOffset) {
+            this.size = size;
+            this.idsOffset = idsOffset;
+            this.nBlocks = nBlocks;
+            this.blockTableOffset = blockTableOffset;
+        }
+
+        /**
+         * @return number of pointers in this section.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return the ID of the name of i-th pointer. The pointers
+         * are sorted by their names.
+         */
+        public int getPointerId(int i) {
+            return file.getInt(idsOffset + (long) i * Integer.BYTES);
+        }
+
+        public String getPointer(int i) {
+            return getString(getPointerId(i));
+        }
+
+        /**
+         * @return index of the pointer of given name in this section,
+         * or -1 if the pointer is absent.
+         */
+        public int indexOf(String pointer) {
+            int id = getId(pointer);
+            if (id == -1) {
+                return -1;
+            }
+            int low = 0, high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int midId = getPointerId(mid);
+                if (midId < id) {
+                    low = mid + 1;
+                } else if (midId > id) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return sorted IDs of the objects pointed to by i-th pointer.
+         */
+        public int[] getObjectIds(int i) {
+            int block = i / BLOCK_SIZE;
+            if (block != cachedBlock) {
+                decodeBlock(block);
+            }
+            ByteBuffer data = cachedData;
+            data.position(cachedOffsets[i % BLOCK_SIZE]);
+            int[] objs = new int[readVarInt(data)];
+            int prev = 0;
+            for (int j = 0; j < objs.length; ++j) {
+                prev += readVarInt(data);
+                objs[j] = prev;
+            }
+            return objs;
+        }
+
+        /**
+         * @return names of the objects pointed to by i-th pointer,
+         * in the order of the names.
+         */
+        public List<String> getPointsToSet(int i) {
+            int[] ids = getObjectIds(i);
+            List<String> objs = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                objs.add(getString(id));
+            }
+            return objs;
+        }
+
+        /**
+         * @return names of the objects pointed to by given pointer,
+         * or null if the pointer is absent.
+         */
+        public List<String> getPointsToSet(String pointer) {
+            int i = indexOf(pointer);
+            return i != -1 ? getPointsToSet(i) : null;
+        }
+
+        private void decodeBlock(int block) {
+            if (block < 0 || block >= nBlocks) {
+                throw new IndexOutOfBoundsException(block);
+            }
+            long entry = blockTableOffset + (long) block * BLOCK_ENTRY_SIZE;
+            long offset = file.getLong(entry);
+            int storedLength = file.getInt(entry + 8);
+            int rawLength = file.getInt(entry + 12);
+            ByteBuffer data = file.slice(offset, storedLength);
+            if (compressed) {
+                byte[] raw = new byte[rawLength];
+                Inflater inflater = new Inflater();
+                try {
+                    inflater.setInput(data);
+                    int n = 0;
+                    while (n < rawLength && !inflater.finished()) {
+                        n += inflater.inflate(raw, n, rawLength - n);
+                    }
+                } catch (DataFormatException e) {
+                    throw new IllegalStateException("Corrupted points-to snapshot", e);
+                } finally {
+                    inflater.end();
+                }
+                data = ByteBuffer.wrap(raw);
+            }
+            int n = Math.min(BLOCK_SIZE, size - block * BLOCK_SIZE);
+            int[] offsets = new int[n];
+            for (int j = 0; j < n; ++j) {
+                offsets[j] = data.position();
+                int count = readVarInt(data);
+                for (int k = 0; k < count; ++k) {
+                    readVarInt(data);
+                }
+            }
+            cachedBlock = block;
+            cachedData = data;
+            cachedOffsets = offsets;
+        }
+    }
+
+    private static int readVarInt(ByteBuffer data) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * File mapped into memory by overlapping windows, so that files larger
+     * than 2GB can be mapped, and each read of at most {@link #WINDOW}
+     * bytes falls in a single window.
+     */
+    private static class MappedFile {
+
+        private static final int WINDOW = 1 << 29;
+
+        private final FileChannel channel;
+
+        private final long size;
+
+        private final MappedByteBuffer[] windows;
+
+        private MappedFile(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                size = channel.size();
+                windows = new MappedByteBuffer[(int) (size / WINDOW) + 1];
+                for (int i = 0; i < windows.length; ++i) {
+                    long start = (long) i * WINDOW;
+                    windows[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                            start, Math.min(2L * WINDOW, size - start));
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private ByteBuffer window(long pos) {
+            if (pos < 0 || pos >= size) {
+                throw new IndexOutOfBoundsException("Position " + pos
+                        + " out of points-to snapshot of size " + size);
+            }
+            return windows[(int) (pos / WINDOW)];
+        }
+
+        private int getInt(long pos) {
+            return window(pos).getInt((int) (pos % WINDOW));
+        }
+
+        private long getLong(long pos) {
+            return window(pos).getLong((int) (pos % WINDOW));
+        }
+
+        private byte[] getBytes(long pos, int length) {
+            if (length > size) {
+                throw new IndexOutOfBoundsException("Length " + length
+                        + " out of points-to snapshot of size " + size);
+            }
+            byte[] bytes = new byte[length];
+            if (length > 0) {
+                window(pos).get((int) (pos % WINDOW), bytes);
+            }
+            return bytes;
+        }
+
+        private ByteBuffer slice(long pos, int length) {
+            if (length == 0) {
+                return ByteBuffer.allocate(0);
+            }
+            return window(pos).slice((int) (pos % WINDOW), length);
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
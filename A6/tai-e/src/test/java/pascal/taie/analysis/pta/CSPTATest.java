@@ -22,8 +22,20 @@
 
 package pascal.taie.analysis.pta;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.plugin.ResultProcessor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class CSPTATest {
 
@@ -93,4 +105,76 @@ public class CSPTATest {
     public void testArray() {
         Tests.testCSPTA(DIR, "Array");
     }
+
+    @Test
+    public void testTwoObjectBitVector() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;pts-impl:bit");
+    }
+
+    @Test
+    public void testCycle() {
+        Tests.testCSPTA(DIR, "Cycle");
+    }
+
+    @Test
+    public void testCycleElimination() {
+        Tests.testCSPTA(DIR, "Cycle", "cycle-elim:true");
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        int collapsed = result.getResult(ResultProcessor.COLLAPSED_PFG_NODES);
+        Assert.assertTrue(collapsed > 0);
+    }
+
+    @Test
+    public void testTwoObjectCycleElimination() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;cycle-elim:true");
+    }
+
+    @Test
+    public void testTwoObjectParallel() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;threads:4");
+    }
+
+    @Test
+    public void testTwoObjectArrayCSManager() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;cs-manager:array");
+    }
+
+    @Test
+    public void testTwoObjectIncremental() throws IOException {
+        String state = "output/cspta-TwoObject.state";
+        Files.deleteIfExists(Path.of(state));
+        // the first run solves from scratch and saves the state,
+        // and the second run reuses the state
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;incremental:" + state);
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;incremental:" + state);
+    }
+
+    @Test
+    public void testIncrementalChangedProgram() throws IOException {
+        String state = "output/cspta-Incremental.state";
+        String expected = "output/cspta-Incremental-expected.txt";
+        Files.deleteIfExists(Path.of(state));
+        // solve the changed program (v2) from scratch as the expected result
+        runIncremental("v2", "action:dump", "file:" + expected);
+        // solve the original program (v1) and save the state, then
+        // solve the changed program by reusing the state, whose result
+        // must be the same as solving it from scratch
+        runIncremental("v1", "incremental:" + state);
+        runIncremental("v2", "incremental:" + state,
+                "action:compare", "file:" + expected);
+    }
+
+    /**
+     * Runs 2-object sensitive pointer analysis on given version
+     * of the program in directory "incremental".
+     */
+    private static void runIncremental(String version, String... opts) {
+        List<String> ptaArgs = new ArrayList<>(List.of(
+                "implicit-entries:false", "only-app:true", "cs:2-obj"));
+        Collections.addAll(ptaArgs, opts);
+        Main.main(new String[]{"-pp",
+                "-cp", "src/test/resources/pta/incremental/" + version,
+                "-m", "Incremental",
+                "-a", "cspta=" + String.join(";", ptaArgs)});
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.cs.CSPTA;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class PointsToSnapshotTest {
+
+    /**
+     * Runs pointer analysis, writes its result to a snapshot, and checks
+     * that the points-to sets read from the snapshot are the same as
+     * the ones in memory.
+     */
+    void testRoundTrip(boolean compress) throws IOException {
+        Main.main(new String[]{"-pp",
+                "-cp", "src/test/resources/pta/cspta",
+                "-m", "TwoObject",
+                "-a", CSPTA.ID + "=cs:2-obj;implicit-entries:false;only-app:true"});
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        Map<String, Collection<? extends Pointer>> sections = new LinkedHashMap<>();
+        sections.put(PointsToSnapshot.VARIABLES, result.getCSVars());
+        sections.put(PointsToSnapshot.STATIC_FIELDS, result.getStaticFields());
+        sections.put(PointsToSnapshot.INSTANCE_FIELDS, result.getInstanceFields());
+        sections.put(PointsToSnapshot.ARRAY_INDEXES, result.getArrayIndexes());
+        Path path = Files.createTempFile("TwoObject", ".snapshot");
+        try {
+            PointsToSnapshot.write(result, path, compress);
+            Assert.assertTrue(PointsToSnapshot.isSnapshot(path));
+            try (PointsToSnapshot snapshot = PointsToSnapshot.open(path)) {
+                Assert.assertEquals(List.copyOf(sections.keySet()),
+                        List.copyOf(snapshot.getSectionNames()));
+                sections.forEach((name, pointers) -> {
+                    PointsToSnapshot.Section section = snapshot.getSection(name);
+                    Assert.assertEquals(name, pointers.size(), section.size());
+                    for (Pointer pointer : pointers) {
+                        List<String> expected = pointer.getPointsToSet()
+                                .objects()
+                                .map(Object::toString)
+                                .sorted()
+                                .collect(Collectors.toList());
+                        Assert.assertEquals(pointer.toString(), expected,
+                                section.getPointsToSet(pointer.toString()));
+                    }
+                });
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        testRoundTrip(false);
+    }
+
+    @Test
+    public void testRoundTripCompressed() throws IOException {
+        testRoundTrip(true);
+    }
+
+    /**
+     * Writes a valid snapshot, keeps its first {@code length} bytes
+     * (or all bytes if length is -1), overwrites the bytes from
+     * {@code offset} by {@code patch}, and checks that the result
+     * cannot be opened as a snapshot.
+     */
+    void testCorrupted(int length, int offset, byte... patch) throws IOException {
+        Path path = Files.createTempFile("Corrupted", ".snapshot");
+        try {
+            PointsToSnapshot.write(
+                    Map.of(PointsToSnapshot.VARIABLES, List.of()), path, false);
+            byte[] bytes = Files.readAllBytes(path);
+            if (length != -1) {
+                bytes = Arrays.copyOf(bytes, length);
+            }
+            System.arraycopy(patch, 0, bytes, offset, patch.length);
+            Files.write(path, bytes);
+            try (PointsToSnapshot ignored = PointsToSnapshot.open(path)) {
+                Assert.fail("Corrupted snapshot should not be opened");
+            } catch (IOException expected) {
+                // expected
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testTruncatedHeader() throws IOException {
+        // shorter than the header
+        testCorrupted(10, 0);
+    }
+
+    @Test
+    public void testTruncatedDirectory() throws IOException {
+        // the directory offset in the header points out of the file
+        testCorrupted(40, 0);
+    }
+
+    @Test
+    public void testCorruptedMagic() throws IOException {
+        testCorrupted(-1, 0, (byte) 0, (byte) 0, (byte) 0, (byte) 0);
+    }
+
+    @Test
+    public void testCorruptedDirectoryOffset() throws IOException {
+        // directory offset (at byte 16 of the header) is negative
+        testCorrupted(-1, 16, (byte) 0xff);
+    }
+}
@@ -0,0 +1,18 @@
+public class Cycle {
+
+    public static void main(String[] args) {
+        A a = new A();
+        A b = a;
+        a = b;
+        B x = new B();
+        x.f = x;
+        x = x.f;
+    }
+}
+
+class A {
+}
+
+class B {
+    B f;
+}
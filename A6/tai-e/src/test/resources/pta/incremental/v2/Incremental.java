@@ -0,0 +1,34 @@
+public class Incremental {
+
+    public static void main(String[] args) {
+        Box box = new Box();
+        Item item = new Item();
+        box.put(item);
+        Item got = box.get();
+        Helper.touch(got);
+    }
+}
+
+class Box {
+
+    Item item;
+
+    void put(Item item) {
+        this.item = new Item();
+    }
+
+    Item get() {
+        return item;
+    }
+}
+
+class Item {
+}
+
+class Helper {
+
+    static void touch(Item item) {
+        Box box = new Box();
+        box.put(item);
+    }
+}
@@ -34,15 +34,19 @@ import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
 
 import java.io.BufferedReader;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -50,6 +54,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -70,12 +79,45 @@ public class ResultProcessor extends ProgramAnalysis {
 
     private final String action;
 
+    /**
+     * Number of methods whose results are formatted as a batch. The results
+     * in a batch are formatted in parallel, and then written to the output
+     * in order before the next batch is formatted.
+     */
+    private static final int DUMP_BATCH_SIZE = 256;
+
+    /**
+     * Output file channel, or null if the results are dumped to
+     * {@link #out}.
+     */
+    private FileChannel channel;
+
     private PrintStream out;
 
-    private MultiMap<Pair<String, String>, String> inputs;
+    /**
+     * Executor for formatting the results in parallel,
+     * or null if the results are formatted sequentially.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Maximum number of mismatches kept in the result. Compared results of
+     * large programs may contain too many mismatches to be kept in memory,
+     * and the others are only counted.
+     */
+    private static final int MAX_MISMATCHES = 1000;
+
+    private InputReader inputs;
 
     private Set<String> mismatches;
 
+    /**
+     * Number of mismatches which are not kept in {@link #mismatches}.
+     */
+    private int omittedMismatches;
+
+    private boolean logMismatches;
+
     public ResultProcessor(AnalysisConfig config) {
         super(config);
         action = getOptions().getString("action");
@@ -89,6 +131,8 @@ public class ResultProcessor extends ProgramAnalysis {
             case "compare" -> readInputs();
         }
         mismatches = new LinkedHashSet<>();
+        omittedMismatches = 0;
+        logMismatches = getOptions().getBoolean("log-mismatches");
         // Classify given analysis IDs into two groups, one for inter-procedural
         // and the another one for intra-procedural analysis.
         // If an ID has result in World, then it is classified as
@@ -97,49 +141,187 @@ public class ResultProcessor extends ProgramAnalysis {
         Map<Boolean, List<String>> groups = ((List<String>) getOptions().get("analyses"))
                 .stream()
                 .collect(Collectors.groupingBy(id -> World.get().getResult(id) != null));
-        if (groups.containsKey(true)) {
-            processInterResults(groups.get(true));
-        }
-        if (groups.containsKey(false)) {
-            processIntraResults(groups.get(false));
+        try {
+            if (groups.containsKey(true)) {
+                processInterResults(groups.get(true));
+            }
+            if (groups.containsKey(false)) {
+                processIntraResults(groups.get(false));
+            }
+        } finally {
+            if (inputs != null) {
+                inputs.close();
+                inputs = null;
+            }
+            closeOutput();
         }
-        if (getOptions().getBoolean("log-mismatches")) {
-            mismatches.forEach(logger::info);
+        if (omittedMismatches > 0) {
+            logger.warn("{} more mismatches are omitted", omittedMismatches);
         }
         return mismatches;
     }
 
+    /**
+     * Records a mismatch, and logs it immediately if option
+     * "log-mismatches" is enabled.
+     */
+    private void addMismatch(String mismatch) {
+        if (mismatches.size() < MAX_MISMATCHES) {
+            if (mismatches.add(mismatch) && logMismatches) {
+                logger.info(mismatch);
+            }
+        } else if (!mismatches.contains(mismatch)) {
+            ++omittedMismatches;
+        }
+    }
+
     private void setOutput() {
         String output = getOptions().getString("file");
         if (output != null) {
             try {
-                out = new PrintStream(output);
-            } catch (FileNotFoundException e) {
+                channel = FileChannel.open(Path.of(output),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE);
+            } catch (IOException e) {
                 throw new RuntimeException("Failed to open output file", e);
             }
         } else {
             out = System.out;
         }
+        // results are formatted in parallel only if option "threads" > 1
+        int threads = getOptions().get("threads") != null ?
+                Math.max(1, getOptions().getInt("threads")) : 1;
+        if (threads > 1) {
+            executor = Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    private void closeOutput() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to close output file", e);
+            }
+            channel = null;
+        } else if (out != null) {
+            out.flush();
+        }
+        out = null;
     }
 
     private void readInputs() {
         String input = getOptions().getString("file");
-        Path path = Path.of(input);
-        try {
-            inputs = Maps.newMultiMap();
-            BufferedReader reader = Files.newBufferedReader(path);
-            String line;
-            Pair<String, String> currentKey = null;
-            while ((line = reader.readLine()) != null) {
-                Pair<String, String> key = extractKey(line);
-                if (key != null) {
-                    currentKey = key;
-                } else if (!line.isBlank()) {
-                    inputs.put(currentKey, line);
+        inputs = new InputReader(Path.of(input));
+    }
+
+    /**
+     * Reads the expected results from input file on demand. The input file
+     * consists of sections, each of which contains the result of an analysis
+     * for a method. As the sections are dumped in the same order as the
+     * results are compared, the file is read in a single pass, and only the
+     * section being compared is kept in memory. If a section is requested
+     * out of order, the file is re-scanned from the beginning.
+     */
+    private static class InputReader {
+
+        private final Path path;
+
+        private BufferedReader reader;
+
+        /**
+         * Key of the section whose header has been read but whose
+         * lines have not, or null if there is no such section.
+         */
+        private Pair<String, String> nextKey;
+
+        /**
+         * Keys of the sections which have been seen in the file.
+         */
+        private final Set<Pair<String, String>> keys = Sets.newSet();
+
+        /**
+         * Whether the whole file has been scanned, i.e., all keys are seen.
+         */
+        private boolean scanned;
+
+        private InputReader(Path path) {
+            this.path = path;
+            open();
+        }
+
+        /**
+         * @return the lines of the section of given key, or an empty set
+         * if the section is absent.
+         */
+        private Set<String> get(Pair<String, String> key) {
+            Set<String> lines = scan(key);
+            if (lines == null && !(scanned && !keys.contains(key))) {
+                close();
+                open();
+                lines = scan(key);
+            }
+            return lines != null ? lines : Set.of();
+        }
+
+        /**
+         * Reads sections until the one of given key is found.
+         *
+         * @return the lines of the section, or null if the end of file
+         * is reached before the section is found.
+         */
+        private Set<String> scan(Pair<String, String> key) {
+            try {
+                String line;
+                while (nextKey == null && (line = reader.readLine()) != null) {
+                    nextKey = extractKey(line);
                 }
+                while (nextKey != null) {
+                    Pair<String, String> currentKey = nextKey;
+                    keys.add(currentKey);
+                    nextKey = null;
+                    boolean found = currentKey.equals(key);
+                    Set<String> lines = found ? new LinkedHashSet<>() : null;
+                    while ((line = reader.readLine()) != null) {
+                        Pair<String, String> k = extractKey(line);
+                        if (k != null) {
+                            nextKey = k;
+                            break;
+                        } else if (found && !line.isBlank()) {
+                            lines.add(line);
+                        }
+                    }
+                    if (found) {
+                        return lines;
+                    }
+                }
+                scanned = true;
+                return null;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read input file", e);
+            }
+        }
+
+        private void open() {
+            try {
+                reader = Files.newBufferedReader(path);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read input file", e);
+            }
+            nextKey = null;
+        }
+
+        private void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to close input file", e);
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read input file", e);
         }
     }
 
@@ -158,15 +340,6 @@ public class ResultProcessor extends ProgramAnalysis {
     }
 
     private void processInterResults(List<String> analyses) {
-        Comparator<JMethod> comp = (m1, m2) -> {
-            if (m1.getDeclaringClass().equals(m2.getDeclaringClass())) {
-                return m1.getIR().getStmt(0).getLineNumber() -
-                        m2.getIR().getStmt(0).getLineNumber();
-            } else {
-                return m1.getDeclaringClass().toString()
-                        .compareTo(m2.getDeclaringClass().toString());
-            }
-        };
         CallGraph<?, JMethod> cg = World.get().getResult(CallGraphBuilder.ID);
         Stream<JMethod> methods;
         if (cg.getNumberOfMethods() == 0) {
@@ -178,14 +351,13 @@ public class ResultProcessor extends ProgramAnalysis {
                     .applicationClasses()
                     .map(JClass::getDeclaredMethods)
                     .flatMap(Collection::stream)
-                    .filter(m -> !m.isAbstract() && !m.isNative())
-                    .sorted(comp);
+                    .filter(m -> !m.isAbstract() && !m.isNative());
         } else {
             methods = cg.reachableMethods()
-                    .filter(m -> m.getDeclaringClass().isApplication())
-                    .sorted(comp);
+                    .filter(m -> m.getDeclaringClass().isApplication());
         }
-        processResults(methods, analyses, (m, id) -> World.get().getResult(id));
+        processResults(sortByLineNumber(methods, true),
+                analyses, (m, id) -> World.get().getResult(id));
     }
 
     private void processIntraResults(List<String> analyses) {
@@ -194,37 +366,131 @@ public class ResultProcessor extends ProgramAnalysis {
                 .applicationClasses()
                 .map(JClass::getDeclaredMethods)
                 .flatMap(Collection::stream)
-                .filter(m -> !m.isAbstract() && !m.isNative())
-                .sorted(Comparator.comparing(m ->
-                        m.getIR().getStmt(0).getLineNumber()));
-        processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
+                .filter(m -> !m.isAbstract() && !m.isNative());
+        processResults(sortByLineNumber(methods, false),
+                analyses, (m, id) -> m.getIR().getResult(id));
+    }
+
+    /**
+     * Sorts methods by the line numbers of their first statements.
+     * The line number of each method is computed only once, instead of
+     * in every comparison, which also builds the IRs of all the methods
+     * before their results are processed (possibly in parallel).
+     *
+     * @param byClass whether to sort the methods by their declaring
+     *                classes before line numbers.
+     */
+    private static List<JMethod> sortByLineNumber(
+            Stream<JMethod> methods, boolean byClass) {
+        List<JMethod> result = methods.collect(Collectors.toList());
+        Map<JMethod, Integer> lineNumbers = Maps.newMap(result.size());
+        result.forEach(m ->
+                lineNumbers.put(m, m.getIR().getStmt(0).getLineNumber()));
+        Comparator<JMethod> comp = Comparator.comparingInt(lineNumbers::get);
+        if (byClass) {
+            comp = Comparator.comparing((JMethod m) -> m.getDeclaringClass().toString())
+                    .thenComparing(comp);
+        }
+        result.sort(comp);
+        return result;
     }
 
-    private void processResults(Stream<JMethod> methods, List<String> analyses,
+    private void processResults(List<JMethod> methods, List<String> analyses,
                                 BiFunction<JMethod, String, ?> resultGetter) {
-        methods.forEach(method ->
-                analyses.forEach(id -> {
-                    switch (action) {
-                        case "dump" -> dumpResult(method, id, resultGetter);
-                        case "compare" -> compareResult(method, id, resultGetter);
+        switch (action) {
+            case "dump" -> dumpResults(methods, analyses, resultGetter);
+            case "compare" -> methods.forEach(method ->
+                    analyses.forEach(id -> compareResult(method, id, resultGetter)));
+        }
+    }
+
+    /**
+     * Dumps the results of given methods. The results of each batch of
+     * methods are formatted in parallel, and written to the output in
+     * the order of the methods, so that the output is identical to
+     * the one dumped sequentially.
+     */
+    private void dumpResults(List<JMethod> methods, List<String> analyses,
+                             BiFunction<JMethod, String, ?> resultGetter) {
+        for (int i = 0; i < methods.size(); i += DUMP_BATCH_SIZE) {
+            List<JMethod> batch = methods.subList(
+                    i, Math.min(i + DUMP_BATCH_SIZE, methods.size()));
+            List<String> chunks = new ArrayList<>(batch.size());
+            if (executor != null) {
+                List<Callable<String>> tasks = batch.stream()
+                        .<Callable<String>>map(m ->
+                                () -> formatResults(m, analyses, resultGetter))
+                        .toList();
+                try {
+                    for (Future<String> future : executor.invokeAll(tasks)) {
+                        chunks.add(future.get());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while dumping results", e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException re) {
+                        throw re;
                     }
-                })
-        );
+                    throw new RuntimeException("Failed to dump results", e.getCause());
+                }
+            } else {
+                batch.forEach(m -> chunks.add(formatResults(m, analyses, resultGetter)));
+            }
+            write(chunks);
+        }
     }
 
-    private void dumpResult(JMethod method, String id,
-                            BiFunction<JMethod, String, ?> resultGetter) {
-        out.printf("-------------------- %s (%s) --------------------%n", method, id);
-        Object result = resultGetter.apply(method, id);
-        if (result instanceof Set) {
-            ((Set<?>) result).forEach(e -> out.println(toString(e)));
-        } else if (result instanceof StmtResult<?> StmtResult) {
-            IR ir = method.getIR();
-            ir.forEach(stmt -> out.println(toString(stmt, StmtResult)));
+    /**
+     * Formats the results of all given analyses for a method.
+     */
+    private static String formatResults(JMethod method, List<String> analyses,
+                                        BiFunction<JMethod, String, ?> resultGetter) {
+        String nl = System.lineSeparator();
+        StringBuilder sb = new StringBuilder();
+        for (String id : analyses) {
+            sb.append("-------------------- ").append(method)
+                    .append(" (").append(id).append(") --------------------")
+                    .append(nl);
+            Object result = resultGetter.apply(method, id);
+            if (result instanceof Set) {
+                ((Set<?>) result).forEach(e -> sb.append(toString(e)).append(nl));
+            } else if (result instanceof StmtResult<?> StmtResult) {
+                IR ir = method.getIR();
+                ir.forEach(stmt -> sb.append(toString(stmt, StmtResult)).append(nl));
+            } else {
+                sb.append(toString(result)).append(nl);
+            }
+            sb.append(nl);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes formatted results to the output in order.
+     */
+    private void write(List<String> chunks) {
+        if (channel != null) {
+            int size = 0;
+            List<byte[]> bytes = new ArrayList<>(chunks.size());
+            for (String chunk : chunks) {
+                byte[] b = chunk.getBytes(Charset.defaultCharset());
+                bytes.add(b);
+                size += b.length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            bytes.forEach(buffer::put);
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write output file", e);
+            }
         } else {
-            out.println(toString(result));
+            chunks.forEach(out::print);
         }
-        out.println();
     }
 
     /**
@@ -258,18 +524,18 @@ public class ResultProcessor extends ProgramAnalysis {
                     .collect(Collectors.toCollection(LinkedHashSet::new));
             given.forEach(s -> {
                 if (!inputResult.contains(s)) {
-                    mismatches.add(method + " " + s +
+                    addMismatch(method + " " + s +
                             " should NOT be included");
                 }
             });
             inputResult.forEach(s -> {
                 if (!given.contains(s)) {
-                    mismatches.add(method + " " + s +
+                    addMismatch(method + " " + s +
                             " should be included");
                 }
             });
         } else if (result instanceof StmtResult<?> StmtResult) {
-            Set<String> lines = inputs.get(new Pair<>(method.toString(), id));
+            Set<String> lines = inputResult;
             // if the expected input does not contain the results
             // for the given method, just skip
             if (lines.isEmpty()) {
@@ -285,7 +551,7 @@ public class ResultProcessor extends ProgramAnalysis {
                         foundExpeceted = true;
                         if (!line.equals(given)) {
                             int idx = stmtStr.length();
-                            mismatches.add(String.format("%s %s expected: %s, given: %s",
+                            addMismatch(String.format("%s %s expected: %s, given: %s",
                                     method, stmtStr, line.substring(idx + 1),
                                     given.substring(idx + 1)));
                         }
@@ -293,13 +559,13 @@ public class ResultProcessor extends ProgramAnalysis {
                 }
                 if (!foundExpeceted) {
                     int idx = stmtStr.length();
-                    mismatches.add(String.format("%s %s expected: null, given: %s",
+                    addMismatch(String.format("%s %s expected: null, given: %s",
                             method, stmtStr, given.substring(idx + 1)));
                 }
             });
         } else if (inputResult.size() == 1) {
             if (!toString(result).equals(getOne(inputResult))) {
-                mismatches.add(String.format("%s expected: %s, given: %s",
+                addMismatch(String.format("%s expected: %s, given: %s",
                         method, getOne(inputResult), toString(result)));
             }
         } else {
@@ -26,20 +26,16 @@ import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
-import pascal.taie.ir.exp.ArithmeticExp;
-import pascal.taie.ir.exp.BinaryExp;
-import pascal.taie.ir.exp.BitwiseExp;
-import pascal.taie.ir.exp.ConditionExp;
-import pascal.taie.ir.exp.Exp;
-import pascal.taie.ir.exp.IntLiteral;
-import pascal.taie.ir.exp.ShiftExp;
-import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 
+import java.util.Map;
+import java.util.Optional;
+
 public class ConstantPropagation extends
         AbstractDataflowAnalysis<Stmt, CPFact> {
 
@@ -57,18 +53,25 @@ public class ConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        return null;
+        CPFact ret = new CPFact();
+        for (var param : cfg.getIR().getParams())
+            if (canHoldInt(param))
+                ret.update(param, Value.getNAC());
+        return ret;
     }
 
     @Override
     public CPFact newInitialFact() {
         // TODO - finish me
-        return null;
+        return new CPFact();
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
+        // absent (UNDEF) values are the identity of meet, so this unions
+        // the two facts, skipping the parts they share
+        target.merge(fact, this::meetValue);
     }
 
     /**
@@ -76,13 +79,55 @@ public class ConstantPropagation extends
      */
     public Value meetValue(Value v1, Value v2) {
         // TODO - finish me
-        return null;
+        // NAC ^ v = NAC
+        if(v1.isNAC() || v2.isNAC())
+            return Value.getNAC();
+        // UNDEF ^ v = v
+        else if (v1.isUndef() && v2.isUndef())
+            return Value.getUndef();
+        else if (v1.isUndef())
+            return v2;
+        else if (v2.isUndef())
+            return v1;
+        // c ^ c = c
+        else if (v1.getConstant() == v2.getConstant())
+            return Value.makeConstant(v1.getConstant());
+        // c1 ^ c2 = NAC
+        else
+            return Value.getNAC();
     }
 
+    /*
+     * 不能先将in合并到out再计算gen，PPT 245
+     */
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
-        return false;
+        CPFact new_out = new CPFact();
+        new_out.copyFrom(in);
+        /*
+         * 首先判断def是否存在以及是否是Var，还要判断是否是Int
+         * 删除in中与stmt中redefine的变量
+         */
+        Optional<LValue> def = stmt.getDef();
+        if (def.isPresent() && def.get() instanceof Var) {
+            //new_out.update((Var) def.get(), Value.getUndef());
+            if (canHoldInt((Var) def.get())) {
+                DefinitionStmt<?, ?> definitionStmt = (DefinitionStmt<?, ?>)stmt;
+                if (definitionStmt.getRValue() instanceof Exp)
+                    new_out.update((Var) def.get(), evaluate(definitionStmt.getRValue(), in));
+                else
+                    new_out.update((Var) def.get(), Value.getNAC());
+            }
+        }
+        if (new_out.equals(out))
+            return false;
+        else {
+            // clear out or not?
+            out.clear();
+            out.copyFrom(new_out);
+            return true;
+        }
     }
 
     /**
@@ -110,8 +155,60 @@ public class ConstantPropagation extends
      * @param in  IN fact of the statement
      * @return the resulting {@link Value}
      */
+    /*
+     * CPFact is a map, which maps variable to its value.
+     * if does not contains mapping from a variable to its value, then the variable is UNDEF.
+     *
+     */
     public static Value evaluate(Exp exp, CPFact in) {
         // TODO - finish me
-        return null;
+        /*
+         * 只需要考虑Int类型
+         * 只需要处理等号左侧为变量且右侧只能是常量、变量、二元运算表达式的语句, 其他的引用类型忽略其值
+         */
+        if (exp instanceof Var) {
+            return in.get((Var)exp);
+        }
+        else if (exp instanceof IntLiteral) {
+            return Value.makeConstant(((IntLiteral) exp).getValue());
+        }
+        else if (exp instanceof BinaryExp) {
+            Value op1 = evaluate(((BinaryExp) exp).getOperand1(), in);
+            Value op2 = evaluate(((BinaryExp) exp).getOperand2(), in);
+            //Value op1 = in.get(operand1);
+            //Value op2 = in.get(operand2);
+            String op = ((BinaryExp) exp).getOperator().toString();
+            // special case:
+            if (op2.isConstant() && op2.getConstant() == 0 && (op.equals("/") || op.equals("%")))
+                return Value.getUndef();
+            // op1 and op2 均为Constant
+            if (op1.isConstant() && op2.isConstant()) {
+                return switch (op) {
+                    case "+" -> Value.makeConstant(op1.getConstant() + op2.getConstant());
+                    case "-" -> Value.makeConstant(op1.getConstant() - op2.getConstant());
+                    case "*" -> Value.makeConstant(op1.getConstant() * op2.getConstant());
+                    case "/" -> Value.makeConstant(op1.getConstant() / op2.getConstant());
+                    case "%" -> Value.makeConstant(op1.getConstant() % op2.getConstant());
+                    case "==" -> Value.makeConstant(op1.getConstant() == op2.getConstant() ? 1 : 0);
+                    case "!=" -> Value.makeConstant(op1.getConstant() != op2.getConstant() ? 1 : 0);
+                    case "<" -> Value.makeConstant(op1.getConstant() < op2.getConstant() ? 1 : 0);
+                    case ">" -> Value.makeConstant(op1.getConstant() > op2.getConstant() ? 1 : 0);
+                    case "<=" -> Value.makeConstant(op1.getConstant() <= op2.getConstant() ? 1 : 0);
+                    case ">=" -> Value.makeConstant(op1.getConstant() >= op2.getConstant() ? 1 : 0);
+                    case "<<" -> Value.makeConstant(op1.getConstant() << op2.getConstant());
+                    case ">>" -> Value.makeConstant(op1.getConstant() >> op2.getConstant());
+                    case ">>>" -> Value.makeConstant(op1.getConstant() >>> op2.getConstant());
+                    case "|" -> Value.makeConstant(op1.getConstant() | op2.getConstant());
+                    case "&" -> Value.makeConstant(op1.getConstant() & op2.getConstant());
+                    case "^" -> Value.makeConstant(op1.getConstant() ^ op2.getConstant());
+                    default -> Value.getNAC();
+                };
+            } else if (op1.isNAC() || op2.isNAC())
+                return Value.getNAC();
+            else
+                return Value.getUndef();
+        }
+        else
+            return Value.getNAC();
     }
 }
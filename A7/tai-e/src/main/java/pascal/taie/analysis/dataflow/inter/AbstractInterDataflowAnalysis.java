@@ -34,6 +34,8 @@ import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
 
+import java.util.function.Consumer;
+
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
  *
@@ -49,6 +51,8 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     protected InterSolver<Method, Node, Fact> solver;
 
+    private Consumer<Node> enqueuer;
+
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
         super(config);
     }
@@ -67,6 +71,19 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     protected void finish() {
     }
 
+    @Override
+    public void setWorkListEnqueuer(Consumer<Node> enqueuer) {
+        this.enqueuer = enqueuer;
+    }
+
+    /**
+     * Adds a node to the work-list of the solver, so that it will be
+     * transferred again. This can only be called during solving.
+     */
+    protected void addToWorkList(Node node) {
+        enqueuer.accept(node);
+    }
+
     /**
      * Dispatches {@code Node} to specific node transfer functions for
      * call nodes and non-call nodes.
@@ -0,0 +1,136 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.pta.CIPointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Index of the heap stores and loads of int values which may alias,
+ * built once from the result of pointer analysis.
+ * <p>
+ * A load of an instance field may alias the stores of the same field
+ * on any object that its base may point to, a load of a static field
+ * may alias all stores of the field, and a load of an array may alias
+ * the stores of any array that its base may point to. Array indexes
+ * are not considered here, as they depend on the data-flow facts.
+ */
+class AliasIndex {
+
+    private final MultiMap<Stmt, Stmt> storesOfLoad = Maps.newMultiMap();
+
+    private final MultiMap<Stmt, Stmt> loadsOfStore = Maps.newMultiMap();
+
+    AliasIndex(CIPointerAnalysisResult pta, Iterable<Stmt> stmts) {
+        TwoKeyMap<Obj, JField, Set<Stmt>> instanceStores = Maps.newTwoKeyMap();
+        MultiMap<JField, Stmt> staticStores = Maps.newMultiMap();
+        MultiMap<Obj, Stmt> arrayStores = Maps.newMultiMap();
+        List<Stmt> loads = new ArrayList<>();
+        for (Stmt stmt : stmts) {
+            if (stmt instanceof StoreField store) {
+                if (!ConstantPropagation.canHoldInt(store.getRValue())) {
+                    continue;
+                }
+                JField field = store.getFieldRef().resolve();
+                if (store.isStatic()) {
+                    staticStores.put(field, store);
+                } else {
+                    InstanceFieldAccess access =
+                            (InstanceFieldAccess) store.getFieldAccess();
+                    pta.getPointsToSet(access.getBase()).forEach(obj ->
+                            instanceStores.computeIfAbsent(obj, field,
+                                    (o, f) -> Sets.newHybridSet()).add(store));
+                }
+            } else if (stmt instanceof StoreArray store) {
+                if (ConstantPropagation.canHoldInt(store.getRValue())) {
+                    pta.getPointsToSet(store.getArrayAccess().getBase())
+                            .forEach(obj -> arrayStores.put(obj, store));
+                }
+            } else if (stmt instanceof LoadField load) {
+                if (ConstantPropagation.canHoldInt(load.getLValue())) {
+                    loads.add(load);
+                }
+            } else if (stmt instanceof LoadArray load) {
+                if (ConstantPropagation.canHoldInt(load.getLValue())) {
+                    loads.add(load);
+                }
+            }
+        }
+        for (Stmt stmt : loads) {
+            if (stmt instanceof LoadField load) {
+                JField field = load.getFieldRef().resolve();
+                if (load.isStatic()) {
+                    staticStores.get(field).forEach(store -> add(load, store));
+                } else {
+                    InstanceFieldAccess access =
+                            (InstanceFieldAccess) load.getFieldAccess();
+                    for (Obj obj : pta.getPointsToSet(access.getBase())) {
+                        Set<Stmt> stores = instanceStores.get(obj, field);
+                        if (stores != null) {
+                            stores.forEach(store -> add(load, store));
+                        }
+                    }
+                }
+            } else {
+                LoadArray load = (LoadArray) stmt;
+                pta.getPointsToSet(load.getArrayAccess().getBase()).forEach(obj ->
+                        arrayStores.get(obj).forEach(store -> add(load, store)));
+            }
+        }
+    }
+
+    private void add(Stmt load, Stmt store) {
+        storesOfLoad.put(load, store);
+        loadsOfStore.put(store, load);
+    }
+
+    /**
+     * @return the stores which may alias the given load.
+     */
+    Set<Stmt> getStoresOf(Stmt load) {
+        return storesOfLoad.get(load);
+    }
+
+    /**
+     * @return the loads which may alias the given store.
+     */
+    Set<Stmt> getLoadsOf(Stmt store) {
+        return loadsOfStore.get(store);
+    }
+}
@@ -25,23 +25,41 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
-import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.analysis.pta.MappedPointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
-import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of interprocedural constant propagation for int values.
+ * <p>
+ * If option "alias-aware" is set, the values of fields and arrays are
+ * also propagated, from stores to the loads which may alias them
+ * according to the pointer analysis result (see {@link AliasIndex}).
+ * The result is produced by the analysis specified by option "pta",
+ * or, if option "pta-store" is given, read from the file written by
+ * a pointer analysis that runs earlier (see {@link MappedPointerAnalysisResult}).
  */
 public class InterConstantPropagation extends
         AbstractInterDataflowAnalysis<JMethod, Stmt, CPFact> {
@@ -50,6 +68,22 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * Index of aliased stores and loads, or null if this analysis
+     * is not alias-aware.
+     */
+    private AliasIndex aliasIndex;
+
+    /**
+     * Values stored by the field and array stores.
+     */
+    private final Map<Stmt, Value> storedValues = Maps.newMap();
+
+    /**
+     * Values of the indexes of the array stores.
+     */
+    private final Map<Stmt, Value> storedIndexes = Maps.newMap();
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
@@ -57,9 +91,31 @@ public class InterConstantPropagation extends
 
     @Override
     protected void initialize() {
-        String ptaId = getOptions().getString("pta");
-        PointerAnalysisResult pta = World.get().getResult(ptaId);
-        // You can do initialization work here
+        if (getOptions().getBoolean("alias-aware")) {
+            String store = getOptions().getString("pta-store");
+            if (store != null) {
+                // the index is built eagerly, thus the stored result
+                // is not needed after building the index
+                try (MappedPointerAnalysisResult pta =
+                             MappedPointerAnalysisResult.open(Path.of(store))) {
+                    aliasIndex = new AliasIndex(pta, icfg);
+                } catch (IOException e) {
+                    throw new AnalysisException(
+                            "Failed to read pointer analysis result from " + store, e);
+                }
+            } else {
+                String ptaId = getOptions().getString("pta");
+                PointerAnalysisResult pta = World.get().getResult(ptaId);
+                aliasIndex = new AliasIndex(pta, icfg);
+            }
+        }
+    }
+
+    @Override
+    protected void finish() {
+        aliasIndex = null;
+        storedValues.clear();
+        storedIndexes.clear();
     }
 
     @Override
@@ -85,37 +141,128 @@ public class InterConstantPropagation extends
 
     @Override
     protected boolean transferCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        if (out.equals(in)) {
+            return false;
+        }
+        out.clear();
+        out.copyFrom(in);
+        return true;
     }
 
     @Override
     protected boolean transferNonCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        if (aliasIndex != null) {
+            if (stmt instanceof StoreField store) {
+                transferStore(store, store.getRValue(), null, in);
+            } else if (stmt instanceof StoreArray store) {
+                transferStore(store, store.getRValue(),
+                        store.getArrayAccess().getIndex(), in);
+            } else if (stmt instanceof LoadField load
+                    && ConstantPropagation.canHoldInt(load.getLValue())) {
+                return transferLoad(load, load.getLValue(), null, in, out);
+            } else if (stmt instanceof LoadArray load
+                    && ConstantPropagation.canHoldInt(load.getLValue())) {
+                return transferLoad(load, load.getLValue(),
+                        load.getArrayAccess().getIndex(), in, out);
+            }
+        }
+        return cp.transferNode(stmt, in, out);
+    }
+
+    /**
+     * Records the value (and the index, for arrays) stored by the store,
+     * and if it changes, adds the loads which may alias the store
+     * to the work-list of the solver.
+     */
+    private void transferStore(Stmt store, Var rvalue, Var index, CPFact in) {
+        if (!ConstantPropagation.canHoldInt(rvalue)) {
+            return;
+        }
+        boolean changed = !in.get(rvalue).equals(storedValues.put(store, in.get(rvalue)));
+        if (index != null) {
+            changed |= !in.get(index).equals(storedIndexes.put(store, in.get(index)));
+        }
+        if (changed) {
+            aliasIndex.getLoadsOf(store).forEach(this::addToWorkList);
+        }
+    }
+
+    /**
+     * Meets the values of all stores which may alias the load.
+     */
+    private boolean transferLoad(Stmt load, Var lvalue, Var index,
+                                 CPFact in, CPFact out) {
+        Value value = Value.getUndef();
+        for (Stmt store : aliasIndex.getStoresOf(load)) {
+            Value storedValue = storedValues.get(store);
+            if (storedValue == null || (index != null &&
+                    !mayAlias(in.get(index), storedIndexes.get(store)))) {
+                continue;
+            }
+            value = cp.meetValue(value, storedValue);
+        }
+        CPFact newOut = in.copy();
+        newOut.update(lvalue, value);
+        if (newOut.equals(out)) {
+            return false;
+        }
+        out.clear();
+        out.copyFrom(newOut);
+        return true;
+    }
+
+    /**
+     * @return true if two array indexes with the given values may be equal.
+     */
+    static boolean mayAlias(Value i1, Value i2) {
+        if (i1.isUndef() || i2.isUndef()) {
+            return false;
+        }
+        if (i1.isConstant() && i2.isConstant()) {
+            return i1.getConstant() == i2.getConstant();
+        }
+        return true;
     }
 
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        // the value of the lvalue of the call comes from the return edges
+        Var lValue = ((Invoke) edge.getSource()).getLValue();
+        if (lValue == null) {
+            return out;
+        }
+        CPFact fact = out.copy();
+        fact.remove(lValue);
+        return fact;
     }
 
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
-        // TODO - finish me
-        return null;
+        List<Var> args = ((Invoke) edge.getSource()).getInvokeExp().getArgs();
+        List<Var> params = edge.getCallee().getIR().getParams();
+        CPFact fact = newInitialFact();
+        for (int i = 0; i < args.size(); ++i) {
+            fact.update(params.get(i), callSiteOut.get(args.get(i)));
+        }
+        return fact;
     }
 
     @Override
     protected CPFact transferReturnEdge(ReturnEdge<Stmt> edge, CPFact returnOut) {
-        // TODO - finish me
-        return null;
+        CPFact fact = newInitialFact();
+        Var lValue = ((Invoke) edge.getCallSite()).getLValue();
+        if (lValue != null) {
+            Value value = Value.getUndef();
+            for (Var returnVar : edge.getReturnVars()) {
+                value = cp.meetValue(value, returnOut.get(returnVar));
+            }
+            fact.update(lValue, value);
+        }
+        return fact;
     }
 }
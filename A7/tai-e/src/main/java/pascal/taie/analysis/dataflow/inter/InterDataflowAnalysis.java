@@ -24,6 +24,8 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
 
+import java.util.function.Consumer;
+
 /**
  * Template interface for defining inter-procedural data-flow analysis.
  *
@@ -71,4 +73,16 @@ public interface InterDataflowAnalysis<Node, Fact> {
      * @return the result of edge transfer function.
      */
     Fact transferEdge(ICFGEdge<Node> edge, Fact out);
+
+    /**
+     * Called by the solver before solving. Through the given function,
+     * this analysis can add arbitrary nodes to the work-list of the solver,
+     * so that they will be transferred again even if none of their
+     * predecessors changes, e.g., nodes that depend on nodes in other
+     * methods. Analyses that do not need it can ignore it.
+     *
+     * @param enqueuer function that adds a node to the work-list.
+     */
+    default void setWorkListEnqueuer(Consumer<Node> enqueuer) {
+    }
 }
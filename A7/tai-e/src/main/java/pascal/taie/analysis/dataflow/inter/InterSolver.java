@@ -24,8 +24,14 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
-import pascal.taie.util.collection.SetQueue;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.util.collection.Maps;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -43,7 +49,20 @@ class InterSolver<Method, Node, Fact> {
 
     private DataflowResult<Node, Fact> result;
 
-    private Queue<Node> workList;
+    /**
+     * ICFG nodes indexed by their IDs.
+     */
+    private List<Node> nodes;
+
+    private Map<Node, Integer> nodeIds;
+
+    /**
+     * IDs of the nodes in the work-list, which are used to deduplicate
+     * nodes added to the work-list.
+     */
+    private BitSet inWorkList;
+
+    private Queue<Integer> workList;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
@@ -53,16 +72,56 @@ class InterSolver<Method, Node, Fact> {
 
     DataflowResult<Node, Fact> solve() {
         result = new DataflowResult<>();
+        analysis.setWorkListEnqueuer(this::addToWorkList);
         initialize();
         doSolve();
         return result;
     }
 
     private void initialize() {
-        // TODO - finish me
+        Set<Node> entries = icfg.entryMethods()
+                .map(icfg::getEntryOf)
+                .collect(Collectors.toSet());
+        nodes = new ArrayList<>(icfg.getNumberOfNodes());
+        nodeIds = Maps.newMap(icfg.getNumberOfNodes());
+        for (Node node : icfg) {
+            nodeIds.put(node, nodes.size());
+            nodes.add(node);
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, entries.contains(node) ?
+                    analysis.newBoundaryFact(node) : analysis.newInitialFact());
+        }
     }
 
     private void doSolve() {
-        // TODO - finish me
+        inWorkList = new BitSet(nodes.size());
+        workList = new ArrayDeque<>(nodes.size());
+        nodes.forEach(this::addToWorkList);
+        while (!workList.isEmpty()) {
+            int id = workList.poll();
+            inWorkList.clear(id);
+            Node node = nodes.get(id);
+            Fact in = result.getInFact(node);
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                analysis.meetInto(analysis.transferEdge(edge,
+                        result.getOutFact(edge.getSource())), in);
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                icfg.getSuccsOf(node).forEach(this::addToWorkList);
+            }
+        }
+    }
+
+    /**
+     * Adds a node to the work-list if it is not in the work-list.
+     * Besides the successors of changed nodes, the analysis can also add
+     * arbitrary nodes via {@link InterDataflowAnalysis#setWorkListEnqueuer}.
+     */
+    private void addToWorkList(Node node) {
+        int id = nodeIds.get(node);
+        if (!inWorkList.get(id)) {
+            inWorkList.set(id);
+            workList.add(id);
+        }
     }
 }
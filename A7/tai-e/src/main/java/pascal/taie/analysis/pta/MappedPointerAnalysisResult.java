@@ -0,0 +1,995 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Pointer analysis result backed by a memory-mapped file, which allows
+ * the clients to use the result of a pointer analysis that runs in
+ * another JVM, without keeping the whole result on heap.
+ * <p>
+ * The file is written by {@link #write(PointerAnalysisResult, Path)},
+ * and is read on demand, e.g., the points-to set of a variable is decoded
+ * from the file when it is queried, and the call graphs are built when they
+ * are first requested. The file keeps the context-insensitive points-to
+ * sets of variables and fields and the context-sensitive call graph;
+ * the context-sensitive pointers are not kept, thus this class only
+ * provides the context-insensitive view of the result
+ * (see {@link CIPointerAnalysisResult}).
+ * <p>
+ * Elements are keyed by names which are stable across runs on the same
+ * program, e.g., signatures of methods and indexes of variables in IR,
+ * and the objects in the result are represented by {@link StoredObj}.
+ * This class is not thread-safe.
+ * <pre>
+ * file       := header strings objects table* contexts methods entries edges
+ *               directory
+ * header     := MAGIC VERSION directory-offset:long
+ * strings    := utf8-bytes* string-offsets:long[#strings + 1]
+ * objects    := (name type container allocation-index):int[4]*
+ * table      := points-to-set* (key1:int key2:int offset:long)*
+ *               (for variables, instance fields, array indexes and static fields)
+ * points-to-set := #objects:varint object-id-delta:varint*
+ * contexts   := (#elements:int (kind name index):int[3]*)* context-offsets:long[]
+ * methods    := (context method):int[2]*
+ * edges      := (caller call-site callee kind):int[4]*
+ * </pre>
+ */
+public class MappedPointerAnalysisResult
+        implements CIPointerAnalysisResult, AutoCloseable {
+
+    private static final int MAGIC = 0x50544152;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int TABLE_ENTRY_SIZE = 16;
+
+    // indexes of tables in the directory
+    private static final int OBJECTS = 0;
+
+    private static final int VARS = 1;
+
+    private static final int INSTANCE_FIELDS = 2;
+
+    private static final int ARRAY_INDEXES = 3;
+
+    private static final int STATIC_FIELDS = 4;
+
+    private static final int CONTEXTS = 5;
+
+    private static final int METHODS = 6;
+
+    private static final int ENTRIES = 7;
+
+    private static final int EDGES = 8;
+
+    private static final int N_TABLES = 9;
+
+    // kinds of context elements
+    private static final int OBJ_ELEMENT = 0;
+
+    private static final int CALL_SITE_ELEMENT = 1;
+
+    private static final int TYPE_ELEMENT = 2;
+
+    private static final int OTHER_ELEMENT = 3;
+
+    // ---------- writer ----------
+
+    /**
+     * Writes given pointer analysis result to a file, which can be read by
+     * {@link #open(Path)}.
+     */
+    public static void write(PointerAnalysisResult result, Path path)
+            throws IOException {
+        new Writer(result).write(path);
+    }
+
+    private static class Writer {
+
+        private final PointerAnalysisResult result;
+
+        private final Map<String, Integer> stringIds = Maps.newMap();
+
+        private final Map<Obj, Integer> objIds = Maps.newMap();
+
+        private final List<Obj> objs = new ArrayList<>();
+
+        private final Map<Context, Integer> contextIds = Maps.newMap();
+
+        private final List<Context> contexts = new ArrayList<>();
+
+        private final Map<CSMethod, Integer> methodIds = Maps.newMap();
+
+        private final List<CSMethod> methods = new ArrayList<>();
+
+        private Writer(PointerAnalysisResult result) {
+            this.result = result;
+        }
+
+        private void write(Path path) throws IOException {
+            // collect the elements to be written
+            Map<Var, Set<Obj>> varPts = Maps.newMap();
+            result.getVars().forEach(v -> varPts.put(v, result.getPointsToSet(v)));
+            Map<Pair<Obj, JField>, Set<Obj>> fieldPts = Maps.newMap();
+            for (InstanceField field : result.getInstanceFields()) {
+                addObjects(fieldPts.computeIfAbsent(new Pair<>(
+                                field.getBase().getObject(), field.getField()),
+                        k -> Sets.newHybridSet()), field.getPointsToSet().objects());
+            }
+            Map<Obj, Set<Obj>> arrayPts = Maps.newMap();
+            for (ArrayIndex array : result.getArrayIndexes()) {
+                addObjects(arrayPts.computeIfAbsent(array.getArray().getObject(),
+                        k -> Sets.newHybridSet()), array.getPointsToSet().objects());
+            }
+            Map<JField, Set<Obj>> staticPts = Maps.newMap();
+            for (StaticField field : result.getStaticFields()) {
+                addObjects(staticPts.computeIfAbsent(field.getField(),
+                        k -> Sets.newHybridSet()), field.getPointsToSet().objects());
+            }
+            result.getObjects().forEach(this::getObjId);
+            // all objects must be numbered before the object table is written
+            varPts.values().forEach(pts -> pts.forEach(this::getObjId));
+            fieldPts.forEach((p, pts) -> {
+                getObjId(p.first());
+                pts.forEach(this::getObjId);
+            });
+            arrayPts.forEach((o, pts) -> {
+                getObjId(o);
+                pts.forEach(this::getObjId);
+            });
+            staticPts.values().forEach(pts -> pts.forEach(this::getObjId));
+            CallGraph<CSCallSite, CSMethod> callGraph = result.getCSCallGraph();
+            callGraph.reachableMethods().forEach(this::getMethodId);
+            int[] entries = callGraph.entryMethods()
+                    .mapToInt(this::getMethodId)
+                    .toArray();
+            List<int[]> edges = new ArrayList<>();
+            callGraph.edges().forEach(edge -> {
+                CSCallSite callSite = edge.getCallSite();
+                edges.add(new int[]{
+                        getMethodId(callGraph.getContainerOf(callSite)),
+                        callSite.getCallSite().getIndex(),
+                        getMethodId(edge.getCallee()),
+                        edge.getKind().ordinal()});
+            });
+            // build string table
+            varPts.keySet().forEach(v -> addString(v.getMethod().getSignature()));
+            fieldPts.keySet().forEach(p -> addString(p.second().getSignature()));
+            staticPts.keySet().forEach(f -> addString(f.getSignature()));
+            for (Obj obj : objs) {
+                addString(obj.toString());
+                addString(obj.getType().getName());
+                obj.getContainerMethod().ifPresent(m -> addString(m.getSignature()));
+            }
+            for (Context context : contexts) {
+                for (int i = 0; i < context.getLength(); ++i) {
+                    addString(getElementName(context.getElementAt(i)));
+                }
+            }
+            methods.forEach(m -> addString(m.getMethod().getSignature()));
+            String[] strings = stringIds.keySet().toArray(new String[0]);
+            Arrays.sort(strings);
+            for (int i = 0; i < strings.length; ++i) {
+                stringIds.put(strings[i], i);
+            }
+            try (Output out = new Output(FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING))) {
+                out.position(HEADER_SIZE);
+                long[] directory = new long[N_TABLES * 2];
+                long stringOffsetsOffset = writeStrings(out, strings);
+                directory[OBJECTS * 2] = objs.size();
+                directory[OBJECTS * 2 + 1] = out.position();
+                for (Obj obj : objs) {
+                    out.writeInt(stringIds.get(obj.toString()));
+                    out.writeInt(stringIds.get(obj.getType().getName()));
+                    Optional<JMethod> container = obj.getContainerMethod();
+                    out.writeInt(container
+                            .map(m -> stringIds.get(m.getSignature()))
+                            .orElse(-1));
+                    out.writeInt(container.isPresent() &&
+                            obj.getAllocation() instanceof Stmt stmt ?
+                            stmt.getIndex() : -1);
+                }
+                List<long[]> entriesOf = new ArrayList<>();
+                for (var e : varPts.entrySet()) {
+                    Var v = e.getKey();
+                    entriesOf.add(new long[]{
+                            stringIds.get(v.getMethod().getSignature()),
+                            v.getIndex(), writePointsToSet(out, e.getValue())});
+                }
+                writeTable(out, VARS, entriesOf, directory);
+                for (var e : fieldPts.entrySet()) {
+                    entriesOf.add(new long[]{
+                            objIds.get(e.getKey().first()),
+                            stringIds.get(e.getKey().second().getSignature()),
+                            writePointsToSet(out, e.getValue())});
+                }
+                writeTable(out, INSTANCE_FIELDS, entriesOf, directory);
+                for (var e : arrayPts.entrySet()) {
+                    entriesOf.add(new long[]{objIds.get(e.getKey()), 0,
+                            writePointsToSet(out, e.getValue())});
+                }
+                writeTable(out, ARRAY_INDEXES, entriesOf, directory);
+                for (var e : staticPts.entrySet()) {
+                    entriesOf.add(new long[]{
+                            stringIds.get(e.getKey().getSignature()), 0,
+                            writePointsToSet(out, e.getValue())});
+                }
+                writeTable(out, STATIC_FIELDS, entriesOf, directory);
+                long[] contextOffsets = new long[contexts.size()];
+                for (int i = 0; i < contextOffsets.length; ++i) {
+                    contextOffsets[i] = out.position();
+                    writeContext(out, contexts.get(i));
+                }
+                directory[CONTEXTS * 2] = contexts.size();
+                directory[CONTEXTS * 2 + 1] = out.position();
+                for (long offset : contextOffsets) {
+                    out.writeLong(offset);
+                }
+                directory[METHODS * 2] = methods.size();
+                directory[METHODS * 2 + 1] = out.position();
+                for (CSMethod method : methods) {
+                    out.writeInt(contextIds.get(method.getContext()));
+                    out.writeInt(stringIds.get(method.getMethod().getSignature()));
+                }
+                directory[ENTRIES * 2] = entries.length;
+                directory[ENTRIES * 2 + 1] = out.position();
+                for (int entry : entries) {
+                    out.writeInt(entry);
+                }
+                directory[EDGES * 2] = edges.size();
+                directory[EDGES * 2 + 1] = out.position();
+                for (int[] edge : edges) {
+                    for (int i : edge) {
+                        out.writeInt(i);
+                    }
+                }
+                long directoryOffset = out.position();
+                out.writeInt(strings.length);
+                out.writeLong(stringOffsetsOffset);
+                for (long l : directory) {
+                    out.writeLong(l);
+                }
+                out.flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(directoryOffset)
+                        .flip();
+                out.channel.write(header, 0);
+            }
+        }
+
+        private static void addObjects(Set<Obj> set, Stream<CSObj> objects) {
+            objects.forEach(o -> set.add(o.getObject()));
+        }
+
+        private void addString(String s) {
+            stringIds.putIfAbsent(s, 0);
+        }
+
+        private int getObjId(Obj obj) {
+            return objIds.computeIfAbsent(obj, o -> {
+                objs.add(o);
+                return objs.size() - 1;
+            });
+        }
+
+        private int getMethodId(CSMethod csMethod) {
+            return methodIds.computeIfAbsent(csMethod, m -> {
+                getContextId(m.getContext());
+                methods.add(m);
+                return methods.size() - 1;
+            });
+        }
+
+        private int getContextId(Context context) {
+            Integer id = contextIds.get(context);
+            if (id == null) {
+                for (int i = 0; i < context.getLength(); ++i) {
+                    if (context.getElementAt(i) instanceof Obj obj) {
+                        getObjId(obj);
+                    }
+                }
+                id = contexts.size();
+                contexts.add(context);
+                contextIds.put(context, id);
+            }
+            return id;
+        }
+
+        private static String getElementName(Object element) {
+            if (element instanceof Invoke invoke) {
+                return invoke.getContainer().getSignature();
+            } else if (element instanceof Type type) {
+                return type.getName();
+            } else {
+                return element.toString();
+            }
+        }
+
+        private void writeContext(Output out, Context context) throws IOException {
+            out.writeInt(context.getLength());
+            for (int i = 0; i < context.getLength(); ++i) {
+                Object element = context.getElementAt(i);
+                int kind, index = -1;
+                if (element instanceof Obj obj) {
+                    kind = OBJ_ELEMENT;
+                    index = objIds.get(obj);
+                } else if (element instanceof Invoke invoke) {
+                    kind = CALL_SITE_ELEMENT;
+                    index = invoke.getIndex();
+                } else if (element instanceof Type) {
+                    kind = TYPE_ELEMENT;
+                } else {
+                    kind = OTHER_ELEMENT;
+                }
+                out.writeInt(kind);
+                out.writeInt(stringIds.get(getElementName(element)));
+                out.writeInt(index);
+            }
+        }
+
+        private long writePointsToSet(Output out, Set<Obj> pts) throws IOException {
+            long offset = out.position();
+            int[] ids = pts.stream().mapToInt(objIds::get).sorted().toArray();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writeVarInt(bytes, ids.length);
+            int prev = 0;
+            for (int id : ids) {
+                writeVarInt(bytes, id - prev);
+                prev = id;
+            }
+            out.write(bytes.toByteArray());
+            return offset;
+        }
+
+        /**
+         * Writes table entries sorted by their keys, and clears the entries.
+         */
+        private static void writeTable(Output out, int table, List<long[]> entries,
+                                       long[] directory) throws IOException {
+            entries.sort(Comparator.<long[]>comparingLong(e -> e[0])
+                    .thenComparingLong(e -> e[1]));
+            directory[table * 2] = entries.size();
+            directory[table * 2 + 1] = out.position();
+            for (long[] entry : entries) {
+                out.writeInt((int) entry[0]);
+                out.writeInt((int) entry[1]);
+                out.writeLong(entry[2]);
+            }
+            entries.clear();
+        }
+
+        private static long writeStrings(Output out, String[] strings)
+                throws IOException {
+            long[] offsets = new long[strings.length + 1];
+            for (int i = 0; i < strings.length; ++i) {
+                offsets[i] = out.position();
+                out.write(strings[i].getBytes(StandardCharsets.UTF_8));
+            }
+            offsets[strings.length] = out.position();
+            long offsetsOffset = out.position();
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+            return offsetsOffset;
+        }
+
+        private static void writeVarInt(ByteArrayOutputStream out, int value) {
+            while ((value & ~0x7f) != 0) {
+                out.write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+    }
+
+    /**
+     * Buffered output to a file channel, which keeps track of
+     * the position of written data.
+     */
+    private static class Output implements AutoCloseable {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+        private long position;
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private long position() {
+            return position;
+        }
+
+        private void position(long position) throws IOException {
+            flush();
+            channel.position(position);
+            this.position = position;
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > buffer.remaining()) {
+                ByteBuffer data = ByteBuffer.wrap(bytes);
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            } else {
+                buffer.put(bytes);
+            }
+            position += bytes.length;
+        }
+
+        private void writeInt(int i) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(i);
+            position += Integer.BYTES;
+        }
+
+        private void writeLong(long l) throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(l);
+            position += Long.BYTES;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+
+    // ---------- reader ----------
+
+    private final MappedFile file;
+
+    private final ClassHierarchy hierarchy;
+
+    private final int nStrings;
+
+    private final long stringOffsetsOffset;
+
+    /**
+     * Sizes and offsets of the tables.
+     */
+    private final long[] directory;
+
+    /**
+     * Objects which have been resolved, indexed by their IDs.
+     */
+    private final StoredObj[] objs;
+
+    /**
+     * Factory of the contexts read from this file.
+     */
+    private final ListContext.Factory contextFactory = new ListContext.Factory();
+
+    /**
+     * Cache of the IDs of method signatures.
+     */
+    private final Map<JMethod, Integer> methodIds = Maps.newMap();
+
+    private Collection<Var> vars;
+
+    private CallGraph<CSCallSite, CSMethod> csCallGraph;
+
+    private CallGraph<Invoke, JMethod> callGraph;
+
+    private MappedPointerAnalysisResult(MappedFile file) throws IOException {
+        this.file = file;
+        this.hierarchy = World.get().getClassHierarchy();
+        if (file.size < HEADER_SIZE || file.getInt(0) != MAGIC
+                || file.getInt(4) != VERSION) {
+            throw new IOException("Not a pointer analysis result of version " + VERSION);
+        }
+        long pos = file.getLong(8);
+        nStrings = file.getInt(pos);
+        stringOffsetsOffset = file.getLong(pos + 4);
+        pos += 12;
+        directory = new long[N_TABLES * 2];
+        for (int i = 0; i < directory.length; ++i) {
+            directory[i] = file.getLong(pos + (long) i * Long.BYTES);
+        }
+        objs = new StoredObj[(int) size(OBJECTS)];
+    }
+
+    /**
+     * Opens a file written by {@link #write(PointerAnalysisResult, Path)}.
+     * The file must be written for the program in current world.
+     *
+     * @throws IOException if the file cannot be read or is not written
+     *                     by this class.
+     */
+    public static MappedPointerAnalysisResult open(Path path) throws IOException {
+        MappedFile file = new MappedFile(path);
+        try {
+            return new MappedPointerAnalysisResult(file);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private long size(int table) {
+        return directory[table * 2];
+    }
+
+    private long offset(int table) {
+        return directory[table * 2 + 1];
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        if (vars == null) {
+            List<Var> list = new ArrayList<>((int) size(VARS));
+            for (long i = 0; i < size(VARS); ++i) {
+                long entry = offset(VARS) + i * TABLE_ENTRY_SIZE;
+                JMethod method = getMethod(file.getInt(entry));
+                list.add(method.getIR().getVar(file.getInt(entry + 4)));
+            }
+            vars = Collections.unmodifiableList(list);
+        }
+        return vars;
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        List<Obj> result = new ArrayList<>(objs.length);
+        for (int i = 0; i < objs.length; ++i) {
+            result.add(getObj(i));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        Integer method = methodIds.computeIfAbsent(var.getMethod(),
+                m -> getId(m.getSignature()));
+        return getPointsToSet(VARS, method, var.getIndex());
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        int fieldId = getId(field.getSignature());
+        Set<Obj> result = Sets.newHybridSet();
+        if (fieldId != -1) {
+            for (Obj obj : getPointsToSet(base)) {
+                result.addAll(getPointsToSet(INSTANCE_FIELDS,
+                        ((StoredObj) obj).index, fieldId));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        return getPointsToSet(STATIC_FIELDS, getId(field.getSignature()), 0);
+    }
+
+    /**
+     * @return the objects pointed to by the elements in the array
+     * objects pointed to by given variable.
+     */
+    public Set<Obj> getArrayPointsToSet(Var base) {
+        Set<Obj> result = Sets.newHybridSet();
+        for (Obj obj : getPointsToSet(base)) {
+            result.addAll(getPointsToSet(ARRAY_INDEXES, ((StoredObj) obj).index, 0));
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the points-to set of given key in a table.
+     */
+    private Set<Obj> getPointsToSet(int table, int key1, int key2) {
+        if (key1 == -1) {
+            return Set.of();
+        }
+        long low = 0, high = size(table) - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long entry = offset(table) + mid * TABLE_ENTRY_SIZE;
+            int cmp = Integer.compare(file.getInt(entry), key1);
+            if (cmp == 0) {
+                cmp = Integer.compare(file.getInt(entry + 4), key2);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return decodePointsToSet(file.getLong(entry + 8));
+            }
+        }
+        return Set.of();
+    }
+
+    private Set<Obj> decodePointsToSet(long offset) {
+        ByteBuffer data = file.slice(offset);
+        int size = readVarInt(data);
+        Set<Obj> result = Sets.newHybridSet();
+        int id = 0;
+        for (int i = 0; i < size; ++i) {
+            id += readVarInt(data);
+            result.add(getObj(id));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * @return the context-sensitive call graph kept in the file.
+     */
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        if (csCallGraph == null) {
+            CSManager csManager = new MapBasedCSManager();
+            CSCallGraph cg = new CSCallGraph(csManager);
+            CSMethod[] csMethods = new CSMethod[(int) size(METHODS)];
+            Context[] contexts = new Context[(int) size(CONTEXTS)];
+            for (int i = 0; i < csMethods.length; ++i) {
+                long entry = offset(METHODS) + (long) i * 8;
+                int context = file.getInt(entry);
+                if (contexts[context] == null) {
+                    contexts[context] = readContext(context);
+                }
+                csMethods[i] = csManager.getCSMethod(
+                        contexts[context], getMethod(file.getInt(entry + 4)));
+                cg.addReachableMethod(csMethods[i]);
+            }
+            for (long i = 0; i < size(ENTRIES); ++i) {
+                cg.addEntryMethod(csMethods[file.getInt(offset(ENTRIES) + i * 4)]);
+            }
+            forEachEdge((caller, invoke, callee, kind) -> {
+                CSMethod csCaller = csMethods[caller];
+                CSCallSite csCallSite = csManager.getCSCallSite(
+                        csCaller.getContext(), invoke);
+                cg.addEdge(new Edge<>(kind, csCallSite, csMethods[callee]));
+            });
+            csCallGraph = cg;
+        }
+        return csCallGraph;
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        if (callGraph == null) {
+            DefaultCallGraph cg = new DefaultCallGraph();
+            JMethod[] methods = new JMethod[(int) size(METHODS)];
+            for (int i = 0; i < methods.length; ++i) {
+                methods[i] = getMethod(file.getInt(
+                        offset(METHODS) + (long) i * 8 + 4));
+                cg.addReachableMethod(methods[i]);
+            }
+            for (long i = 0; i < size(ENTRIES); ++i) {
+                cg.addEntryMethod(methods[file.getInt(offset(ENTRIES) + i * 4)]);
+            }
+            forEachEdge((caller, invoke, callee, kind) ->
+                    cg.addEdge(new Edge<>(kind, invoke, methods[callee])));
+            callGraph = cg;
+        }
+        return callGraph;
+    }
+
+    private interface EdgeConsumer {
+        void accept(int caller, Invoke invoke, int callee, CallKind kind);
+    }
+
+    private void forEachEdge(EdgeConsumer consumer) {
+        CallKind[] kinds = CallKind.values();
+        for (long i = 0; i < size(EDGES); ++i) {
+            long entry = offset(EDGES) + i * 16;
+            int caller = file.getInt(entry);
+            JMethod method = getMethod(file.getInt(offset(METHODS)
+                    + (long) caller * 8 + 4));
+            Invoke invoke = (Invoke) method.getIR().getStmt(file.getInt(entry + 4));
+            consumer.accept(caller, invoke, file.getInt(entry + 8),
+                    kinds[file.getInt(entry + 12)]);
+        }
+    }
+
+    private Context readContext(int id) {
+        long pos = file.getLong(offset(CONTEXTS) + (long) id * Long.BYTES);
+        Object[] elements = new Object[file.getInt(pos)];
+        for (int i = 0; i < elements.length; ++i) {
+            long element = pos + 4 + (long) i * 12;
+            int kind = file.getInt(element);
+            String name = getString(file.getInt(element + 4));
+            int index = file.getInt(element + 8);
+            elements[i] = switch (kind) {
+                case OBJ_ELEMENT -> getObj(index);
+                case CALL_SITE_ELEMENT -> getMethod(name).getIR().getStmt(index);
+                case TYPE_ELEMENT -> World.get().getTypeSystem().getType(name);
+                default -> name;
+            };
+        }
+        return contextFactory.make(elements);
+    }
+
+    private StoredObj getObj(int id) {
+        if (objs[id] == null) {
+            long entry = offset(OBJECTS) + (long) id * 16;
+            String name = getString(file.getInt(entry));
+            Type type = World.get().getTypeSystem().getType(
+                    getString(file.getInt(entry + 4)));
+            int container = file.getInt(entry + 8);
+            JMethod method = container != -1 ? getMethod(container) : null;
+            int allocation = file.getInt(entry + 12);
+            objs[id] = new StoredObj(id, name, type, method,
+                    allocation != -1 ? method.getIR().getStmt(allocation) : name);
+        }
+        return objs[id];
+    }
+
+    private JMethod getMethod(int id) {
+        return getMethod(getString(id));
+    }
+
+    private JMethod getMethod(String signature) {
+        JMethod method = hierarchy.getMethod(signature);
+        if (method == null) {
+            throw new AnalysisException("Method " + signature +
+                    " in stored pointer analysis result is absent");
+        }
+        return method;
+    }
+
+    private String getString(int id) {
+        long start = file.getLong(stringOffsetsOffset + (long) id * Long.BYTES);
+        long end = file.getLong(stringOffsetsOffset + (long) (id + 1) * Long.BYTES);
+        return new String(file.getBytes(start, (int) (end - start)),
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return ID of given string, or -1 if the string is absent.
+     */
+    private int getId(String s) {
+        int low = 0, high = nStrings - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = getString(mid).compareTo(s);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static int readVarInt(ByteBuffer data) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        file.close();
+    }
+
+    /**
+     * Object read from stored result. Each object is created once
+     * by the result, thus objects are compared by identity.
+     */
+    public static class StoredObj implements Obj {
+
+        private final int index;
+
+        private final String name;
+
+        private final Type type;
+
+        private final JMethod containerMethod;
+
+        private final Object allocation;
+
+        private StoredObj(int index, String name, Type type,
+                          JMethod containerMethod, Object allocation) {
+            this.index = index;
+            this.name = name;
+            this.type = type;
+            this.containerMethod = containerMethod;
+            this.allocation = allocation;
+        }
+
+        @Override
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * @return the allocation statement of the object, or the name of
+         * the object if the allocation is not a statement.
+         */
+        @Override
+        public Object getAllocation() {
+            return allocation;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.ofNullable(containerMethod);
+        }
+
+        @Override
+        public Type getContainerType() {
+            return containerMethod != null ?
+                    containerMethod.getDeclaringClass().getType() : type;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * File mapped into memory by overlapping windows, so that files larger
+     * than 2GB can be mapped, and each read of at most {@link #WINDOW}
+     * bytes falls in a single window.
+     */
+    private static class MappedFile {
+
+        private static final int WINDOW = 1 << 29;
+
+        private final FileChannel channel;
+
+        private final long size;
+
+        private final MappedByteBuffer[] windows;
+
+        private MappedFile(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                size = channel.size();
+                windows = new MappedByteBuffer[(int) (size / WINDOW) + 1];
+                for (int i = 0; i < windows.length; ++i) {
+                    long start = (long) i * WINDOW;
+                    windows[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                            start, Math.min(2L * WINDOW, size - start));
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private ByteBuffer window(long pos) {
+            if (pos < 0 || pos >= size) {
+                throw new IndexOutOfBoundsException("Position " + pos
+                        + " out of pointer analysis result of size " + size);
+            }
+            return windows[(int) (pos / WINDOW)];
+        }
+
+        private int getInt(long pos) {
+            return window(pos).getInt((int) (pos % WINDOW));
+        }
+
+        private long getLong(long pos) {
+            return window(pos).getLong((int) (pos % WINDOW));
+        }
+
+        private byte[] getBytes(long pos, int length) {
+            byte[] bytes = new byte[length];
+            if (length > 0) {
+                window(pos).get((int) (pos % WINDOW), bytes);
+            }
+            return bytes;
+        }
+
+        /**
+         * @return a buffer of the data from given position to the end of
+         * the window, which is at least {@link #WINDOW} bytes unless
+         * the end of the file is reached.
+         */
+        private ByteBuffer slice(long pos) {
+            ByteBuffer window = window(pos);
+            int start = (int) (pos % WINDOW);
+            return window.slice(start, window.capacity() - start);
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
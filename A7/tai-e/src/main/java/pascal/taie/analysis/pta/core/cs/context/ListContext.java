@@ -23,79 +23,210 @@
 package pascal.taie.analysis.pta.core.cs.context;
 
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
 
-import java.util.List;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * List-based contexts. Each context is represented by a list of context elements.
+ * <p>
+ * The contexts are hash-consed: they are the nodes of a trie, where each
+ * context is the child of the context without its last element, thus
+ * every list of elements is represented by a unique context. As a result,
+ * contexts can be compared by identity, and each context is assigned
+ * a dense index, which can be used as the key of the context.
+ * <p>
+ * The trie is owned by a {@link Factory}, which should be created per
+ * analysis, so that the indexes are dense within each analysis, and
+ * the contexts are released together with the analysis.
  *
  * @param <T> type of context elements
  */
-public class ListContext<T> implements Context {
+public class ListContext<T> implements Context, Indexable {
 
     /**
-     * The empty context.
+     * The factory that owns this context.
      */
-    private static final ListContext<?> EMPTY_CONTEXT = new ListContext<>(List.of());
+    private final Factory factory;
 
     /**
-     * List of elements in the context.
+     * The context without the last element, or null for the empty context.
      */
-    private final List<T> elements;
+    private final ListContext<T> parent;
 
-    private ListContext(List<T> elements) {
-        this.elements = elements;
+    /**
+     * Elements in the context.
+     */
+    private final Object[] elements;
+
+    private final int index;
+
+    /**
+     * Map from each element to the context that appends it to this context.
+     * Created on demand and guarded by this context.
+     */
+    private Map<Object, ListContext<T>> children;
+
+    /**
+     * Cache of the context without the first element of this context.
+     * Racy but benign, as all computations produce the same context.
+     */
+    private ListContext<T> tail;
+
+    private ListContext(Factory factory, ListContext<T> parent, T element) {
+        this.factory = factory;
+        this.parent = parent;
+        if (parent == null) {
+            elements = new Object[0];
+        } else {
+            elements = Arrays.copyOf(parent.elements, parent.elements.length + 1);
+            elements[elements.length - 1] = element;
+        }
+        this.index = factory.counter.getAndIncrement();
     }
 
     /**
-     * @return an empty context.
+     * @return the factory that creates this context.
      */
-    public static Context make() {
-        return EMPTY_CONTEXT;
+    public Factory getFactory() {
+        return factory;
+    }
+
+    private ListContext<T> getChild(T element) {
+        synchronized (this) {
+            if (children == null) {
+                children = Maps.newHybridMap();
+            }
+            return children.computeIfAbsent(element,
+                    e -> new ListContext<>(factory, this, element));
+        }
     }
 
     /**
-     * @return a context that consists of given context elements.
+     * @return the context without the first element of this context.
      */
-    @SafeVarargs
-    public static <T> Context make(T... elements) {
-        return elements.length == 0 ?
-                EMPTY_CONTEXT : new ListContext<>(List.of(elements));
+    @SuppressWarnings("unchecked")
+    private ListContext<T> getTail() {
+        ListContext<T> result = tail;
+        if (result == null) {
+            result = parent.parent == null ?
+                    parent : parent.getTail().getChild((T) elements[elements.length - 1]);
+            tail = result;
+        }
+        return result;
     }
 
     @Override
     public int getLength() {
-        return elements.size();
+        return elements.length;
     }
 
     @Override
     public Object getElementAt(int i) {
-        if (i >= elements.size()) {
+        if (i >= elements.length) {
             throw new AnalysisException(
                     "Context " + this + " doesn't have " + i + "-th element");
         }
-        return elements.get(i);
+        return elements[i];
     }
 
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        ListContext<?> that = (ListContext<?>) o;
-        return elements.equals(that.elements);
+    public int getIndex() {
+        return index;
     }
 
     @Override
     public int hashCode() {
-        return elements.hashCode();
+        return index;
     }
 
     @Override
     public String toString() {
-        return elements.toString();
+        return Arrays.toString(elements);
+    }
+
+    /**
+     * Creates the list-based contexts of an analysis. The contexts created
+     * by different factories are never equal, and are indexed separately.
+     */
+    public static final class Factory {
+
+        /**
+         * Counter for assigning indexes to contexts.
+         */
+        private final AtomicInteger counter = new AtomicInteger();
+
+        /**
+         * The empty context, i.e., the root of the trie.
+         */
+        private final ListContext<?> emptyContext = new ListContext<>(this, null, null);
+
+        /**
+         * @return an empty context.
+         */
+        public Context make() {
+            return emptyContext;
+        }
+
+        /**
+         * @return a context that consists of given context elements.
+         */
+        @SafeVarargs
+        @SuppressWarnings("unchecked")
+        public final <T> Context make(T... elements) {
+            ListContext<T> context = (ListContext<T>) emptyContext;
+            for (T element : elements) {
+                context = context.getChild(element);
+            }
+            return context;
+        }
+
+        /**
+         * Appends an element to given context, and keeps at most
+         * the last {@code limit} elements of the result.
+         *
+         * @param context the context to be appended, which must be created
+         *                by this factory.
+         * @return a context whose last element is {@code element}, and whose
+         * other elements are the last ones (at most {@code limit - 1})
+         * of given context. If {@code limit} is 0, returns an empty context.
+         */
+        public <T> Context append(Context context, T element, int limit) {
+            if (limit <= 0) {
+                return emptyContext;
+            }
+            ListContext<T> prefix = truncate(cast(context), limit - 1);
+            return prefix.getChild(element);
+        }
+
+        /**
+         * @param context the context to be truncated, which must be created
+         *                by this factory.
+         * @return a context which consists of the last elements
+         * (at most {@code limit}) of given context.
+         */
+        public Context truncate(Context context, int limit) {
+            return truncate(cast(context), Math.max(limit, 0));
+        }
+
+        private static <T> ListContext<T> truncate(ListContext<T> context, int limit) {
+            while (context.getLength() > limit) {
+                context = context.getTail();
+            }
+            return context;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> ListContext<T> cast(Context context) {
+            if (!(context instanceof ListContext<?> listContext)
+                    || listContext.factory != this) {
+                throw new AnalysisException(
+                        "Context " + context + " is not created by this factory");
+            }
+            return (ListContext<T>) listContext;
+        }
     }
 }
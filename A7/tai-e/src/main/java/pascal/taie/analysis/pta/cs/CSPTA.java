@@ -22,7 +22,10 @@
 
 package pascal.taie.analysis.pta.cs;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.pta.MappedPointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
@@ -31,16 +34,21 @@ import pascal.taie.analysis.pta.plugin.ResultProcessor;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
+import pascal.taie.util.AnalysisException;
 import pascal.taie.util.Strings;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
 
 /**
  * Context-sensitive pointer analysis.
  */
 public class CSPTA extends ProgramAnalysis {
 
+    private static final Logger logger = LogManager.getLogger(CSPTA.class);
+
     public static final String ID = "cspta";
 
     public CSPTA(AnalysisConfig config) {
@@ -56,9 +64,27 @@ public class CSPTA extends ProgramAnalysis {
         solver.solve();
         PointerAnalysisResult result = solver.getResult();
         ResultProcessor.process(options, result);
+        String store = options.getString("store");
+        if (store != null) {
+            storeResult(result, store);
+        }
         return result;
     }
 
+    /**
+     * Writes the result to given file, so that it can be used by
+     * the clients running in other JVMs via {@link MappedPointerAnalysisResult}.
+     */
+    private static void storeResult(PointerAnalysisResult result, String store) {
+        logger.info("Storing pointer analysis result to {} ...", store);
+        try {
+            MappedPointerAnalysisResult.write(result, Path.of(store));
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to store pointer analysis result to " + store, e);
+        }
+    }
+
     private static ContextSelector getContextSelector(String cs) {
         if (cs.equals("ci")) {
             return new CISelector();
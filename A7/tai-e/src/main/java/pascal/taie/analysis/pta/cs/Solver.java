@@ -96,6 +96,8 @@ class Solver {
 
     private void initialize() {
         csManager = new MapBasedCSManager();
+        PointsToSetFactory.setImplementation(options.getString("pts-impl"),
+                csManager.getObjectIndexer());
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
@@ -23,9 +23,10 @@
 package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.Sets;
 
-import java.util.Set;
 import java.util.function.Supplier;
 
 /**
@@ -33,10 +34,34 @@ import java.util.function.Supplier;
  */
 public class PointsToSetFactory {
 
-    private static final Supplier<Set<CSObj>> setFactory = Sets::newHybridSet;
+    /**
+     * Default implementation, i.e., hybrid sets of {@link CSObj}.
+     */
+    private static final Supplier<PointsToSet> hybridFactory =
+            () -> new DelegatePointsToSet(Sets.newHybridSet());
+
+    private static Supplier<PointsToSet> ptsFactory = hybridFactory;
+
+    /**
+     * Selects the implementation of the points-to sets made by this factory.
+     *
+     * @param impl       the implementation, "hybrid" (default if null) for
+     *                   hash-based sets, or "bit" for bit vectors over
+     *                   the indexes of {@link CSObj}
+     * @param objIndexer the indexer of {@link CSObj}, used by bit vectors
+     */
+    public static void setImplementation(String impl, Indexer<CSObj> objIndexer) {
+        if (impl == null || impl.equals("hybrid")) {
+            ptsFactory = hybridFactory;
+        } else if (impl.equals("bit")) {
+            ptsFactory = () -> new BitVectorPointsToSet(objIndexer);
+        } else {
+            throw new ConfigException("Unexpected points-to set implementation: " + impl);
+        }
+    }
 
     public static PointsToSet make() {
-        return new DelegatePointsToSet(setFactory.get());
+        return ptsFactory.get();
     }
 
     /**
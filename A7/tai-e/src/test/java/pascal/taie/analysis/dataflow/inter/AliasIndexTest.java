@@ -0,0 +1,166 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.CIPointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public class AliasIndexTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/inter";
+
+    @Test
+    public void testAliases() {
+        Main.buildWorld("-pp", "-cp", CLASS_PATH, "-m", "Aliases");
+        IR ir = World.get().getMainMethod().getIR();
+        AliasIndex index = new AliasIndex(new LocalPointerAnalysisResult(ir), ir);
+        // a1.f = 1; a2.f = 2; s = 3;
+        List<Stmt> fieldStores = stmts(ir, StoreField.class);
+        // a3.f (a3 = a1); a2.f; s;
+        List<Stmt> fieldLoads = stmts(ir, LoadField.class);
+        Assert.assertEquals(3, fieldStores.size());
+        Assert.assertEquals(3, fieldLoads.size());
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertEquals(Set.of(fieldStores.get(i)),
+                    index.getStoresOf(fieldLoads.get(i)));
+            Assert.assertEquals(Set.of(fieldLoads.get(i)),
+                    index.getLoadsOf(fieldStores.get(i)));
+        }
+        // arr1[0] = 4; arr2[1] = 5;
+        List<Stmt> arrayStores = stmts(ir, StoreArray.class);
+        // arr1[0]; arr2[0];
+        List<Stmt> arrayLoads = stmts(ir, LoadArray.class);
+        Assert.assertEquals(2, arrayStores.size());
+        Assert.assertEquals(2, arrayLoads.size());
+        for (int i = 0; i < 2; ++i) {
+            // indexes are filtered by the analysis, not by the index
+            Assert.assertEquals(Set.of(arrayStores.get(i)),
+                    index.getStoresOf(arrayLoads.get(i)));
+            Assert.assertEquals(Set.of(arrayLoads.get(i)),
+                    index.getLoadsOf(arrayStores.get(i)));
+        }
+    }
+
+    @Test
+    public void testMayAlias() {
+        Value zero = Value.makeConstant(0);
+        Value one = Value.makeConstant(1);
+        Assert.assertTrue(InterConstantPropagation.mayAlias(zero, zero));
+        Assert.assertFalse(InterConstantPropagation.mayAlias(zero, one));
+        Assert.assertTrue(InterConstantPropagation.mayAlias(zero, Value.getNAC()));
+        Assert.assertTrue(InterConstantPropagation.mayAlias(Value.getNAC(), Value.getNAC()));
+        Assert.assertFalse(InterConstantPropagation.mayAlias(zero, Value.getUndef()));
+        Assert.assertFalse(InterConstantPropagation.mayAlias(Value.getUndef(), Value.getNAC()));
+    }
+
+    private static List<Stmt> stmts(IR ir, Class<? extends Stmt> kind) {
+        return ir.stmts().filter(kind::isInstance).toList();
+    }
+
+    /**
+     * Stub of pointer analysis result which only handles the allocations
+     * and copies in a single method, which is sufficient for the test case.
+     */
+    private static class LocalPointerAnalysisResult implements CIPointerAnalysisResult {
+
+        private final MultiMap<Var, Obj> pts = Maps.newMultiMap();
+
+        private LocalPointerAnalysisResult(IR ir) {
+            for (Stmt stmt : ir) {
+                if (stmt instanceof New newStmt) {
+                    pts.put(newStmt.getLValue(), new NewObj(newStmt));
+                }
+            }
+            boolean changed;
+            do {
+                changed = false;
+                for (Stmt stmt : ir) {
+                    if (stmt instanceof Copy copy) {
+                        changed |= pts.putAll(copy.getLValue(),
+                                pts.get(copy.getRValue()));
+                    } else if (stmt instanceof Cast cast) {
+                        changed |= pts.putAll(cast.getLValue(),
+                                pts.get(cast.getRValue().getValue()));
+                    }
+                }
+            } while (changed);
+        }
+
+        @Override
+        public Collection<Var> getVars() {
+            return pts.keySet();
+        }
+
+        @Override
+        public Collection<Obj> getObjects() {
+            return pts.values();
+        }
+
+        @Override
+        public Set<Obj> getPointsToSet(Var var) {
+            return pts.get(var);
+        }
+
+        @Override
+        public Set<Obj> getPointsToSet(Var base, JField field) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Set<Obj> getPointsToSet(JField field) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CallGraph<Invoke, JMethod> getCallGraph() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
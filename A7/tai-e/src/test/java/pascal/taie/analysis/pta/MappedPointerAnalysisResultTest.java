@@ -0,0 +1,366 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.StmtVisitor;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class MappedPointerAnalysisResultTest {
+
+    private static final String CLASS_PATH = "src/test/resources/pta/store";
+
+    /**
+     * Stores a pointer analysis result of given program to a file, and
+     * checks that the result opened from the file is the same as
+     * the context-insensitive view of the in-memory result.
+     */
+    void test(String main) throws IOException {
+        Main.buildWorld("-pp", "-cp", CLASS_PATH, "-m", main);
+        PointerAnalysisResult expected =
+                new ResultBuilder().build(World.get().getMainMethod());
+        checkNonEmpty(expected);
+        Path store = Files.createTempFile(main, ".pta");
+        try {
+            MappedPointerAnalysisResult.write(expected, store);
+            try (MappedPointerAnalysisResult given =
+                         MappedPointerAnalysisResult.open(store)) {
+                compare(expected, given);
+            }
+        } finally {
+            Files.deleteIfExists(store);
+        }
+    }
+
+    /**
+     * Checks that every kind of element of the result has some points-to
+     * facts, so that the comparison cannot pass vacuously.
+     */
+    private static void checkNonEmpty(PointerAnalysisResult result) {
+        Assert.assertTrue(result.getVars().stream()
+                .anyMatch(v -> !result.getPointsToSet(v).isEmpty()));
+        Assert.assertTrue(result.getInstanceFields().stream()
+                .anyMatch(f -> !f.getPointsToSet().isEmpty()));
+        Assert.assertTrue(result.getArrayIndexes().stream()
+                .anyMatch(a -> !a.getPointsToSet().isEmpty()));
+        Assert.assertTrue(result.getStaticFields().stream()
+                .anyMatch(f -> !f.getPointsToSet().isEmpty()));
+        Assert.assertTrue(result.getCSCallGraph().edges()
+                .anyMatch(e -> e.getCallee().getContext().getLength() > 0));
+    }
+
+    private static void compare(PointerAnalysisResult expected,
+                                MappedPointerAnalysisResult given) {
+        Assert.assertEquals(toStrings(expected.getVars().stream()),
+                toStrings(given.getVars().stream()));
+        Assert.assertEquals(toStrings(expected.getObjects().stream()),
+                toStrings(given.getObjects().stream()));
+        Set<JField> fields = expected.getInstanceFields()
+                .stream()
+                .map(InstanceField::getField)
+                .collect(Collectors.toSet());
+        for (Var var : expected.getVars()) {
+            Set<Obj> pts = expected.getPointsToSet(var);
+            Assert.assertEquals(var.toString(), toStrings(pts.stream()),
+                    toStrings(given.getPointsToSet(var).stream()));
+            for (JField field : fields) {
+                Assert.assertEquals(var + "." + field.getName(),
+                        toStrings(expected.getPointsToSet(var, field).stream()),
+                        toStrings(given.getPointsToSet(var, field).stream()));
+            }
+            Stream<CSObj> arrayPts = expected.getArrayIndexes()
+                    .stream()
+                    .filter(a -> pts.contains(a.getArray().getObject()))
+                    .flatMap(a -> a.getPointsToSet().objects());
+            Assert.assertEquals(var + "[*]",
+                    toStrings(arrayPts.map(CSObj::getObject)),
+                    toStrings(given.getArrayPointsToSet(var).stream()));
+        }
+        for (StaticField field : expected.getStaticFields()) {
+            JField jfield = field.getField();
+            Assert.assertEquals(jfield.toString(),
+                    toStrings(expected.getPointsToSet(jfield).stream()),
+                    toStrings(given.getPointsToSet(jfield).stream()));
+        }
+        Assert.assertEquals(
+                toStrings(expected.getCallGraph().reachableMethods()),
+                toStrings(given.getCallGraph().reachableMethods()));
+        Assert.assertEquals(
+                toStrings(expected.getCallGraph().edges()),
+                toStrings(given.getCallGraph().edges()));
+        Assert.assertEquals(
+                toStrings(expected.getCSCallGraph().edges()),
+                toStrings(given.getCSCallGraph().edges()));
+    }
+
+    /**
+     * Objects read from the file are different from the ones in memory,
+     * thus the elements are compared by their string representations.
+     */
+    private static List<String> toStrings(Stream<?> elements) {
+        return elements.map(Object::toString)
+                .sorted()
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testStore() throws IOException {
+        test("Store");
+    }
+
+    /**
+     * Builds a pointer analysis result without the solver, which is left
+     * to the assignment. The result is computed by iterating over
+     * the statements of reachable application methods until no points-to
+     * set changes, with 1-call-site sensitivity for methods and
+     * context-insensitive heap.
+     */
+    private static class ResultBuilder {
+
+        private final CSManager csManager = new MapBasedCSManager();
+
+        private final CSCallGraph callGraph = new CSCallGraph(csManager);
+
+        private final ListContext.Factory contextFactory = new ListContext.Factory();
+
+        private final Context emptyContext = contextFactory.make();
+
+        private final Map<New, Obj> objs = Maps.newMap();
+
+        private boolean changed;
+
+        private PointerAnalysisResult build(JMethod main) {
+            PointsToSetFactory.setImplementation(null, csManager.getObjectIndexer());
+            CSMethod csMain = csManager.getCSMethod(emptyContext, main);
+            callGraph.addEntryMethod(csMain);
+            callGraph.addReachableMethod(csMain);
+            do {
+                changed = false;
+                List<CSMethod> reachable = callGraph.reachableMethods().toList();
+                for (CSMethod csMethod : reachable) {
+                    StmtProcessor processor = new StmtProcessor(csMethod);
+                    csMethod.getMethod().getIR().forEach(s -> s.accept(processor));
+                }
+            } while (changed);
+            return new PointerAnalysisResultImpl(csManager, callGraph);
+        }
+
+        private void propagate(Pointer pointer, PointsToSet pts) {
+            if (pointer.getPointsToSet().addAll(pts)) {
+                changed = true;
+            }
+        }
+
+        private class StmtProcessor implements StmtVisitor<Void> {
+
+            private final Context context;
+
+            private StmtProcessor(CSMethod csMethod) {
+                this.context = csMethod.getContext();
+            }
+
+            private Pointer var(Var var) {
+                return csManager.getCSVar(context, var);
+            }
+
+            private PointsToSet pts(Var var) {
+                return var(var).getPointsToSet();
+            }
+
+            @Override
+            public Void visit(New stmt) {
+                Obj obj = objs.computeIfAbsent(stmt, NewObj::new);
+                propagate(var(stmt.getLValue()), PointsToSetFactory.make(
+                        csManager.getCSObj(emptyContext, obj)));
+                return null;
+            }
+
+            @Override
+            public Void visit(Copy stmt) {
+                propagate(var(stmt.getLValue()), pts(stmt.getRValue()));
+                return null;
+            }
+
+            @Override
+            public Void visit(Cast stmt) {
+                propagate(var(stmt.getLValue()),
+                        pts(stmt.getRValue().getValue()));
+                return null;
+            }
+
+            @Override
+            public Void visit(StoreField stmt) {
+                JField field = stmt.getFieldRef().resolve();
+                PointsToSet pts = pts(stmt.getRValue());
+                if (stmt.isStatic()) {
+                    propagate(csManager.getStaticField(field), pts);
+                } else {
+                    Var base = ((InstanceFieldAccess) stmt.getFieldAccess()).getBase();
+                    for (CSObj obj : List.copyOf(pts(base).getObjects())) {
+                        propagate(csManager.getInstanceField(obj, field), pts);
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public Void visit(LoadField stmt) {
+                JField field = stmt.getFieldRef().resolve();
+                Pointer lhs = var(stmt.getLValue());
+                if (stmt.isStatic()) {
+                    propagate(lhs, csManager.getStaticField(field).getPointsToSet());
+                } else {
+                    Var base = ((InstanceFieldAccess) stmt.getFieldAccess()).getBase();
+                    for (CSObj obj : List.copyOf(pts(base).getObjects())) {
+                        propagate(lhs, csManager.getInstanceField(obj, field)
+                                .getPointsToSet());
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public Void visit(StoreArray stmt) {
+                PointsToSet pts = pts(stmt.getRValue());
+                Var base = stmt.getArrayAccess().getBase();
+                for (CSObj array : List.copyOf(pts(base).getObjects())) {
+                    propagate(csManager.getArrayIndex(array), pts);
+                }
+                return null;
+            }
+
+            @Override
+            public Void visit(LoadArray stmt) {
+                Pointer lhs = var(stmt.getLValue());
+                Var base = stmt.getArrayAccess().getBase();
+                for (CSObj array : List.copyOf(pts(base).getObjects())) {
+                    propagate(lhs, csManager.getArrayIndex(array).getPointsToSet());
+                }
+                return null;
+            }
+
+            @Override
+            public Void visit(Invoke stmt) {
+                if (stmt.isStatic()) {
+                    addCall(stmt, stmt.getMethodRef().resolve(), null);
+                } else {
+                    Var base = ((InvokeInstanceExp) stmt.getInvokeExp()).getBase();
+                    for (CSObj recv : List.copyOf(pts(base).getObjects())) {
+                        JMethod callee = stmt.isSpecial()
+                                ? stmt.getMethodRef().resolve()
+                                : World.get().getClassHierarchy().dispatch(
+                                        recv.getObject().getType(), stmt.getMethodRef());
+                        addCall(stmt, callee, recv);
+                    }
+                }
+                return null;
+            }
+
+            /**
+             * Adds a call edge to the callee analyzed in the context of
+             * the call site, and passes the receiver object, arguments
+             * and return values. Library methods are not analyzed.
+             */
+            private void addCall(Invoke invoke, @Nullable JMethod callee,
+                                 @Nullable CSObj recv) {
+                if (callee == null || !callee.getDeclaringClass().isApplication()) {
+                    return;
+                }
+                CSCallSite csCallSite = csManager.getCSCallSite(context, invoke);
+                CSMethod csCallee = csManager.getCSMethod(
+                        contextFactory.make(invoke), callee);
+                if (callGraph.addReachableMethod(csCallee)) {
+                    changed = true;
+                }
+                if (callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke),
+                        csCallSite, csCallee))) {
+                    changed = true;
+                }
+                Context calleeContext = csCallee.getContext();
+                IR ir = callee.getIR();
+                if (recv != null) {
+                    propagate(csManager.getCSVar(calleeContext, ir.getThis()),
+                            PointsToSetFactory.make(recv));
+                }
+                List<Var> args = invoke.getInvokeExp().getArgs();
+                for (int i = 0; i < args.size(); ++i) {
+                    propagate(csManager.getCSVar(calleeContext, ir.getParam(i)),
+                            pts(args.get(i)));
+                }
+                Var result = invoke.getResult();
+                if (result != null) {
+                    for (Var ret : ir.getReturnVars()) {
+                        propagate(var(result), csManager.getCSVar(
+                                calleeContext, ret).getPointsToSet());
+                    }
+                }
+            }
+        }
+    }
+}
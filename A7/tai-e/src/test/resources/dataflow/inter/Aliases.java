@@ -0,0 +1,26 @@
+class Aliases {
+
+    static int s;
+
+    public static void main(String[] args) {
+        A a1 = new A();
+        A a2 = new A();
+        A a3 = a1;
+        a1.f = 1;
+        a2.f = 2;
+        int x = a3.f;
+        int y = a2.f;
+        s = 3;
+        int z = s;
+        int[] arr1 = new int[2];
+        int[] arr2 = new int[2];
+        arr1[0] = 4;
+        arr2[1] = 5;
+        int u = arr1[0];
+        int v = arr2[0];
+    }
+}
+
+class A {
+    int f;
+}
@@ -0,0 +1,29 @@
+class Store {
+
+    static Object s;
+
+    public static void main(String[] args) {
+        Node n1 = new Node();
+        Node n2 = new Node();
+        n1.setNext(n2);
+        Node n3 = n1.getNext();
+        Object[] arr = new Object[2];
+        arr[0] = n3;
+        s = arr;
+        Object[] a = (Object[]) s;
+        Object o = a[0];
+    }
+}
+
+class Node {
+
+    Node next;
+
+    void setNext(Node next) {
+        this.next = next;
+    }
+
+    Node getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Manages context-sensitive elements and pointers via int-indexed tables.
+ * <p>
+ * Each variable is given a global index, i.e., its index in the IR
+ * ({@link Var#getIndex()}) plus the offset of its containing method,
+ * and the context-sensitive variables are looked up in a flat array by
+ * the global index, and then in a small open-addressing map by the index
+ * of context. Thus, this manager requires that all contexts are
+ * {@link Indexable}, e.g., {@link pascal.taie.analysis.pta.core.cs.context.ListContext}.
+ * <p>
+ * Unlike {@link ConcurrentCSManager}, this manager is not thread-safe.
+ */
+public class ArrayBasedCSManager implements CSManager {
+
+    /**
+     * Map from each method to the offset of the indexes of its variables.
+     */
+    private final Map<JMethod, Integer> varOffsets = Maps.newMap();
+
+    /**
+     * The method of last variable lookup, and the offset of the method.
+     * Consecutive lookups often query the variables of the same method.
+     */
+    private JMethod lastMethod;
+
+    private int lastOffset;
+
+    /**
+     * The offset for the next method.
+     */
+    private int nextOffset = 0;
+
+    /**
+     * The i-th element is the context-sensitive variables
+     * of the variable whose global index is i.
+     */
+    private ContextMap<CSVar>[] varTable = newTable(1024);
+
+    private final List<Var> vars = new ArrayList<>();
+
+    private final List<CSVar> csVars = new ArrayList<>();
+
+    private final Map<Obj, ContextMap<CSObj>> objMap = Maps.newMap();
+
+    /**
+     * The i-th element is the object whose index is i.
+     */
+    private final List<CSObj> objs = new ArrayList<>();
+
+    private final Map<Invoke, ContextMap<CSCallSite>> callSites = Maps.newMap();
+
+    private final Map<JMethod, ContextMap<CSMethod>> methods = Maps.newMap();
+
+    private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+    /**
+     * The i-th element is the instance fields of the object whose index is i.
+     */
+    private final List<Map<JField, InstanceField>> instanceFieldTable = new ArrayList<>();
+
+    private final List<InstanceField> instanceFields = new ArrayList<>();
+
+    /**
+     * The i-th element is the array index of the object whose index is i.
+     */
+    private final List<ArrayIndex> arrayIndexTable = new ArrayList<>();
+
+    private final List<ArrayIndex> arrayIndexes = new ArrayList<>();
+
+    private final Indexer<CSObj> objIndexer = new Indexer<>() {
+
+        @Override
+        public int getIndex(CSObj o) {
+            return o.getIndex();
+        }
+
+        @Override
+        public CSObj getObject(int index) {
+            return objs.get(index);
+        }
+    };
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        int index = getVarOffset(var.getMethod()) + var.getIndex();
+        if (index >= varTable.length) {
+            varTable = Arrays.copyOf(varTable,
+                    Math.max(varTable.length << 1, index + 1));
+        }
+        ContextMap<CSVar> csVarsOfVar = varTable[index];
+        if (csVarsOfVar == null) {
+            csVarsOfVar = new ContextMap<>();
+            varTable[index] = csVarsOfVar;
+            vars.add(var);
+        }
+        int ctxIndex = getIndex(context);
+        CSVar csVar = csVarsOfVar.get(ctxIndex);
+        if (csVar == null) {
+            csVar = initializePointsToSet(new CSVar(var, context));
+            csVarsOfVar.put(ctxIndex, csVar);
+            csVars.add(csVar);
+        }
+        return csVar;
+    }
+
+    private int getVarOffset(JMethod method) {
+        if (method != lastMethod) {
+            Integer offset = varOffsets.get(method);
+            if (offset == null) {
+                offset = nextOffset;
+                nextOffset += method.getIR().getVars().size();
+                varOffsets.put(method, offset);
+            }
+            lastMethod = method;
+            lastOffset = offset;
+        }
+        return lastOffset;
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return objMap.computeIfAbsent(obj, o -> new ContextMap<>())
+                .computeIfAbsent(getIndex(heapContext), i -> {
+                    CSObj csObj = new CSObj(obj, heapContext, objs.size());
+                    objs.add(csObj);
+                    instanceFieldTable.add(null);
+                    arrayIndexTable.add(null);
+                    return csObj;
+                });
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        return callSites.computeIfAbsent(callSite, c -> new ContextMap<>())
+                .computeIfAbsent(getIndex(context),
+                        i -> new CSCallSite(callSite, context));
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return methods.computeIfAbsent(method, m -> new ContextMap<>())
+                .computeIfAbsent(getIndex(context),
+                        i -> new CSMethod(method, context));
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return staticFields.computeIfAbsent(field,
+                f -> initializePointsToSet(new StaticField(f)));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        int index = base.getIndex();
+        Map<JField, InstanceField> fields = instanceFieldTable.get(index);
+        if (fields == null) {
+            fields = Maps.newSmallMap();
+            instanceFieldTable.set(index, fields);
+        }
+        return fields.computeIfAbsent(field, f -> {
+            InstanceField instanceField =
+                    initializePointsToSet(new InstanceField(base, f));
+            instanceFields.add(instanceField);
+            return instanceField;
+        });
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        int index = array.getIndex();
+        ArrayIndex arrayIndex = arrayIndexTable.get(index);
+        if (arrayIndex == null) {
+            arrayIndex = initializePointsToSet(new ArrayIndex(array));
+            arrayIndexTable.set(index, arrayIndex);
+            arrayIndexes.add(arrayIndex);
+        }
+        return arrayIndex;
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return Collections.unmodifiableList(vars);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        Integer offset = varOffsets.get(var.getMethod());
+        if (offset != null) {
+            int index = offset + var.getIndex();
+            if (index < varTable.length && varTable[index] != null) {
+                return varTable[index].values();
+            }
+        }
+        return Set.of();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return Collections.unmodifiableList(csVars);
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return Collections.unmodifiableList(objs);
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return Collections.unmodifiableList(instanceFields);
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableList(arrayIndexes);
+    }
+
+    @Override
+    public Indexer<CSObj> getObjectIndexer() {
+        return objIndexer;
+    }
+
+    private <P extends Pointer> P initializePointsToSet(P pointer) {
+        pointer.setPointsToSet(PointsToSetFactory.make());
+        return pointer;
+    }
+
+    private static int getIndex(Context context) {
+        if (context instanceof Indexable indexable) {
+            return indexable.getIndex();
+        }
+        throw new AnalysisException(ArrayBasedCSManager.class.getSimpleName() +
+                " requires indexable contexts, given: " + context);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> ContextMap<V>[] newTable(int length) {
+        return (ContextMap<V>[]) new ContextMap<?>[length];
+    }
+
+    /**
+     * Open-addressing map from context indexes to elements. Most elements
+     * have only a few contexts, so the map starts small and uses linear
+     * probing; indexes are stored plus one so that zero marks empty slots.
+     */
+    private static class ContextMap<V> {
+
+        private int[] keys = new int[2];
+
+        private Object[] values = new Object[2];
+
+        private int size = 0;
+
+        @SuppressWarnings("unchecked")
+        private V get(int ctxIndex) {
+            int key = ctxIndex + 1;
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return (V) values[i];
+                }
+            }
+            return null;
+        }
+
+        private void put(int ctxIndex, V value) {
+            if ((size + 1) << 1 > keys.length) {
+                resize();
+            }
+            insert(ctxIndex + 1, value);
+            ++size;
+        }
+
+        private V computeIfAbsent(int ctxIndex, IntFunction<V> mappingFunction) {
+            V value = get(ctxIndex);
+            if (value == null) {
+                value = mappingFunction.apply(ctxIndex);
+                put(ctxIndex, value);
+            }
+            return value;
+        }
+
+        private void insert(int key, Object value) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new int[oldKeys.length << 1];
+            values = new Object[oldValues.length << 1];
+            for (int i = 0; i < oldKeys.length; ++i) {
+                if (oldKeys[i] != 0) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Collection<V> values() {
+            List<V> result = new ArrayList<>(size);
+            for (Object value : values) {
+                if (value != null) {
+                    result.add((V) value);
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        private static int mix(int key) {
+            return key * 0x9E3779B9;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * Manages context-sensitive elements and pointers via concurrent maps.
+ * <p>
+ * This manager is thread-safe: each element is interned atomically,
+ * so that concurrent requests for the same element always obtain
+ * the same instance. It is used by the parallel pointer analysis, and
+ * the sequential one uses the cheaper {@link MapBasedCSManager}.
+ */
+public class ConcurrentCSManager implements CSManager {
+
+    private final InternMap<Var, Context, CSVar> vars = new InternMap<>();
+
+    private final CSObjManager objManager = new CSObjManager();
+
+    private final InternMap<Invoke, Context, CSCallSite> callSites = new InternMap<>();
+
+    private final InternMap<JMethod, Context, CSMethod> methods = new InternMap<>();
+
+    private final ConcurrentMap<JField, StaticField> staticFields = Maps.newConcurrentMap();
+
+    private final InternMap<CSObj, JField, InstanceField> instanceFields = new InternMap<>();
+
+    private final ConcurrentMap<CSObj, ArrayIndex> arrayIndexes = Maps.newConcurrentMap();
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        return vars.computeIfAbsent(var, context,
+                (v, c) -> initializePointsToSet(new CSVar(v, c)));
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return objManager.getCSObj(heapContext, obj);
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        return callSites.computeIfAbsent(callSite, context, CSCallSite::new);
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return methods.computeIfAbsent(method, context, CSMethod::new);
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return staticFields.computeIfAbsent(field,
+                f -> initializePointsToSet(new StaticField(f)));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        return instanceFields.computeIfAbsent(base, field,
+                (b, f) -> initializePointsToSet(new InstanceField(b, f)));
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        return arrayIndexes.computeIfAbsent(array,
+                a -> initializePointsToSet(new ArrayIndex(a)));
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return vars.keySet();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return vars.values();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        return vars.get(var);
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return objManager.getObjects();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return instanceFields.values();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableCollection(arrayIndexes.values());
+    }
+
+    @Override
+    public Indexer<CSObj> getObjectIndexer() {
+        return objManager;
+    }
+
+    private <P extends Pointer> P initializePointsToSet(P pointer) {
+        pointer.setPointsToSet(PointsToSetFactory.make());
+        return pointer;
+    }
+
+    /**
+     * Two-level concurrent map which interns the values by two keys.
+     */
+    private static class InternMap<K1, K2, V> {
+
+        private final ConcurrentMap<K1, ConcurrentMap<K2, V>> map =
+                Maps.newConcurrentMap();
+
+        private V computeIfAbsent(K1 key1, K2 key2,
+                                  BiFunction<K1, K2, V> mappingFunction) {
+            // look up first to avoid locking on existing entries
+            ConcurrentMap<K2, V> map2 = map.get(key1);
+            if (map2 == null) {
+                map2 = map.computeIfAbsent(key1, k -> Maps.newConcurrentMap(4));
+            }
+            V value = map2.get(key2);
+            return value != null ? value :
+                    map2.computeIfAbsent(key2,
+                            k -> mappingFunction.apply(key1, k));
+        }
+
+        private Set<K1> keySet() {
+            return Collections.unmodifiableSet(map.keySet());
+        }
+
+        private Collection<V> get(K1 key1) {
+            Map<K2, V> map2 = map.get(key1);
+            return map2 != null ?
+                    Collections.unmodifiableCollection(map2.values()) : Set.of();
+        }
+
+        private Collection<V> values() {
+            return map.values()
+                    .stream()
+                    .flatMap(map2 -> map2.values().stream())
+                    .toList();
+        }
+    }
+
+    /**
+     * Creates context-sensitive objects and assigns each of them
+     * a dense index in the order of creation.
+     */
+    private static class CSObjManager implements Indexer<CSObj> {
+
+        private final InternMap<Obj, Context, CSObj> objMap = new InternMap<>();
+
+        /**
+         * The i-th element is the object whose index is i.
+         * Guarded by itself.
+         */
+        private final List<CSObj> objs = new ArrayList<>();
+
+        private CSObj getCSObj(Context heapContext, Obj obj) {
+            return objMap.computeIfAbsent(obj, heapContext, (o, c) -> {
+                synchronized (objs) {
+                    CSObj csObj = new CSObj(o, c, objs.size());
+                    objs.add(csObj);
+                    return csObj;
+                }
+            });
+        }
+
+        private Collection<CSObj> getObjects() {
+            synchronized (objs) {
+                return List.copyOf(objs);
+            }
+        }
+
+        @Override
+        public int getIndex(CSObj o) {
+            return o.getIndex();
+        }
+
+        @Override
+        public CSObj getObject(int index) {
+            synchronized (objs) {
+                return objs.get(index);
+            }
+        }
+    }
+}
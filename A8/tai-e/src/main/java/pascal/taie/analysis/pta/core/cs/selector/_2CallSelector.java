@@ -36,21 +36,16 @@ import pascal.taie.language.classes.JMethod;
  */
 public class _2CallSelector implements ContextSelector {
 
+    private final ListContext.Factory contextFactory = new ListContext.Factory();
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return contextFactory.make();
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
-        Context callSiteContext = callSite.getContext();
-        if (callSiteContext.getLength() > 0)
-            return ListContext.make(
-                    callSiteContext.getElementAt(callSiteContext.getLength() - 1),
-                    callSite.getCallSite()
-                    );
-        else
-            return ListContext.make(callSite.getCallSite());
+        return contextFactory.append(callSite.getContext(), callSite.getCallSite(), 2);
     }
 
     @Override
@@ -60,10 +55,6 @@ public class _2CallSelector implements ContextSelector {
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
-        Context methodContext = method.getContext();
-        if (methodContext.getLength() > 0)
-            return ListContext.make(methodContext.getElementAt(methodContext.getLength() - 1));
-        else
-            return getEmptyContext();
+        return contextFactory.truncate(method.getContext(), 1);
     }
 }
@@ -36,9 +36,11 @@ import pascal.taie.language.type.Type;
  */
 public class _2TypeSelector implements ContextSelector {
 
+    private final ListContext.Factory contextFactory = new ListContext.Factory();
+
     @Override
     public Context getEmptyContext() {
-        return ListContext.make();
+        return contextFactory.make();
     }
 
     @Override
@@ -49,23 +51,12 @@ public class _2TypeSelector implements ContextSelector {
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
         if (recv == null) return selectContext(callSite, callee);
-
-        Context csObjContext = recv.getContext();
-        if (csObjContext.getLength() > 0)
-            return ListContext.make(
-                    csObjContext.getElementAt(csObjContext.getLength() - 1),
-                    recv.getObject().getContainerType()
-            );
-        else
-            return ListContext.make(recv.getObject().getContainerType());
+        return contextFactory.append(recv.getContext(),
+                recv.getObject().getContainerType(), 2);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
-        Context methodContext = method.getContext();
-        if (methodContext.getLength() > 0)
-            return ListContext.make(methodContext.getElementAt(methodContext.getLength() - 1));
-        else
-            return getEmptyContext();
+        return contextFactory.truncate(method.getContext(), 1);
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Work list shared by the threads of parallel pointer analysis.
+ * <p>
+ * The pointers are distributed to a number of partitions by their hash
+ * codes, and each thread polls its own partition first and steals from
+ * the other partitions when its own one is empty. As in {@link WorkList},
+ * each pointer appears in the work list at most once, and its pending
+ * delta is merged in place.
+ * <p>
+ * The work list also detects termination: it counts the entries which
+ * have been added but not finished yet, and a thread stops polling when
+ * this count drops to zero, as no more entries can be added then.
+ */
+class ConcurrentWorkList extends WorkList {
+
+    private final List<Queue<Pointer>> partitions;
+
+    /**
+     * Map from each pointer in the work list to its pending delta.
+     */
+    private final ConcurrentMap<Pointer, PointsToSet> pendingDeltas =
+            Maps.newConcurrentMap();
+
+    /**
+     * Number of entries which have been added to this work list
+     * but have not been finished.
+     */
+    private final AtomicInteger unfinished = new AtomicInteger();
+
+    private final StripedLocks locks;
+
+    private volatile boolean aborted = false;
+
+    /**
+     * @param nPartitions number of partitions, usually the number of threads.
+     * @param locks       locks that guard the points-to sets of pointers.
+     */
+    ConcurrentWorkList(int nPartitions, StripedLocks locks) {
+        partitions = new ArrayList<>(nPartitions);
+        for (int i = 0; i < nPartitions; ++i) {
+            partitions.add(new ConcurrentLinkedQueue<>());
+        }
+        this.locks = locks;
+    }
+
+    @Override
+    void addEntry(Pointer pointer, PointsToSet pointsToSet) {
+        PointsToSet diff = PointsToSetFactory.make();
+        synchronized (locks.get(pointer)) {
+            PointsToSet pts = pointer.getPointsToSet();
+            for (CSObj obj : pointsToSet) {
+                if (!pts.contains(obj)) {
+                    diff.addObject(obj);
+                }
+            }
+        }
+        if (!diff.isEmpty()) {
+            merge(pointer, diff);
+        }
+    }
+
+    @Override
+    void addEntry(Pointer pointer, CSObj obj) {
+        synchronized (locks.get(pointer)) {
+            if (pointer.getPointsToSet().contains(obj)) {
+                return;
+            }
+        }
+        merge(pointer, PointsToSetFactory.make(obj));
+    }
+
+    /**
+     * Merges given objects into the pending delta of given pointer,
+     * and adds the pointer to its partition if it is not in the work list.
+     */
+    private void merge(Pointer pointer, PointsToSet objs) {
+        pendingDeltas.compute(pointer, (p, delta) -> {
+            if (delta == null) {
+                unfinished.incrementAndGet();
+                partitions.get(partitionOf(p)).add(p);
+                return objs;
+            } else {
+                delta.addAll(objs);
+                return delta;
+            }
+        });
+    }
+
+    private int partitionOf(Pointer pointer) {
+        return Math.floorMod(pointer.hashCode(), partitions.size());
+    }
+
+    /**
+     * Retrieves and removes an entry, trying given partition first.
+     * If all partitions are empty but some entries are still unfinished,
+     * waits for new entries.
+     *
+     * @return an entry, or null if all entries have been finished
+     * or the work list has been aborted.
+     */
+    Entry pollEntry(int partition) {
+        while (!aborted) {
+            for (int i = 0; i < partitions.size(); ++i) {
+                Pointer pointer = partitions.get((partition + i) % partitions.size()).poll();
+                if (pointer != null) {
+                    return new Entry(pointer, pendingDeltas.remove(pointer));
+                }
+            }
+            if (unfinished.get() == 0) {
+                return null;
+            }
+            Thread.yield();
+        }
+        return null;
+    }
+
+    /**
+     * Marks an entry returned by {@link #pollEntry(int)} as finished.
+     * This must be called after all entries derived from processing
+     * the entry have been added.
+     */
+    void finish() {
+        unfinished.decrementAndGet();
+    }
+
+    /**
+     * Stops all threads polling this work list, e.g., when one of them fails.
+     */
+    void abort() {
+        aborted = true;
+    }
+
+    @Override
+    Entry pollEntry() {
+        return pollEntry(0);
+    }
+
+    @Override
+    boolean isEmpty() {
+        return unfinished.get() == 0;
+    }
+}
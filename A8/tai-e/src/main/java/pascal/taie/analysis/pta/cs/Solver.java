@@ -32,12 +32,14 @@ import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.ConcurrentCSManager;
 import pascal.taie.analysis.pta.core.cs.element.InstanceField;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
@@ -45,18 +47,27 @@ import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.plugin.ResultProcessor;
 import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Solver {
 
@@ -80,16 +91,43 @@ public class Solver {
 
     private PointerAnalysisResult result;
 
-    private final Map<Var, Set<Invoke>> argInvokeMap;
-    private final Map<Invoke, Set<Var>> invokeBaseObjMap;
+    /**
+     * Whether online cycle elimination in PFG is enabled.
+     */
+    private final boolean cycleElimination;
+
+    /**
+     * Number of threads used to solve the analysis.
+     */
+    private final int threads;
+
+    /**
+     * Locks that guard the points-to sets in parallel mode,
+     * or null if the analysis is solved by a single thread.
+     */
+    private StripedLocks locks;
+
+    /**
+     * Lock that serializes the updates of call graph and the accesses
+     * to the components which are not thread-safe, i.e., heap model,
+     * context selector, class hierarchy, IR builder and taint analysis.
+     */
+    private final Object callLock = new Object();
 
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
         this.heapModel = heapModel;
         this.contextSelector = contextSelector;
-        this.argInvokeMap = new HashMap<>();
-        this.invokeBaseObjMap = new HashMap<>();
+        this.threads = options.get("threads") != null ?
+                Math.max(1, options.getInt("threads")) : 1;
+        boolean cycleElim = options.getBooleanOrDefault("cycle-elim", false);
+        if (cycleElim && threads > 1) {
+            logger.warn("Cycle elimination is not supported by parallel" +
+                    " pointer analysis, disable it");
+            cycleElim = false;
+        }
+        this.cycleElimination = cycleElim;
     }
 
     public AnalysisOptions getOptions() {
@@ -111,10 +149,18 @@ public class Solver {
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
+        csManager = newCSManager();
+        PointsToSetFactory.setImplementation(options.getString("pts-impl"),
+                csManager.getObjectIndexer());
         callGraph = new CSCallGraph(csManager);
-        pointerFlowGraph = new PointerFlowGraph();
-        workList = new WorkList();
+        if (threads > 1) {
+            pointerFlowGraph = new PointerFlowGraph(true);
+            locks = new StripedLocks(threads);
+            workList = new ConcurrentWorkList(threads, locks);
+        } else {
+            pointerFlowGraph = new PointerFlowGraph();
+            workList = new WorkList();
+        }
         taintAnalysis = new TaintAnalysiss(this);
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
@@ -124,8 +170,29 @@ public class Solver {
         addReachable(csMethod);
     }
 
+    /**
+     * Creates the manager of context-sensitive elements specified by
+     * option "cs-manager", i.e., "map" (default) or "array". For parallel
+     * analysis, "map" gives the thread-safe {@link ConcurrentCSManager}.
+     */
+    private CSManager newCSManager() {
+        String impl = options.getString("cs-manager");
+        if (impl == null || impl.equals("map")) {
+            return threads > 1 ? new ConcurrentCSManager() : new MapBasedCSManager();
+        } else if (impl.equals("array")) {
+            if (threads > 1) {
+                throw new ConfigException("cs-manager:array is not thread-safe," +
+                        " use cs-manager:map for parallel analysis");
+            }
+            return new ArrayBasedCSManager();
+        } else {
+            throw new ConfigException("Unknown cs-manager: " + impl);
+        }
+    }
+
     /**
      * Processes new reachable context-sensitive method.
+     * In parallel mode, this method must be called with {@link #callLock} held.
      */
     private void addReachable(CSMethod csMethod) {
         // TODO - finish me
@@ -141,7 +208,7 @@ public class Solver {
 
     public void workListAddEntry(CSVar ptr, CSObj csObj) {
         if (ptr != null && csObj != null)
-            workList.addEntry(ptr, PointsToSetFactory.make(csObj));
+            workList.addEntry(ptr, csObj);
     }
 
     /**
@@ -166,8 +233,7 @@ public class Solver {
 
             Context ctx = contextSelector.selectHeapContext(csMethod, obj);
             CSObj csObj = csManager.getCSObj(ctx, obj);
-            PointsToSet pointsToSet = PointsToSetFactory.make(csObj);
-            workList.addEntry(x, pointsToSet);
+            workList.addEntry(x, csObj);
             return null;
         }
 
@@ -196,11 +262,6 @@ public class Solver {
         }
 
         public Void visit(Invoke stmt) {
-            for (Var var: stmt.getInvokeExp().getArgs()) {
-                argInvokeMap.computeIfAbsent(var, (k) -> new HashSet<>());
-                Set<Invoke> argInvokeSet = argInvokeMap.get(var);
-                argInvokeSet.add(stmt);
-            }
             if (!stmt.isStatic()) return null;
             processInstStaticCall(null, stmt, context, null);
             // source只有静态调用
@@ -213,9 +274,26 @@ public class Solver {
      */
     private void addPFGEdge(Pointer source, Pointer target) {
         // TODO - finish me
-        if (pointerFlowGraph.addEdge(source, target))
-            if (!source.getPointsToSet().isEmpty())
-                workList.addEntry(target, source.getPointsToSet());
+        if (pointerFlowGraph.addEdge(source, target)) {
+            PointsToSet sourcePts = getPointsToSetOf(source);
+            if (!sourcePts.isEmpty())
+                workList.addEntry(target, sourcePts);
+        }
+    }
+
+    /**
+     * @return the points-to set of given pointer. In parallel mode,
+     * returns a copy which is not affected by concurrent updates.
+     */
+    public PointsToSet getPointsToSetOf(Pointer pointer) {
+        if (locks == null) {
+            return pointer.getPointsToSet();
+        }
+        PointsToSet copy = PointsToSetFactory.make();
+        synchronized (locks.get(pointer)) {
+            copy.addAll(pointer.getPointsToSet());
+        }
+        return copy;
     }
 
     /**
@@ -223,76 +301,174 @@ public class Solver {
      */
     private void analyze() {
         // TODO - finish me
+        if (threads > 1) {
+            analyzeInParallel();
+            return;
+        }
         while (!workList.isEmpty()) {
             WorkList.Entry entry = workList.pollEntry();
             PointsToSet delta = propagate(entry.pointer(), entry.pointsToSet());
-            if (entry.pointer() instanceof CSVar varPtr) {
-                Var x = varPtr.getVar();
-                // c
-                Context context = varPtr.getContext();
-                for (var obj : delta.getObjects()) {
-                    // y = x.f
-                    for (var loadField : x.getLoadFields()) {
-                        if (loadField.isStatic()) continue;
-                        addPFGEdge(
-                                csManager.getInstanceField(obj, loadField.getFieldRef().resolve()),
-                                csManager.getCSVar(context, loadField.getLValue())
-                        );
-                    }
-                    // x.f = y
-                    for (var storeField : x.getStoreFields()) {
-                        if (storeField.isStatic()) continue;
-                        addPFGEdge(
-                                csManager.getCSVar(context, storeField.getRValue()) ,
-                                csManager.getInstanceField(obj, storeField.getFieldRef().resolve())
-                        );
-                    }
-                    //y = x[i]
-                    for (var loadArray : x.getLoadArrays()) {
-                        addPFGEdge(
-                                csManager.getArrayIndex(obj),
-                                csManager.getCSVar(context, loadArray.getLValue())
-                        );
-                    }
-                    // x[i] = y
-                    for (var storeArray : x.getStoreArrays()) {
-                        addPFGEdge(
-                                csManager.getCSVar(context, storeArray.getRValue()),
-                                csManager.getArrayIndex(obj)
-                        );
-                    }
-                    processCall((CSVar) entry.pointer(), obj);
+            if (!delta.isEmpty()) {
+                // all pointers collapsed with entry.pointer() share its points-to set
+                for (Pointer pointer : pointerFlowGraph.getMembersOf(entry.pointer())) {
+                    processNewObjects(pointer, delta);
+                }
+                if (cycleElimination) {
+                    eliminateCycles(entry.pointer());
                 }
-                argInvokeMap.computeIfAbsent(x, (k) -> new HashSet<>());
-                for (Invoke argInvoke: argInvokeMap.get(x)) {
-                    Var resultVar = argInvoke.getLValue();
-                    invokeBaseObjMap.computeIfAbsent(argInvoke, (k) -> new HashSet<>());
-                    for (Var recvVar: invokeBaseObjMap.get(argInvoke)) {
-                        taintAnalysis.processTransfer(context, recvVar, resultVar, argInvoke);
+            }
+        }
+    }
+
+    /**
+     * Processes work-list entries by multiple threads until all entries
+     * are finished. Each thread runs the same loop as {@link #analyze()},
+     * and as the analysis is monotone, the result does not depend on
+     * the order in which the entries are processed.
+     */
+    private void analyzeInParallel() {
+        ConcurrentWorkList concurrentWorkList = (ConcurrentWorkList) workList;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; ++i) {
+                int partition = i;
+                futures.add(executor.submit(() -> {
+                    try {
+                        WorkList.Entry entry;
+                        while ((entry = concurrentWorkList.pollEntry(partition)) != null) {
+                            PointsToSet delta = propagate(entry.pointer(), entry.pointsToSet());
+                            if (!delta.isEmpty()) {
+                                processNewObjects(entry.pointer(), delta);
+                            }
+                            concurrentWorkList.finish();
+                        }
+                    } catch (RuntimeException | Error e) {
+                        concurrentWorkList.abort();
+                        throw e;
                     }
-                    taintAnalysis.processTransfer(context, null, resultVar, argInvoke);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Parallel pointer analysis is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new AnalysisException("Parallel pointer analysis failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Processes the statements related to given pointer when
+     * new objects (delta) are added to its points-to set.
+     */
+    private void processNewObjects(Pointer pointer, PointsToSet delta) {
+        if (pointer instanceof CSVar varPtr) {
+            Var x = varPtr.getVar();
+            // c
+            Context context = varPtr.getContext();
+            for (var obj : delta.getObjects()) {
+                // y = x.f
+                for (var loadField : x.getLoadFields()) {
+                    if (loadField.isStatic()) continue;
+                    addPFGEdge(
+                            csManager.getInstanceField(obj, loadField.getFieldRef().resolve()),
+                            csManager.getCSVar(context, loadField.getLValue())
+                    );
+                }
+                // x.f = y
+                for (var storeField : x.getStoreFields()) {
+                    if (storeField.isStatic()) continue;
+                    addPFGEdge(
+                            csManager.getCSVar(context, storeField.getRValue()) ,
+                            csManager.getInstanceField(obj, storeField.getFieldRef().resolve())
+                    );
+                }
+                //y = x[i]
+                for (var loadArray : x.getLoadArrays()) {
+                    addPFGEdge(
+                            csManager.getArrayIndex(obj),
+                            csManager.getCSVar(context, loadArray.getLValue())
+                    );
                 }
+                // x[i] = y
+                for (var storeArray : x.getStoreArrays()) {
+                    addPFGEdge(
+                            csManager.getCSVar(context, storeArray.getRValue()),
+                            csManager.getArrayIndex(obj)
+                    );
+                }
+                processCall(varPtr, obj);
+            }
+            synchronized (callLock) {
+                taintAnalysis.onNewPointsToSet(varPtr, delta);
             }
         }
     }
 
+    /**
+     * Detects cycles starting from given pointer in the PFG and collapses them.
+     * The points-to sets of the nodes in each cycle are merged into the one of
+     * the representative, and the objects that are new to each node are
+     * processed as if they were propagated to the node.
+     */
+    private void eliminateCycles(Pointer pointer) {
+        for (Set<Pointer> scc : pointerFlowGraph.detectCycles(pointer)) {
+            Pointer rep = pointerFlowGraph.collapse(scc);
+            PointsToSet repPts = rep.getPointsToSet();
+            // map from each original points-to set in the SCC to
+            // the objects that are new to it after merging
+            Map<PointsToSet, PointsToSet> deltas = new IdentityHashMap<>();
+            PointsToSet repDelta = PointsToSetFactory.make();
+            for (Pointer node : scc) {
+                if (node != rep) {
+                    repDelta.addAll(repPts.addAllDiff(node.getPointsToSet()));
+                }
+            }
+            deltas.put(repPts, repDelta);
+            for (Pointer node : scc) {
+                if (node != rep) {
+                    deltas.put(node.getPointsToSet(),
+                            node.getPointsToSet().addAllDiff(repPts));
+                }
+            }
+            Map<Pointer, PointsToSet> memberDeltas = Maps.newMap();
+            for (Pointer member : pointerFlowGraph.getMembersOf(rep)) {
+                memberDeltas.put(member, deltas.get(member.getPointsToSet()));
+                member.setPointsToSet(repPts);
+            }
+            for (Pointer succ : pointerFlowGraph.getSuccsOf(rep)) {
+                workList.addEntry(succ, repPts);
+            }
+            memberDeltas.forEach((member, delta) -> {
+                if (!delta.isEmpty()) {
+                    processNewObjects(member, delta);
+                }
+            });
+        }
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
-        PointsToSet delta = PointsToSetFactory.make();
-        if (!pointsToSet.isEmpty()) {
-            PointsToSet ptn = pointer.getPointsToSet();
-            for (var obj : pointsToSet)
-                if (!ptn.contains(obj))
-                    delta.addObject(obj);
-            ptn.addAll(delta);
-            if (!delta.isEmpty())
-                for (Pointer succ : pointerFlowGraph.getSuccsOf(pointer))
-                    workList.addEntry(succ, delta);
+        PointsToSet delta;
+        if (locks == null) {
+            delta = pointer.getPointsToSet().addAllDiff(pointsToSet);
+        } else {
+            synchronized (locks.get(pointer)) {
+                delta = pointer.getPointsToSet().addAllDiff(pointsToSet);
+            }
         }
+        if (!delta.isEmpty())
+            for (Pointer succ : pointerFlowGraph.getSuccsOf(pointer))
+                workList.addEntry(succ, delta);
         return delta;
     }
 
@@ -306,29 +482,40 @@ public class Solver {
         // TODO - finish me
         if (recv == null) return;
         for (var invoke : recv.getVar().getInvokes()) {
-            invokeBaseObjMap.computeIfAbsent(invoke, (k) -> new HashSet<>());
-            invokeBaseObjMap.get(invoke).add(recv.getVar());
             processInstStaticCall(recvObj, invoke, recv.getContext(), recv);
         }
     }
 
     private void processInstStaticCall(CSObj recv, Invoke stmt, Context context, CSVar recvVar) {
-        JMethod jMethod = resolveCallee(recv, stmt);
-        //if (jMethod == null) return;
         // callSite应该是与stmt保持一致
         CSCallSite callSite = csManager.getCSCallSite(context, stmt);
-        Context callCtx = recv != null?
-                contextSelector.selectContext(callSite, recv, jMethod) :
-                contextSelector.selectContext(callSite, jMethod);
-
-        // 但是CSMethod应该通过select选择context？
-        CSMethod csMethod = csManager.getCSMethod(callCtx, jMethod);
+        JMethod jMethod;
+        Context callCtx;
+        IR ir;
+        boolean isNewEdge;
+        synchronized (callLock) {
+            jMethod = resolveCallee(recv, stmt);
+            //if (jMethod == null) return;
+            callCtx = recv != null?
+                    contextSelector.selectContext(callSite, recv, jMethod) :
+                    contextSelector.selectContext(callSite, jMethod);
+
+            // 但是CSMethod应该通过select选择context？
+            CSMethod csMethod = csManager.getCSMethod(callCtx, jMethod);
+            ir = jMethod.getIR();
+            Edge<CSCallSite, CSMethod> edge = new Edge<>(
+                    CallGraphs.getCallKind(stmt), callSite, csMethod);
+            isNewEdge = callGraph.addEdge(edge);
+            if (isNewEdge) {
+                addReachable(csMethod);
+                taintAnalysis.onNewCallEdge(edge);
+            }
+        }
         if (recv != null)
-            workList.addEntry(csManager.getCSVar(callCtx, jMethod.getIR().getThis()), PointsToSetFactory.make(recv));
-        if (callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(stmt), callSite, csMethod))) {
-            addReachable(csMethod);
+            workList.addEntry(csManager.getCSVar(callCtx, ir.getThis()), recv);
+        if (isNewEdge) {
             // 形参
-            List<Var> params = jMethod.getIR().getParams();
+            List<Var> params = ir.getParams();
             // 实参
             List<Var> args = stmt.getInvokeExp().getArgs();
             assert args.size() == params.size();
@@ -338,7 +525,7 @@ public class Solver {
                         csManager.getCSVar(callCtx, params.get(i))
                 );
             }
-            List<Var> retVars = jMethod.getIR().getReturnVars();
+            List<Var> retVars = ir.getReturnVars();
             Var result = stmt.getResult();
             if (result != null) {
                 CSVar csResult = csManager.getCSVar(context, result);
@@ -350,16 +537,18 @@ public class Solver {
                 }
             }
         }
-        Set<CSObj> csObj = taintAnalysis.processSource(stmt);
-        if (stmt.getLValue() != null) {
-            for (var obj : csObj) {
-                workList.addEntry(
-                        csManager.getCSVar(context, stmt.getLValue()),
-                        PointsToSetFactory.make(obj)
-                );
+        synchronized (callLock) {
+            Set<CSObj> csObj = taintAnalysis.processSource(stmt);
+            if (stmt.getLValue() != null) {
+                for (var obj : csObj) {
+                    workList.addEntry(
+                            csManager.getCSVar(context, stmt.getLValue()),
+                            obj
+                    );
+                }
             }
+            taintAnalysis.processTransfer(context, recvVar != null ? recvVar.getVar() : null, stmt.getLValue(), stmt);
         }
-        taintAnalysis.processTransfer(context, recvVar != null ? recvVar.getVar() : null, stmt.getLValue(), stmt);
     }
 
     /**
@@ -378,6 +567,10 @@ public class Solver {
     public PointerAnalysisResult getResult() {
         if (result == null) {
             result = new PointerAnalysisResultImpl(csManager, callGraph);
+            if (cycleElimination) {
+                result.storeResult(ResultProcessor.COLLAPSED_PFG_NODES,
+                        pointerFlowGraph.getNumberOfCollapsedNodes());
+            }
         }
         return result;
     }
@@ -0,0 +1,60 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+
+/**
+ * Guards the points-to sets of pointers in parallel pointer analysis.
+ * <p>
+ * Instead of one lock per pointer, the pointers are hashed to a fixed
+ * number of locks (stripes), so that the threads operating on different
+ * pointers rarely contend for the same lock.
+ */
+class StripedLocks {
+
+    private final Object[] locks;
+
+    private final int mask;
+
+    /**
+     * @param concurrency the expected number of threads that access
+     *                    the points-to sets concurrently.
+     */
+    StripedLocks(int concurrency) {
+        // use more stripes than threads to reduce contention
+        int n = Integer.highestOneBit(Math.max(1, concurrency) * 64 - 1) << 1;
+        locks = new Object[n];
+        for (int i = 0; i < n; ++i) {
+            locks[i] = new Object();
+        }
+        mask = n - 1;
+    }
+
+    /**
+     * @return the lock that guards the points-to set of given pointer.
+     */
+    Object get(Pointer pointer) {
+        int h = System.identityHashCode(pointer);
+        return locks[(h ^ (h >>> 16)) & mask];
+    }
+}
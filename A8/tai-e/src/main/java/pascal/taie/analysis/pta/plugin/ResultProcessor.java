@@ -30,22 +30,33 @@ import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Streams;
 
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
@@ -57,7 +68,8 @@ import static pascal.taie.util.collection.CollectionUtils.sum;
  * Dump points-to set to file or compare the analysis result with
  * the ones read from input file.
  * Currently, the compare functionality is mainly for testing purpose.
- * It is not efficient and not recommended applying on large program.
+ * The input file is streamed, and at most {@link #MAX_MISMATCHES}
+ * mismatches are reported.
  */
 public class ResultProcessor {
 
@@ -70,8 +82,30 @@ public class ResultProcessor {
      */
     private static final String SEP = " -> ";
 
+    /**
+     * Maximum number of mismatches reported by comparison.
+     */
+    private static final int MAX_MISMATCHES = 1000;
+
+    /**
+     * Number of pointers whose points-to sets are formatted as a chunk
+     * when dumping the points-to sets.
+     */
+    private static final int DUMP_CHUNK_SIZE = 1024;
+
+    /**
+     * Number of chunks formatted in parallel before they are written.
+     */
+    private static final int DUMP_CHUNKS_PER_BATCH = 16;
+
     private static final DecimalFormat formatter = new DecimalFormat("#,####");
 
+    /**
+     * Key of the number of PFG nodes collapsed by cycle elimination,
+     * which is stored in the pointer analysis result when available.
+     */
+    public static final String COLLAPSED_PFG_NODES = "collapsed-pfg-nodes";
+
     public static void process(AnalysisOptions options,
                                PointerAnalysisResult result) {
         printStatistics(result);
@@ -83,7 +117,7 @@ public class ResultProcessor {
         boolean taintEnabled = options.getString("taint-config") != null;
         switch (action) {
             case "dump":
-                dumpPointsToSet(result, file, taintEnabled);
+                dumpPointsToSet(result, file, taintEnabled, getThreads(options));
                 break;
             case "compare":
                 if (taintEnabled) {
@@ -97,6 +131,15 @@ public class ResultProcessor {
         }
     }
 
+    /**
+     * @return number of threads for dumping the results, which is given
+     * by option "threads" (default: 1).
+     */
+    private static int getThreads(AnalysisOptions options) {
+        return options.get("threads") != null ?
+                Math.max(1, options.getInt("threads")) : 1;
+    }
+
     private static void printStatistics(PointerAnalysisResult result) {
         int varInsens = result.getVars().size();
         int varSens = result.getCSVars().size();
@@ -125,6 +168,11 @@ public class ResultProcessor {
                 format(reachableInsens), format(reachableSens));
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#call graph edges:",
                 format(callEdgeInsens), format(callEdgeSens));
+        if (result.getKeys().contains(COLLAPSED_PFG_NODES)) {
+            int collapsed = result.getResult(COLLAPSED_PFG_NODES);
+            System.out.printf("%-30s%s%n", "#collapsed PFG nodes:",
+                    format(collapsed));
+        }
         System.out.println("----------------------------------------");
     }
 
@@ -132,42 +180,337 @@ public class ResultProcessor {
         return formatter.format(i);
     }
 
+    /**
+     * Dumps the points-to sets in text format. The points-to sets are
+     * formatted in chunks, in parallel if {@code threads > 1}, and
+     * the chunks are written in order, so that the output is identical
+     * regardless of the number of threads.
+     */
     private static void dumpPointsToSet(PointerAnalysisResult result,
-                                        String output, boolean taintEnabled) {
-        PrintStream out;
-        if (output != null) {  // if output file is given, then dump to the file
-            File outFile = new File(output);
+                                        String output, boolean taintEnabled,
+                                        int threads) {
+        ExecutorService executor = threads > 1 ?
+                Executors.newFixedThreadPool(threads) : null;
+        try (Output out = Output.open(output)) {
+            dumpPointers(out, executor, result.getCSVars(), "variables");
+            dumpPointers(out, executor, result.getStaticFields(), "static fields");
+            dumpPointers(out, executor, result.getInstanceFields(), "instance fields");
+            dumpPointers(out, executor, result.getArrayIndexes(), "array indexes");
+            if (taintEnabled) {
+                dumpTaintFlows(out, result);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static void dumpPointers(Output out, ExecutorService executor,
+                                     Collection<? extends Pointer> pointers,
+                                     String desc) {
+        out.println(HEADER + desc);
+        // compute the string of each pointer once, instead of in every comparison
+        List<Pair<String, Pointer>> sorted = new ArrayList<>(pointers.size());
+        pointers.forEach(p -> sorted.add(new Pair<>(p.toString(), p)));
+        sorted.sort(Comparator.comparing(Pair::first));
+        String nl = System.lineSeparator();
+        int n = sorted.size();
+        int batchSize = executor != null ?
+                DUMP_CHUNK_SIZE * DUMP_CHUNKS_PER_BATCH : DUMP_CHUNK_SIZE;
+        for (int i = 0; i < n; i += batchSize) {
+            List<Callable<String>> tasks = new ArrayList<>();
+            for (int j = i; j < Math.min(i + batchSize, n); j += DUMP_CHUNK_SIZE) {
+                List<Pair<String, Pointer>> chunk =
+                        sorted.subList(j, Math.min(j + DUMP_CHUNK_SIZE, n));
+                tasks.add(() -> {
+                    StringBuilder sb = new StringBuilder();
+                    chunk.forEach(p -> sb.append(p.first()).append(SEP)
+                            .append(toString(p.second().getPointsToSet()))
+                            .append(nl));
+                    return sb.toString();
+                });
+            }
+            if (executor != null) {
+                try {
+                    for (Future<String> future : executor.invokeAll(tasks)) {
+                        out.print(future.get());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AnalysisException("Interrupted while dumping points-to set", e);
+                } catch (ExecutionException e) {
+                    throw new AnalysisException("Failed to dump points-to set", e.getCause());
+                }
+            } else {
+                for (Callable<String> task : tasks) {
+                    try {
+                        out.print(task.call());
+                    } catch (Exception e) {
+                        throw new AnalysisException("Failed to dump points-to set", e);
+                    }
+                }
+            }
+        }
+        out.println("");
+    }
+
+    /**
+     * Output of the dumped text, which is written to a file through
+     * a buffered {@link FileChannel}, or to {@code System.out} if
+     * no output file is given. The text is encoded in the default charset.
+     */
+    private static class Output implements AutoCloseable {
+
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer;
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = channel != null ? ByteBuffer.allocate(BUFFER_SIZE) : null;
+        }
+
+        private static Output open(String output) {
+            if (output == null) { // dump to System.out
+                return new Output(null);
+            }
             try {
-                out = new PrintStream(new FileOutputStream(outFile));
-                logger.info("Dumping points-to set to {} ...", outFile);
-            } catch (FileNotFoundException e) {
+                logger.info("Dumping points-to set to {} ...", new File(output));
+                return new Output(FileChannel.open(Path.of(output),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE));
+            } catch (IOException e) {
                 throw new RuntimeException("Failed to open output file", e);
             }
-        } else {  // otherwise, dump to System.out
-            out = System.out;
         }
-        dumpPointers(out, result.getCSVars(), "variables");
-        dumpPointers(out, result.getStaticFields(), "static fields");
-        dumpPointers(out, result.getInstanceFields(), "instance fields");
-        dumpPointers(out, result.getArrayIndexes(), "array indexes");
-        if (taintEnabled) {
-            dumpTaintFlows(out, result);
+
+        private void println(String s) {
+            print(s + System.lineSeparator());
         }
-        if (out != System.out) {
-            out.close();
+
+        private void print(String s) {
+            if (channel == null) {
+                System.out.print(s);
+                return;
+            }
+            byte[] bytes = s.getBytes(Charset.defaultCharset());
+            if (bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > buffer.capacity()) {
+                write(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(bytes);
+            }
         }
-    }
 
-    private static void dumpPointers(PrintStream out, Collection<? extends Pointer> pointers, String desc) {
-        out.println(HEADER + desc);
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> out.println(p + SEP + toString(p.getPointsToSet())));
-        out.println();
+        private void flush() {
+            buffer.flip();
+            write(buffer);
+            buffer.clear();
+        }
+
+        private void write(ByteBuffer buf) {
+            try {
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write output file", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (channel == null) {
+                System.out.flush();
+                return;
+            }
+            flush();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to close output file", e);
+            }
+        }
     }
 
+    /**
+     * Compares the points-to sets with the ones in input file. The pointers
+     * of each kind are dumped in sorted order, thus the input file and
+     * the sorted pointers of the result are compared in a single pass,
+     * without loading the whole input file into memory. If the input file
+     * is not sorted (e.g., it is not produced by {@link #dumpPointsToSet}),
+     * falls back to {@link #comparePointsToSetInMemory}.
+     */
     private static void comparePointsToSet(PointerAnalysisResult result, String input) {
         logger.info("Comparing points-to set with {} ...", input);
+        Map<String, Collection<? extends Pointer>> sections = new LinkedHashMap<>();
+        sections.put("variables", result.getCSVars());
+        sections.put("static fields", result.getStaticFields());
+        sections.put("instance fields", result.getInstanceFields());
+        sections.put("array indexes", result.getArrayIndexes());
+        Mismatches mismatches = new Mismatches();
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(input))) {
+            SectionMerger merger = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(HEADER)) {
+                    if (merger != null) {
+                        merger.finish();
+                    }
+                    var pointers = sections.remove(line.substring(HEADER.length()));
+                    merger = new SectionMerger(
+                            pointers != null ? pointers : List.of(), mismatches);
+                } else if (line.contains(SEP)) {
+                    String[] s = line.split(SEP);
+                    if (merger == null || !merger.next(s[0], s[1])) {
+                        logger.warn("{} is not sorted, compare it in memory", input);
+                        comparePointsToSetInMemory(result, input);
+                        return;
+                    }
+                }
+            }
+            if (merger != null) {
+                merger.finish();
+            }
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to read points-to set from " + input, e);
+        }
+        // pointers whose sections are absent in the input file
+        sections.values().forEach(pointers ->
+                new SectionMerger(pointers, mismatches).finish());
+        mismatches.check("Mismatches of points-to set");
+    }
+
+    /**
+     * Merges the pointers of a section in the input file with
+     * the pointers of the same kind in the result.
+     */
+    private static class SectionMerger {
+
+        private final Iterator<? extends Pointer> pointers;
+
+        private final Mismatches mismatches;
+
+        /**
+         * The next pointer in the result which has not been compared.
+         */
+        private Pointer pointer;
+
+        private String pointerStr;
+
+        /**
+         * The last pointer read from the input file.
+         */
+        private String lastExpected;
+
+        private SectionMerger(Collection<? extends Pointer> pointers,
+                              Mismatches mismatches) {
+            this.pointers = pointers.stream()
+                    .sorted(Comparator.comparing(Pointer::toString))
+                    .iterator();
+            this.mismatches = mismatches;
+            advance();
+        }
+
+        /**
+         * Compares the next pointer in the input file and its points-to set.
+         *
+         * @return false if the pointers in the input file are not sorted.
+         */
+        private boolean next(String expectedPointer, String expected) {
+            if (lastExpected != null && lastExpected.compareTo(expectedPointer) >= 0) {
+                return false;
+            }
+            lastExpected = expectedPointer;
+            while (pointer != null && pointerStr.compareTo(expectedPointer) < 0) {
+                mismatches.add(String.format("%s, expected: null, given: %s",
+                        pointerStr, ResultProcessor.toString(pointer.getPointsToSet())));
+                advance();
+            }
+            if (pointer != null && pointerStr.equals(expectedPointer)) {
+                String given = ResultProcessor.toString(pointer.getPointsToSet());
+                if (!given.equals(expected)) {
+                    mismatches.add(String.format("%s, expected: %s, given: %s",
+                            pointerStr, expected, given));
+                }
+                advance();
+            } else {
+                mismatches.add(String.format("%s, expected: %s, given: null",
+                        expectedPointer, expected));
+            }
+            return true;
+        }
+
+        /**
+         * Reports the remaining pointers in the result,
+         * which are absent in the input file.
+         */
+        private void finish() {
+            while (pointer != null) {
+                mismatches.add(String.format("%s, expected: null, given: %s",
+                        pointerStr, ResultProcessor.toString(pointer.getPointsToSet())));
+                advance();
+            }
+        }
+
+        private void advance() {
+            if (pointers.hasNext()) {
+                pointer = pointers.next();
+                pointerStr = pointer.toString();
+            } else {
+                pointer = null;
+                pointerStr = null;
+            }
+        }
+    }
+
+    /**
+     * Collects the mismatches found by comparison. The first
+     * {@link #MAX_MISMATCHES} mismatches are kept and the others are only
+     * counted. The kept mismatches are logged by {@link #check} when the
+     * comparison completes, so that nothing is logged by a comparison
+     * which is abandoned halfway (e.g., when the input is not sorted).
+     */
+    private static class Mismatches {
+
+        private final List<String> mismatches = new ArrayList<>();
+
+        private int omitted;
+
+        private void add(String mismatch) {
+            if (mismatches.size() < MAX_MISMATCHES) {
+                mismatches.add(mismatch);
+            } else {
+                ++omitted;
+            }
+        }
+
+        /**
+         * @throws AnalysisException if any mismatch has been found.
+         */
+        private void check(String title) {
+            if (!mismatches.isEmpty()) {
+                mismatches.forEach(logger::info);
+                String message = title + "\n" + String.join("\n", mismatches);
+                if (omitted > 0) {
+                    message += "\n... and " + omitted + " more";
+                }
+                throw new AnalysisException(message);
+            }
+        }
+    }
+
+    /**
+     * Compares the points-to sets by loading the whole input file into memory.
+     */
+    private static void comparePointsToSetInMemory(PointerAnalysisResult result, String input) {
         var inputs = readPointsToSets(input);
         Map<String, Pointer> pointers = new LinkedHashMap<>();
         addPointers(pointers, result.getCSVars());
@@ -222,11 +565,11 @@ public class ResultProcessor {
         return Streams.toString(pts.objects());
     }
 
-    private static void dumpTaintFlows(PrintStream out, PointerAnalysisResult result) {
+    private static void dumpTaintFlows(Output out, PointerAnalysisResult result) {
         Set<TaintFlow> taintFlows = getTaintFlows(result);
-        out.printf("Detected %d taint flow(s):%n", taintFlows.size());
-        taintFlows.forEach(out::println);
-        out.println();
+        out.println(String.format("Detected %d taint flow(s):", taintFlows.size()));
+        taintFlows.forEach(taintFlow -> out.println(taintFlow.toString()));
+        out.println("");
     }
 
     /**
@@ -241,40 +584,39 @@ public class ResultProcessor {
         throw new AnalysisException("Taint analysis result is absent");
     }
 
+    /**
+     * Compares the detected taint flows with the ones in input file.
+     * The input file is streamed, and each taint flow in it is checked
+     * against the detected taint flows.
+     */
     private static void compareTaintFlows(PointerAnalysisResult result, String input) {
         logger.info("Comparing taint flows with {} ...", input);
-        List<String> inputs = readTaintFlows(input);
-        List<String> taintFlows = getTaintFlows(result)
+        Set<String> taintFlows = getTaintFlows(result)
                 .stream()
                 .map(TaintFlow::toString)
-                .collect(Collectors.toList());
-        List<String> mismatches = new ArrayList<>();
-        taintFlows.forEach(taintFlow -> {
-            if (!inputs.contains(taintFlow)) {
-                mismatches.add(taintFlow + " should NOT be included");
-            }
-        });
-        inputs.forEach(expected -> {
-            if (!taintFlows.contains(expected)) {
-                mismatches.add(expected + " should be included");
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> matched = Sets.newSet(taintFlows.size());
+        Mismatches mismatches = new Mismatches();
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(input))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("TaintFlow{") && line.contains(SEP)) {
+                    if (taintFlows.contains(line)) {
+                        matched.add(line);
+                    } else {
+                        mismatches.add(line + " should be included");
+                    }
+                }
             }
-        });
-        if (!mismatches.isEmpty()) {
-            throw new AnalysisException("Mismatches of taint flow(s)\n" +
-                    String.join("\n", mismatches));
-        }
-    }
-
-    private static List<String> readTaintFlows(String input) {
-        try {
-            List<String> taintFlows = new ArrayList<>();
-            Files.lines(Path.of(input))
-                    .filter(line -> line.startsWith("TaintFlow{") && line.contains(SEP))
-                    .forEach(taintFlows::add);
-            return taintFlows;
         } catch (IOException e) {
             throw new AnalysisException(
                     "Failed to read taint flows from " + input, e);
         }
+        taintFlows.forEach(taintFlow -> {
+            if (!matched.contains(taintFlow)) {
+                mismatches.add(taintFlow + " should NOT be included");
+            }
+        });
+        mismatches.check("Mismatches of taint flow(s)");
     }
 }
@@ -26,14 +26,18 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.Edge;
-import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.*;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.cs.Solver;
+import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
 import java.util.*;
 
@@ -51,6 +55,23 @@ public class TaintAnalysiss {
 
     private final Context emptyContext;
 
+    /**
+     * Taint flows detected so far.
+     */
+    private final Set<TaintFlow> taintFlows = new TreeSet<>();
+
+    /**
+     * Map from each argument of the sink calls to the sink calls
+     * and the indexes at which it is passed.
+     */
+    private final MultiMap<CSVar, SinkArg> sinkArgs = Maps.newMultiMap();
+
+    /**
+     * Map from each variable to the watchers which transfer
+     * the taint objects pointed to by it.
+     */
+    private final MultiMap<CSVar, TransferWatcher> transferWatchers = Maps.newMultiMap();
+
     public TaintAnalysiss(Solver solver) {
         manager = new TaintManager();
         this.solver = solver;
@@ -66,87 +87,158 @@ public class TaintAnalysiss {
     // TODO - finish me
     public Set<CSObj> processSource(Invoke invoke) {
         Set<CSObj> csObjSet = new HashSet<>();
-        for (Source source : config.getSources()) {
-            if (source.method() == invoke.getInvokeExp().getMethodRef().resolve() &&
-                source.type() == invoke.getInvokeExp().getMethodRef().getReturnType())
+        JMethod callee = invoke.getMethodRef().resolve();
+        for (Source source : config.getSourcesOf(callee)) {
+            if (source.type() == invoke.getInvokeExp().getMethodRef().getReturnType())
                 csObjSet.add(csManager.getCSObj(emptyContext, manager.makeTaint(invoke, source.type())));
         }
         return csObjSet;
     }
 
+    /**
+     * Processes the taint transfers of a call site. For each transfer
+     * configured for the callee, registers a watcher on the variable
+     * which the taint objects are transferred from, so that the taint
+     * objects which flow to the variable later are transferred as well.
+     *
+     * @param recvVar   the receiver variable, or null for static calls.
+     * @param resultVar the variable receiving the result, or null if absent.
+     */
     public void processTransfer(Context invokeContext, Var recvVar, Var resultVar, Invoke invoke) {
+        // MethodRef caches the resolved method, so resolving it here is cheap
+        JMethod callee = invoke.getMethodRef().resolve();
         CSVar csRecvVar = null, csResultVar = null;
         if (recvVar != null) csRecvVar = csManager.getCSVar(invokeContext, recvVar);
         if (resultVar != null) csResultVar = csManager.getCSVar(invokeContext, resultVar);
-        for (TaintTransfer transfer: config.getTransfers()) {
-            // check whether method equals
-            if (Objects.equals(transfer.method(), invoke.getMethodRef().resolve())) {
-                // Base to result
-                if (transfer.from() == -1 && transfer.to() == -2) {
-                    if (csRecvVar != null && csResultVar != null) { // Dynamic Invoke
-                        baseToResult(csRecvVar, csResultVar, transfer);
-                    }
-                }
-                // Arg to base
-                else if (transfer.from() >= 0 && transfer.to() == -1) {
-                    processArg(invokeContext, invoke, csRecvVar, transfer);
-                }
-                // Arg to result
-                else if (transfer.from() >= 0 && transfer.to() == -2) {
-                    processArg(invokeContext, invoke, csResultVar, transfer);
-                }
-                else {
-                    throw new AssertionError("Unreachable code path!");
-                }
+        // Base to result
+        if (csRecvVar != null && csResultVar != null) { // Dynamic Invoke
+            for (TaintTransfer transfer : config.getBaseToResultTransfersOf(callee)) {
+                addTransferWatcher(csRecvVar, csResultVar, transfer);
+            }
+        }
+        // Arg to base
+        if (csRecvVar != null) {
+            for (TaintTransfer transfer : config.getArgToBaseTransfersOf(callee)) {
+                addTransferWatcher(getArg(invokeContext, invoke, transfer),
+                        csRecvVar, transfer);
             }
         }
+        // Arg to result
+        if (csResultVar != null) {
+            for (TaintTransfer transfer : config.getArgToResultTransfersOf(callee)) {
+                addTransferWatcher(getArg(invokeContext, invoke, transfer),
+                        csResultVar, transfer);
+            }
+        }
+    }
+
+    private CSVar getArg(Context invokeContext, Invoke invoke, TaintTransfer transfer) {
+        return csManager.getCSVar(invokeContext,
+                invoke.getInvokeExp().getArg(transfer.from()));
     }
 
-    private void baseToResult(CSVar csRecvVar, CSVar csResultVar, TaintTransfer transfer) {
-        for (CSObj csObj: csRecvVar.getPointsToSet().getObjects()) {
+    /**
+     * Registers a watcher which transfers the taint objects pointed to
+     * by {@code from} to {@code to}, and transfers the ones which
+     * {@code from} already points to.
+     */
+    private void addTransferWatcher(CSVar from, CSVar to, TaintTransfer transfer) {
+        TransferWatcher watcher = new TransferWatcher(to, transfer.type());
+        if (transferWatchers.put(from, watcher)) {
+            transferTaints(watcher, solver.getPointsToSetOf(from));
+        }
+    }
+
+    private void transferTaints(TransferWatcher watcher, PointsToSet pts) {
+        for (CSObj csObj : pts) {
             Obj obj = csObj.getObject();
             if (manager.isTaint(obj)) {
                 // 通过workList将污点传播出去
                 CSObj newTaintObj = csManager.getCSObj(emptyContext,
-                        manager.makeTaint(manager.getSourceCall(obj), transfer.type()));
-                solver.workListAddEntry(csResultVar, newTaintObj);
+                        manager.makeTaint(manager.getSourceCall(obj), watcher.type()));
+                solver.workListAddEntry(watcher.to(), newTaintObj);
             }
         }
     }
 
-    private void processArg(Context invokeContext, Invoke invoke, CSVar csRecvVar, TaintTransfer transfer) {
-        if (csRecvVar != null) { // Dynamic Invoke
-            CSVar csArgIVar = csManager.getCSVar(invokeContext,
-                    invoke.getInvokeExp().getArg(transfer.from()));
-            baseToResult(csArgIVar, csRecvVar, transfer);
+    /**
+     * Processes a new call edge. If the callee is a sink method,
+     * watches the sink argument of the call site for taint objects.
+     */
+    public void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        Set<Sink> sinks = config.getSinksOf(edge.getCallee().getMethod());
+        if (sinks.isEmpty()) {
+            return;
+        }
+        Invoke sinkCall = edge.getCallSite().getCallSite();
+        Context context = edge.getCallSite().getContext();
+        for (Sink sink : sinks) {
+            Var argument = sinkCall.getInvokeExp().getArg(sink.index());
+            CSVar csArg = csManager.getCSVar(context, argument);
+            SinkArg sinkArg = new SinkArg(sinkCall, sink.index());
+            if (sinkArgs.put(csArg, sinkArg)) {
+                collectTaintFlows(sinkArg, solver.getPointsToSetOf(csArg));
+            }
         }
     }
 
-    public void onFinish() {
-        Set<TaintFlow> taintFlows = collectTaintFlows();
-        solver.getResult().storeResult(getClass().getName(), taintFlows);
+    /**
+     * Processes new objects (delta) pointed to by given variable.
+     * If the variable is a sink argument, records the taint flows
+     * to the sink. If the variable is watched by taint transfers,
+     * transfers the new taint objects.
+     */
+    public void onNewPointsToSet(CSVar csVar, PointsToSet delta) {
+        for (SinkArg sinkArg : sinkArgs.get(csVar)) {
+            collectTaintFlows(sinkArg, delta);
+        }
+        Set<TransferWatcher> watchers = transferWatchers.get(csVar);
+        if (!watchers.isEmpty()) {
+            PointsToSet taints = PointsToSetFactory.make();
+            for (CSObj csObj : delta) {
+                if (manager.isTaint(csObj.getObject())) {
+                    taints.addObject(csObj);
+                }
+            }
+            if (!taints.isEmpty()) {
+                watchers.forEach(watcher -> transferTaints(watcher, taints));
+            }
+        }
     }
 
-    private Set<TaintFlow> collectTaintFlows() {
-        Set<TaintFlow> taintFlows = new TreeSet<>();
-        PointerAnalysisResult result = solver.getResult();
-        // TODO - finish me
-        // You could query pointer analysis results you need via variable result.
-        for (Edge<CSCallSite, CSMethod> edge: solver.callGraph.edges().toList()) {
-            for (Sink sink : config.getSinks()) {
-                if (Objects.equals(sink.method(), edge.getCallee().getMethod())) {
-                    Invoke sinkCall = edge.getCallSite().getCallSite();
-                    Var argument = sinkCall.getInvokeExp().getArg(sink.index());
-                    for (CSObj csObj: result.getPointsToSet(
-                            csManager.getCSVar(edge.getCallSite().getContext(), argument))) {
-                        Obj obj = csObj.getObject();
-                        if (manager.isTaint(obj)) {
-                            taintFlows.add(new TaintFlow(manager.getSourceCall(obj), sinkCall, sink.index()));
-                        }
-                    }
+    private void collectTaintFlows(SinkArg sinkArg, PointsToSet pts) {
+        for (CSObj csObj : pts) {
+            Obj obj = csObj.getObject();
+            if (manager.isTaint(obj)) {
+                TaintFlow taintFlow = new TaintFlow(manager.getSourceCall(obj),
+                        sinkArg.sinkCall(), sinkArg.index());
+                if (taintFlows.add(taintFlow)) {
+                    logger.debug("Detected {}", taintFlow);
                 }
             }
         }
-        return taintFlows;
+    }
+
+    public void onFinish() {
+        solver.getResult().storeResult(getClass().getName(),
+                Collections.unmodifiableSet(taintFlows));
+    }
+
+    /**
+     * Represents an argument of a sink call.
+     *
+     * @param sinkCall the sink call
+     * @param index    index of the argument
+     */
+    private record SinkArg(Invoke sinkCall, int index) {
+    }
+
+    /**
+     * Represents a taint transfer to a variable.
+     *
+     * @param to   the variable which the taint objects are transferred to
+     * @param type type of the transferred taint objects
+     */
+    private record TransferWatcher(CSVar to, Type type) {
     }
 }
@@ -38,6 +38,8 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
 
 import java.io.File;
@@ -67,11 +69,52 @@ class TaintConfig {
      */
     private final Set<TaintTransfer> transfers;
 
+    /**
+     * Map from each source method to its sources.
+     */
+    private final MultiMap<JMethod, Source> method2Sources = Maps.newMultiMap();
+
+    /**
+     * Map from each sink method to its sinks.
+     */
+    private final MultiMap<JMethod, Sink> method2Sinks = Maps.newMultiMap();
+
+    /**
+     * Map from each method to its taint transfers from base to result.
+     */
+    private final MultiMap<JMethod, TaintTransfer> baseToResultTransfers = Maps.newMultiMap();
+
+    /**
+     * Map from each method to its taint transfers from arguments to base.
+     */
+    private final MultiMap<JMethod, TaintTransfer> argToBaseTransfers = Maps.newMultiMap();
+
+    /**
+     * Map from each method to its taint transfers from arguments to result.
+     */
+    private final MultiMap<JMethod, TaintTransfer> argToResultTransfers = Maps.newMultiMap();
+
     private TaintConfig(Set<Source> sources, Set<Sink> sinks,
                         Set<TaintTransfer> transfers) {
         this.sources = sources;
         this.sinks = sinks;
         this.transfers = transfers;
+        sources.forEach(source -> method2Sources.put(source.method(), source));
+        sinks.forEach(sink -> method2Sinks.put(sink.method(), sink));
+        transfers.forEach(this::indexTransfer);
+    }
+
+    private void indexTransfer(TaintTransfer transfer) {
+        int from = transfer.from(), to = transfer.to();
+        if (from == TaintTransfer.BASE && to == TaintTransfer.RESULT) {
+            baseToResultTransfers.put(transfer.method(), transfer);
+        } else if (from >= 0 && to == TaintTransfer.BASE) {
+            argToBaseTransfers.put(transfer.method(), transfer);
+        } else if (from >= 0 && to == TaintTransfer.RESULT) {
+            argToResultTransfers.put(transfer.method(), transfer);
+        } else {
+            throw new ConfigException("Unsupported taint transfer: " + transfer);
+        }
     }
 
     /**
@@ -119,6 +162,44 @@ class TaintConfig {
         return transfers;
     }
 
+    /**
+     * @return sources whose method is given method.
+     */
+    Set<Source> getSourcesOf(JMethod method) {
+        return method2Sources.get(method);
+    }
+
+    /**
+     * @return sinks whose method is given method.
+     */
+    Set<Sink> getSinksOf(JMethod method) {
+        return method2Sinks.get(method);
+    }
+
+    /**
+     * @return taint transfers of given method from base variable
+     * to result variable.
+     */
+    Set<TaintTransfer> getBaseToResultTransfersOf(JMethod method) {
+        return baseToResultTransfers.get(method);
+    }
+
+    /**
+     * @return taint transfers of given method from arguments
+     * to base variable.
+     */
+    Set<TaintTransfer> getArgToBaseTransfersOf(JMethod method) {
+        return argToBaseTransfers.get(method);
+    }
+
+    /**
+     * @return taint transfers of given method from arguments
+     * to result variable.
+     */
+    Set<TaintTransfer> getArgToResultTransfersOf(JMethod method) {
+        return argToResultTransfers.get(method);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("TaintConfig:");
@@ -0,0 +1,284 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set represented by a rolling bit vector over the dense
+ * indexes of {@link CSObj}.
+ * <p>
+ * The vector only stores the words between the lowest and the highest
+ * word that have been touched, thus objects which are created closely
+ * (and have close indexes) are stored compactly regardless of the
+ * absolute values of their indexes.
+ */
+class BitVectorPointsToSet implements PointsToSet {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private static final long[] EMPTY_WORDS = new long[0];
+
+    private final Indexer<CSObj> indexer;
+
+    /**
+     * words[i] holds the bits of the (offset + i)-th word of the vector.
+     */
+    private long[] words = EMPTY_WORDS;
+
+    /**
+     * Index of the first word stored in {@link #words}.
+     */
+    private int offset;
+
+    /**
+     * Number of set bits, i.e., number of objects in this set.
+     */
+    private int size;
+
+    BitVectorPointsToSet(Indexer<CSObj> indexer) {
+        this.indexer = indexer;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        int bitIndex = indexer.getIndex(obj);
+        int wordIndex = bitIndex >>> ADDRESS_BITS_PER_WORD;
+        ensureCapacity(wordIndex, wordIndex);
+        int i = wordIndex - offset;
+        long mask = 1L << bitIndex;
+        if ((words[i] & mask) != 0) {
+            return false;
+        }
+        words[i] |= mask;
+        ++size;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        if (pts instanceof BitVectorPointsToSet other) {
+            return !addAllWords(other, null);
+        } else {
+            boolean changed = false;
+            for (CSObj obj : pts) {
+                changed |= addObject(obj);
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        if (pts instanceof BitVectorPointsToSet other) {
+            BitVectorPointsToSet diff = new BitVectorPointsToSet(indexer);
+            addAllWords(other, diff);
+            return diff;
+        } else {
+            return PointsToSet.super.addAllDiff(pts);
+        }
+    }
+
+    /**
+     * Adds all bits of other to this set word by word. The difference
+     * of each word (other & ~this) is computed before the word is merged,
+     * and stored to diff if diff is not null.
+     *
+     * @return true if this set did not change, otherwise false.
+     */
+    private boolean addAllWords(BitVectorPointsToSet other, BitVectorPointsToSet diff) {
+        if (other == this || other.size == 0) {
+            return true;
+        }
+        int first = other.firstNonZeroWord();
+        int last = other.lastNonZeroWord();
+        ensureCapacity(other.offset + first, other.offset + last);
+        if (diff != null) {
+            diff.words = new long[last - first + 1];
+            diff.offset = other.offset + first;
+        }
+        int oldSize = size;
+        for (int i = first; i <= last; ++i) {
+            long otherWord = other.words[i];
+            if (otherWord != 0) {
+                int j = other.offset + i - offset;
+                long d = otherWord & ~words[j];
+                if (d != 0) {
+                    words[j] |= d;
+                    int n = Long.bitCount(d);
+                    size += n;
+                    if (diff != null) {
+                        diff.words[i - first] = d;
+                        diff.size += n;
+                    }
+                }
+            }
+        }
+        return size == oldSize;
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        int bitIndex = indexer.getIndex(obj);
+        int i = (bitIndex >>> ADDRESS_BITS_PER_WORD) - offset;
+        return i >= 0 && i < words.length
+                && (words[i] & (1L << bitIndex)) != 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return Collections.unmodifiableSet(new AbstractSet<>() {
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof CSObj obj && BitVectorPointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public Iterator<CSObj> iterator() {
+                return new ObjectIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        });
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return getObjects().stream();
+    }
+
+    @Override
+    public Iterator<CSObj> iterator() {
+        return new ObjectIterator();
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+
+    /**
+     * Makes sure that words from fromWord to toWord (both inclusive)
+     * are stored in {@link #words}. When the vector needs to grow,
+     * it at least doubles its length toward the growing side, so that
+     * the cost of rolling the vector is amortized.
+     */
+    private void ensureCapacity(int fromWord, int toWord) {
+        if (words.length == 0) {
+            words = new long[toWord - fromWord + 1];
+            offset = fromWord;
+            return;
+        }
+        int end = offset + words.length;
+        if (fromWord >= offset && toWord < end) {
+            return;
+        }
+        int newOffset = offset;
+        int newEnd = end;
+        if (fromWord < offset) {
+            newOffset = Math.max(0, Math.min(fromWord, offset - words.length));
+        }
+        if (toWord >= end) {
+            newEnd = Math.max(toWord + 1, end + words.length);
+        }
+        long[] newWords = new long[newEnd - newOffset];
+        System.arraycopy(words, 0, newWords, offset - newOffset, words.length);
+        words = newWords;
+        offset = newOffset;
+    }
+
+    private int firstNonZeroWord() {
+        int i = 0;
+        while (words[i] == 0) {
+            ++i;
+        }
+        return i;
+    }
+
+    private int lastNonZeroWord() {
+        int i = words.length - 1;
+        while (words[i] == 0) {
+            --i;
+        }
+        return i;
+    }
+
+    /**
+     * Iterates objects in this set in ascending order of their indexes.
+     */
+    private class ObjectIterator implements Iterator<CSObj> {
+
+        private int wordIndex = -1;
+
+        private long word;
+
+        private ObjectIterator() {
+            advance();
+        }
+
+        private void advance() {
+            while (word == 0 && ++wordIndex < words.length) {
+                word = words[wordIndex];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return word != 0;
+        }
+
+        @Override
+        public CSObj next() {
+            if (word == 0) {
+                throw new NoSuchElementException();
+            }
+            int bit = Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+            int bitIndex = ((offset + wordIndex) << ADDRESS_BITS_PER_WORD) + bit;
+            advance();
+            return indexer.getObject(bitIndex);
+        }
+    }
+}
@@ -76,4 +76,16 @@ public class TaintTest {
         Tests.testCSPTA(DIR, "CSTaint",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
+
+    @Test
+    public void testCSTaintBitVector() {
+        Tests.testCSPTA(DIR, "CSTaint",
+                "cs:2-obj;pts-impl:bit;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testCSTaintParallel() {
+        Tests.testCSPTA(DIR, "CSTaint",
+                "cs:2-obj;threads:4;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
 }